@@ -35,6 +35,9 @@ import org.cytoscape.io.util.StreamUtil;
 import org.cytoscape.io.write.CyNetworkViewWriterFactory;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyNetworkTableManager;
+import org.cytoscape.model.CyTableFactory;
+import org.cytoscape.model.CyTableManager;
 import org.cytoscape.model.subnetwork.CyRootNetworkManager;
 import org.cytoscape.psi_mi.internal.plugin.PsiMiCyFileFilter;
 import org.cytoscape.psi_mi.internal.plugin.PsiMiNetworkViewTaskFactory;
@@ -62,6 +65,9 @@ public class CyActivator extends AbstractCyActivator {
 		StreamUtil streamUtilRef = getService(bc,StreamUtil.class);
 		CyNetworkManager cyNetworkManagerServiceRef = getService(bc,CyNetworkManager.class);
 		CyRootNetworkManager cyRootNetworkManagerServiceRef = getService(bc,CyRootNetworkManager.class);	
+		CyTableFactory cyTableFactoryServiceRef = getService(bc,CyTableFactory.class);
+		CyTableManager cyTableManagerServiceRef = getService(bc,CyTableManager.class);
+		CyNetworkTableManager cyNetworkTableManagerServiceRef = getService(bc,CyNetworkTableManager.class);
 		
 		// PsiMiCyFileFilter psiMiFilter = new
 		// PsiMiCyFileFilter("PSI-MI files (*.xml)",streamUtilRef,
@@ -74,7 +80,8 @@ public class CyActivator extends AbstractCyActivator {
 		
 		PsiMiNetworkViewTaskFactory psiMi25NetworkViewTaskFactory = new PsiMiNetworkViewTaskFactory(
 				PsiMiCyFileFilter.PSIMIVersion.PSIMI25, psiMi25Filter, cyApplicationManagerServiceRef, cyNetworkFactoryServiceRef,
-				cyNetworkViewFactoryServiceRef, cyLayoutsServiceRef, cyNetworkManagerServiceRef, cyRootNetworkManagerServiceRef);
+				cyNetworkViewFactoryServiceRef, cyLayoutsServiceRef, cyNetworkManagerServiceRef, cyRootNetworkManagerServiceRef,
+				cyTableFactoryServiceRef, cyTableManagerServiceRef, cyNetworkTableManagerServiceRef);
 		PsiMiNetworkViewTaskFactory psiMi10NetworkViewTaskFactory = new PsiMiNetworkViewTaskFactory(
 				PsiMiCyFileFilter.PSIMIVersion.PXIMI10, psiMi1Filter, cyApplicationManagerServiceRef, cyNetworkFactoryServiceRef,
 				cyNetworkViewFactoryServiceRef, cyLayoutsServiceRef, cyNetworkManagerServiceRef, cyRootNetworkManagerServiceRef);
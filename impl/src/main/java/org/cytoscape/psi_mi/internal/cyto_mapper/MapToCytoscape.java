@@ -127,6 +127,10 @@ public class MapToCytoscape implements Mapper {
 
 	private Map<Integer, Interaction> intMap;
 
+	private Map<String, CyNode> nodeMap;
+
+	private Set<String> edgeIds;
+
 	private CyNetwork network;
 
 	/**
@@ -188,16 +192,38 @@ public class MapToCytoscape implements Mapper {
 	 * @throws MapperException Indicates Error in mapping.
 	 */
 	public final void doMapping() throws MapperException {
-		Map<String, CyNode> nodeMap = new HashMap<String, CyNode>();
+		nodeMap = new HashMap<String, CyNode>();
+		edgeIds = new HashSet<String>();
 		intMap = new HashMap<Integer, Interaction>();
 		//  Validate Interaction Data
-		validateInteractions();
+		validateInteractions(interactions);
 
 		//  First pass, add all new nodes.
-		addNewNodes(nodeMap);
+		addNewNodes(interactions);
 
 		//  Second pass, add all new interactions.
-		addNewEdges(nodeMap);
+		addNewEdges(interactions);
+	}
+
+	/**
+	 * Maps interactions while they are still being read, e.g. by a parser
+	 * on another thread.  Nodes and edges that earlier calls created are
+	 * reused, so mapping all interactions in several calls gives the same
+	 * network as {@link #doMapping()}.
+	 *
+	 * @param batch the next interactions.
+	 * @throws MapperException Indicates Error in mapping.
+	 */
+	public final void mapInteractions(List<Interaction> batch) throws MapperException {
+		if (nodeMap == null) {
+			nodeMap = new HashMap<String, CyNode>();
+			edgeIds = new HashSet<String>();
+			intMap = new HashMap<Integer, Interaction>();
+		}
+
+		validateInteractions(batch);
+		addNewNodes(batch);
+		addNewEdges(batch);
 	}
 
 	/**
@@ -246,7 +272,7 @@ public class MapToCytoscape implements Mapper {
 	 *
 	 * @throws MapperException Mapping Exception.
 	 */
-	private void validateInteractions() throws MapperException {
+	private void validateInteractions(List<Interaction> interactions) throws MapperException {
 		String errorMsg = "In order to correctly graph your interactions, "
 		                  + "each interaction must specify exactly " + "one bait value.";
 
@@ -275,9 +301,9 @@ public class MapToCytoscape implements Mapper {
 	/**
 	 * Adds New Nodes to Network.
 	 *
-	 * @param nodeMap HashMap of current nodes.
+	 * @param interactions Interactions whose nodes are added.
 	 */
-	private void addNewNodes(Map<String, CyNode> nodeMap) {
+	private void addNewNodes(List<Interaction> interactions) {
 		for (Interaction interaction : interactions) {
 			for (Interactor interactor : interaction.getInteractors()) {
 				addNode(interactor, nodeMap);
@@ -288,11 +314,9 @@ public class MapToCytoscape implements Mapper {
 	/**
 	 * Adds New edges to Network.
 	 *
-	 * @param nodeMap Current Nodes.
-	 * @param edgeMap Current Edges.
+	 * @param interactions Interactions whose edges are added.
 	 */
-	private void addNewEdges(Map<String, CyNode> nodeMap) {
-		Set<String> edgeIds = new HashSet<String>();
+	private void addNewEdges(List<Interaction> interactions) {
 		for (int i = 0; i < interactions.size(); i++) {
 			Interaction interaction = interactions.get(i);
 			List<Interactor> interactors = interaction.getInteractors();
@@ -30,6 +30,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -82,13 +83,26 @@ public class MapPsiOneToInteractions implements Mapper {
 	 * @throws MapperException Problem Performing mapping.
 	 */
 	public void doMapping() throws MapperException {
-		parseXml(xml);
+		parseXml(xml, null);
+	}
+
+	/**
+	 * Performs the mapping and emits the interactions of each interaction
+	 * element as soon as it has been unmarshalled, instead of adding them to
+	 * the list, so they can be mapped while the rest is still being parsed.
+	 *
+	 * @param pipeline receives the interactions in document order.
+	 * @throws MapperException Problem Performing mapping.
+	 * @throws CancellationException if the pipeline was closed.
+	 */
+	public void doMapping(ParsePipeline<Interaction> pipeline) throws MapperException {
+		parseXml(xml, pipeline);
 	}
 
 	/**
 	 * Parses the PSI XML Document.
 	 */
-	private void parseXml(String content) throws MapperException {
+	private void parseXml(String content, ParsePipeline<Interaction> pipeline) throws MapperException {
 		try {
 			interactorMap = new HashMap<String, ProteinInteractorType>();
 			experimentMap = new HashMap<String, ExperimentType>();
@@ -96,8 +110,18 @@ public class MapPsiOneToInteractions implements Mapper {
 			StringReader reader = new StringReader(content);
 			JAXBContext jc = JAXBContext.newInstance(MapInteractionsToPsiOne.SCHEMA_NAMESPACE, getClass().getClassLoader());
 			Unmarshaller u = jc.createUnmarshaller();
+
+			if (pipeline != null) {
+				u.setListener(new StreamingListener(pipeline));
+			}
+
 			EntrySet entrySet = (EntrySet) u
 			                                                                                                                 .unmarshal(reader);
+
+			if (pipeline != null) {
+				return;
+			}
+
 			int entryCount = entrySet.getEntry().size();
 
 			for (int i = 0; i < entryCount; i++) {
@@ -105,7 +129,66 @@ public class MapPsiOneToInteractions implements Mapper {
 				extractEntry(entry);
 			}
 		} catch (JAXBException e) {
+			//  The unmarshaller may have wrapped an exception of the listener
+			for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+				if (cause instanceof StreamingException) {
+					throw ((StreamingException) cause).getCause();
+				} else if (cause instanceof CancellationException) {
+					throw (CancellationException) cause;
+				}
+			}
+
 			throw new MapperException(e, "PSI-MI XML File is invalid:  " + e.getMessage());
+		} catch (StreamingException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Extracts the interactions of each interaction element as soon as it
+	 * has been unmarshalled.  The experiment and interactor lists of an
+	 * entry come before its interaction list, so the references can already
+	 * be resolved.
+	 */
+	private class StreamingListener extends Unmarshaller.Listener {
+		private final ParsePipeline<Interaction> pipeline;
+
+		StreamingListener(ParsePipeline<Interaction> pipeline) {
+			this.pipeline = pipeline;
+		}
+
+		@Override
+		public void afterUnmarshal(Object target, Object parent) {
+			if (target instanceof ExperimentType && parent instanceof EntrySet.Entry.ExperimentList) {
+				ExperimentType expType = (ExperimentType) target;
+				experimentMap.put(expType.getId(), expType);
+			} else if (target instanceof ProteinInteractorType && parent instanceof EntrySet.Entry.InteractorList) {
+				ProteinInteractorType cProtein = (ProteinInteractorType) target;
+				interactorMap.put(cProtein.getId(), cProtein);
+			} else if (target instanceof InteractionElementType) {
+				try {
+					for (Interaction interaction : extractInteraction((InteractionElementType) target)) {
+						pipeline.emit(interaction);
+					}
+				} catch (MapperException e) {
+					throw new StreamingException(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Carries a MapperException out of the unmarshaller.
+	 */
+	@SuppressWarnings("serial")
+	private static class StreamingException extends RuntimeException {
+		StreamingException(MapperException cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized MapperException getCause() {
+			return (MapperException) super.getCause();
 		}
 	}
 
@@ -153,38 +236,46 @@ public class MapPsiOneToInteractions implements Mapper {
 	private void extractInteractionList(EntrySet.Entry.InteractionList interactionList)
 	    throws MapperException {
 		for (InteractionElementType cInteraction : interactionList.getInteraction()) {
-			Interaction interaction = new Interaction();
-			interaction.setInteractionId(cInteraction.getInteractionType().size());
-            List<CvType> interactionTypes = cInteraction.getInteractionType();
+			interactions.addAll(extractInteraction(cInteraction));
+		}
+	}
 
-			InteractionElementType.ParticipantList pList = cInteraction.getParticipantList();
-			ArrayList<Interactor> interactorList = new ArrayList<Interactor>();
-			Map<String, String> interactorRoles = new HashMap<String, String>();
+	/**
+	 * Extracts a PSI Interaction, once for each of its experiments.
+	 */
+	private List<Interaction> extractInteraction(InteractionElementType cInteraction)
+	    throws MapperException {
+		Interaction interaction = new Interaction();
+		interaction.setInteractionId(cInteraction.getInteractionType().size());
+		List<CvType> interactionTypes = cInteraction.getInteractionType();
 
-			for (ProteinParticipantType participant : pList.getProteinParticipant()) {
-				Interactor interactor = extractInteractorRefOrElement(participant);
-				interactorList.add(interactor);
+		InteractionElementType.ParticipantList pList = cInteraction.getParticipantList();
+		ArrayList<Interactor> interactorList = new ArrayList<Interactor>();
+		Map<String, String> interactorRoles = new HashMap<String, String>();
 
-				String role = participant.getRole();
+		for (ProteinParticipantType participant : pList.getProteinParticipant()) {
+			Interactor interactor = extractInteractorRefOrElement(participant);
+			interactorList.add(interactor);
 
-				if (role != null) {
-					interactorRoles.put(interactor.getName(), role);
-				}
-			}
+			String role = participant.getRole();
 
-			interaction.setInteractors(interactorList);
+			if (role != null) {
+				interactorRoles.put(interactor.getName(), role);
+			}
+		}
 
-			List<Interaction> list = extractExperimentalData(cInteraction, interaction);
+		interaction.setInteractors(interactorList);
 
-			//  Add BAIT MAP / Names To all Interactions.
-			for (Interaction interaction2 : list) {
-				interaction2.addAttribute(InteractionVocab.BAIT_MAP, interactorRoles);
-				extractInteractionNamesXrefs(cInteraction, interaction2);
-                addInteractorType(interactionTypes, interaction2);
-            }
+		List<Interaction> list = extractExperimentalData(cInteraction, interaction);
 
-            interactions.addAll(list);
+		//  Add BAIT MAP / Names To all Interactions.
+		for (Interaction interaction2 : list) {
+			interaction2.addAttribute(InteractionVocab.BAIT_MAP, interactorRoles);
+			extractInteractionNamesXrefs(cInteraction, interaction2);
+			addInteractorType(interactionTypes, interaction2);
 		}
+
+		return list;
 	}
 
     private void addInteractorType(List<CvType> interactionTypes, Interaction interaction) {
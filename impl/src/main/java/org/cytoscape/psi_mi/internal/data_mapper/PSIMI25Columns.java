@@ -0,0 +1,64 @@
+package org.cytoscape.psi_mi.internal.data_mapper;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.cytoscape.model.CyTable;
+
+/**
+ * The columns of one table that an import has already looked up or created,
+ * so that each column name is checked against the table only once.
+ */
+final class PSIMI25Columns {
+
+	private final CyTable table;
+	private final Set<String> known = new HashSet<String>();
+
+	PSIMI25Columns(final CyTable table) {
+		this.table = table;
+	}
+
+	CyTable getTable() {
+		return table;
+	}
+
+	/**
+	 * Creates a String column, unless the table already has the column.
+	 */
+	void ensure(final String name) {
+		if (known.add(name) && table.getColumn(name) == null)
+			table.createColumn(name, String.class, false);
+	}
+
+	/**
+	 * Creates a list column, unless the table already has the column.
+	 */
+	<T> void ensureList(final String name, final Class<T> elementType) {
+		if (known.add(name) && table.getColumn(name) == null)
+			table.createListColumn(name, elementType, false);
+	}
+}
@@ -0,0 +1,47 @@
+package org.cytoscape.psi_mi.internal.data_mapper;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Receives the parts of PSI-MI 2.5 entries in document order.  Within an
+ * entry, the experiments and interactors of the entry's lists come before
+ * the interactions, and an experiment that is written inside an interaction
+ * comes right before that interaction.
+ */
+interface PSIMI25EntryHandler {
+
+	void startEntry();
+
+	/**
+	 * @param names names of the source of the entry.
+	 */
+	void source(PSIMI25Records.Names names);
+
+	void experiment(PSIMI25Records.Experiment experiment);
+
+	void interactor(PSIMI25Records.Interactor interactor);
+
+	void interaction(PSIMI25Records.Interaction interaction);
+}
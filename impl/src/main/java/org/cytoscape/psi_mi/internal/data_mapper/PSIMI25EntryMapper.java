@@ -24,26 +24,33 @@ package org.cytoscape.psi_mi.internal.data_mapper;
  * #L%
  */
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import javax.xml.stream.XMLStreamException;
 
 import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyRow;
 import org.cytoscape.model.CyTable;
-import org.cytoscape.model.CyIdentifiable;
+import org.cytoscape.model.CyTableFactory;
 
 import psidev.psi.mi.xml.model.Alias;
 import psidev.psi.mi.xml.model.Attribute;
+import psidev.psi.mi.xml.model.Bibref;
+import psidev.psi.mi.xml.model.DbReference;
 import psidev.psi.mi.xml.model.Entry;
 import psidev.psi.mi.xml.model.EntrySet;
 import psidev.psi.mi.xml.model.ExperimentDescription;
 import psidev.psi.mi.xml.model.Interaction;
+import psidev.psi.mi.xml.model.InteractionDetectionMethod;
 import psidev.psi.mi.xml.model.InteractionType;
 import psidev.psi.mi.xml.model.Interactor;
 import psidev.psi.mi.xml.model.InteractorType;
@@ -52,40 +59,227 @@ import psidev.psi.mi.xml.model.Organism;
 import psidev.psi.mi.xml.model.Participant;
 import psidev.psi.mi.xml.model.Source;
 
+/**
+ * Maps PSI-MI 2.5 entries to a network.  The entries are either streamed
+ * from the XML with {@link #map(InputStream)}, keeping only the nodes and the
+ * current interaction in memory, or taken from an {@link EntrySet} that was
+ * read completely.  Both go through the same records, so they produce the
+ * same tables.
+ */
 public class PSIMI25EntryMapper {
 	
 	private static final String NAME_FULL = "Full Name";
 	private static final String NAME_SHORT = "Short Label";
 	
+	private static final String NETWORK_SOURCE_SHORT = "Network Source " + NAME_SHORT;
+	private static final String NETWORK_SOURCE_FULL = "Network Source " + NAME_FULL;
+	private static final String SPECIES_SHORT = "Species " + NAME_SHORT;
+	private static final String SPECIES_FULL = "Species " + NAME_FULL;
+	
 	private static final String INTERACTOR_TYPE = "Interactor Type";
 	private static final String TAX_ID = "Species (NCBI TAX ID)";
 	
 	private static final String INTERACTION_TYPE = "Interaction Type";
+	private static final String EXPERIMENTS = "Experiments";
+	
+	/** Title of the experiment table, and its namespace among the tables of the network. */
+	public static final String EXPERIMENT_TABLE = "PSI-MI Experiments";
+	private static final String EXPERIMENT_ID = "Experiment ID";
+	private static final String ENTRY_EXPERIMENT_ID = "Experiment ID in Entry";
+	private static final String DETECTION_METHOD = "Interaction Detection Method";
+	private static final String PUBLICATION = "Publication";
+	private static final String HOST_ORGANISM = "Host Organism";
+	private static final String HOST_TAX_ID = "Host Organism (NCBI TAX ID)";
+	
+	/** Number of records the parser hands to the mapping thread at once. */
+	private static final int BATCH_SIZE = 256;
+	
+	/** Marks the start of an entry among the parsed records. */
+	private static final Object START_ENTRY = new Object();
 	
 	private final EntrySet es;
 	private final CyNetwork network;
 	
 	private final Map<Integer, CyNode>id2NodeMap;
+	/** Names of the nodes, for the names of their edges. */
+	private final Map<CyNode, String> nodeNames = new HashMap<CyNode, String>();
+	
+	private final PSIMI25Columns networkColumns;
+	private final PSIMI25Columns nodeColumns;
+	private final PSIMI25Columns edgeColumns;
+	private PSIMI25Columns experimentColumns;
+	
+	private final CyTableFactory tableFactory;
+	/** Table keys of the experiments of the current entry, by their id in the entry. */
+	private final Map<Integer, Integer> experimentKeys = new HashMap<Integer, Integer>();
+	private int experimentCount;
+	private CyTable experimentTable;
 	
-	private boolean cancelFlag = false;
+	private final PSIMI25StreamReader reader = new PSIMI25StreamReader();
+	private volatile boolean cancelFlag = false;
+	
+	/**
+	 * Creates a mapper for {@link #map(InputStream)}.
+	 */
+	public PSIMI25EntryMapper(final CyNetwork network) {
+		this(network, null, null);
+	}
+	
+	/**
+	 * Creates a mapper for {@link #map(InputStream)} that also maps the
+	 * experiments.
+	 * 
+	 * @param tableFactory creates the experiment table, see {@link #getExperimentTable()}.
+	 */
+	public PSIMI25EntryMapper(final CyNetwork network, final CyTableFactory tableFactory) {
+		this(network, null, tableFactory);
+	}
 	
 	public PSIMI25EntryMapper(final CyNetwork network, final EntrySet es) {
+		this(network, es, null);
+	}
+	
+	/**
+	 * @param tableFactory creates the experiment table; if null, experiments are not mapped.
+	 */
+	public PSIMI25EntryMapper(final CyNetwork network, final EntrySet es, final CyTableFactory tableFactory) {
 		this.es = es;
 		this.network = network;
+		this.tableFactory = tableFactory;
 		
 		id2NodeMap = new HashMap<Integer, CyNode>();
+		networkColumns = new PSIMI25Columns(network.getDefaultNetworkTable());
+		nodeColumns = new PSIMI25Columns(network.getDefaultNodeTable());
+		edgeColumns = new PSIMI25Columns(network.getDefaultEdgeTable());
 	}
 	
 	public void map() {
 		final Collection<Entry> entries = es.getEntries();
 		
 		for(Entry entry: entries) {
+			if(cancelFlag)
+				return;
+			
+			startEntry();
 			mapNetworkMetaData(entry);
-			mapNodes(entry.getInteractors());
-			mapEdges(entry.getInteractions());
+			
+			for(final Interactor interactor: entry.getInteractors()) {
+				if(cancelFlag)
+					return;
+				mapNode(toRecord(interactor));
+			}
+			
+			for(final Interaction interaction: entry.getInteractions()) {
+				if(cancelFlag)
+					return;
+				
+				// Experiments that are not in the entry's list
+				for(final ExperimentDescription desc: interaction.getExperiments()) {
+					if(tableFactory != null && !experimentKeys.containsKey(desc.getId()))
+						mapExperiment(toRecord(desc));
+				}
+				
+				mapEdges(toRecord(interaction));
+			}
 		}
 	}
-
+	
+	/**
+	 * Reads PSI-MI 2.5 XML and maps its interactors and interactions while
+	 * the rest of the document is still being parsed on another thread.
+	 */
+	public void map(final InputStream is) throws XMLStreamException {
+		final ParsePipeline<Object> pipeline = new ParsePipeline<Object>("PSI-MI 2.5 parser", BATCH_SIZE);
+		
+		pipeline.start(new ParsePipeline.Parser<Object>() {
+			@Override
+			public void parse(final ParsePipeline<Object> out) throws Exception {
+				reader.read(is, new PSIMI25EntryHandler() {
+					@Override
+					public void startEntry() {
+						out.emit(START_ENTRY);
+					}
+					
+					@Override
+					public void source(final PSIMI25Records.Names names) {
+						if(names != null)
+							out.emit(names);
+					}
+					
+					@Override
+					public void experiment(final PSIMI25Records.Experiment experiment) {
+						out.emit(experiment);
+					}
+					
+					@Override
+					public void interactor(final PSIMI25Records.Interactor interactor) {
+						out.emit(interactor);
+					}
+					
+					@Override
+					public void interaction(final PSIMI25Records.Interaction interaction) {
+						out.emit(interaction);
+					}
+				});
+			}
+		});
+		
+		try {
+			List<Object> records;
+			
+			while(!cancelFlag && (records = pipeline.take()) != null) {
+				for(final Object record: records) {
+					if(cancelFlag)
+						return;
+					
+					if(record == START_ENTRY)
+						startEntry();
+					else if(record instanceof PSIMI25Records.Names)
+						mapSource((PSIMI25Records.Names) record);
+					else if(record instanceof PSIMI25Records.Experiment)
+						mapExperiment((PSIMI25Records.Experiment) record);
+					else if(record instanceof PSIMI25Records.Interactor)
+						mapNode((PSIMI25Records.Interactor) record);
+					else
+						mapEdges((PSIMI25Records.Interaction) record);
+				}
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new XMLStreamException("PSI-MI 2.5 import interrupted.", e);
+		} catch(ExecutionException e) {
+			if(e.getCause() instanceof XMLStreamException)
+				throw (XMLStreamException) e.getCause();
+			
+			throw new XMLStreamException("Could not parse PSI-MI 2.5 XML.", e.getCause());
+		} finally {
+			pipeline.close();
+		}
+	}
+	
+	/**
+	 * Creates the default columns.  Experiment ids are only unique within
+	 * their entry, so they are forgotten at the start of the next.
+	 */
+	private void startEntry() {
+		experimentKeys.clear();
+		nodeColumns.ensure(INTERACTOR_TYPE);
+		nodeColumns.ensure(TAX_ID);
+		edgeColumns.ensureList(INTERACTION_TYPE, String.class);
+		
+		if(tableFactory != null)
+			edgeColumns.ensureList(EXPERIMENTS, Integer.class);
+	}
+	
+	/**
+	 * @return the table with a row for each experiment, keyed by a number
+	 *         that is unique in the file and that the edges list, or null if
+	 *         there were no experiments or no table factory.  The id of the
+	 *         experiment in its entry is a column.
+	 */
+	public CyTable getExperimentTable() {
+		return experimentTable;
+	}
 	
 	/**
 	 * Convert network metadata to CyNetwork table data.
@@ -93,227 +287,329 @@ public class PSIMI25EntryMapper {
 	 * @param entry
 	 */
 	private void mapNetworkMetaData(final Entry entry) {
-		final CyTable networkTable = network.getDefaultNetworkTable();
-		final Collection<Attribute> attrs = entry.getAttributes();
-		final Collection<ExperimentDescription> exp = entry.getExperiments();
+		for(final ExperimentDescription desc: entry.getExperiments())
+			mapExperiment(toRecord(desc));
 		
-		// TODO: this takes very long time for some data sets.
-		//mapExperiments(exp, networkTable);
 		// Source is always unique
 		final Source source = entry.getSource();
-		mapSource(source, networkTable);
-		entry.getAvailabilities();
-		
+		if(source != null)
+			mapSource(toRecord(source.getNames()));
 	}
 	
-	private void mapSource(final Source source, final CyTable networkTable) {
-		final Names names = source.getNames();
-		mapNames(networkTable, network.getSUID(), names, "Network Source ");
-		
-		source.getBibref();
+	private void mapSource(final PSIMI25Records.Names names) {
+		final CyRow row = networkColumns.getTable().getRow(network.getSUID());
+		mapNames(networkColumns, row, names, NETWORK_SOURCE_SHORT, NETWORK_SOURCE_FULL);
 	}
 	
-	private void mapNames(final CyTable table, final Long suid, final Names names, final String prefix) {
+	private void mapNames(final PSIMI25Columns columns, final CyRow row, final PSIMI25Records.Names names,
+			final String shortNameLabel, final String fullNameLabel) {
 		if(names == null)
 			return;
 		
-		final String shortName = names.getShortLabel();
-		final String shortNameLael;
-		final String fullNameLabel;
-		final Collection<Alias> aliases = names.getAliases();
-		
-		if(prefix != null) {
-			shortNameLael = prefix + NAME_SHORT;
-			fullNameLabel = prefix + NAME_FULL;
-		} else {
-			shortNameLael = NAME_SHORT;
-			fullNameLabel = NAME_FULL;
-		}
+		final String shortName = names.shortLabel;
+		final List<String> aliases = names.aliases;
 		
 		if(shortName != null) {
-			if(table.getColumn(shortNameLael) == null)
-				table.createColumn(shortNameLael, String.class, false);
-			
-			table.getRow(suid).set(shortNameLael, shortName);
+			columns.ensure(shortNameLabel);
+			row.set(shortNameLabel, shortName);
 		}
-		final String fullName = names.getFullName();
+		final String fullName = names.fullName;
 		if(fullName != null) {
-			if(table.getColumn(fullNameLabel) == null)
-				table.createColumn(fullNameLabel, String.class, false);
-			
-			table.getRow(suid).set(fullNameLabel, fullName);
+			columns.ensure(fullNameLabel);
+			row.set(fullNameLabel, fullName);
 		}
 		
-		for(Alias alias: aliases) {
-			final String type = alias.getType();
-			final String val = alias.getValue();
-			if(table.getColumn(type) == null)
-				table.createColumn(type, String.class, false);
+		for(int i = 0; i < aliases.size(); i += 2) {
+			final String type = aliases.get(i);
+			
+			// The type names the column
+			if(type == null)
+				continue;
 			
-			table.getRow(suid).set(type, val);
+			columns.ensure(type);
+			row.set(type, aliases.get(i + 1));
 		}
 	}
 	
-	private void mapExperiments(Collection<ExperimentDescription> exp, final CyTable networkTable) {
-		int expCount = 1;
+	/**
+	 * Experiments go to their own table, whose columns are created together
+	 * with it, instead of prefixed columns of the network table.
+	 */
+	private void mapExperiment(final PSIMI25Records.Experiment experiment) {
+		if(tableFactory == null || experimentKeys.containsKey(experiment.id))
+			return;
+		
+		final Integer key = ++experimentCount;
+		experimentKeys.put(experiment.id, key);
+		
+		if(experimentTable == null) {
+			experimentTable = tableFactory.createTable(EXPERIMENT_TABLE, EXPERIMENT_ID, Integer.class, true, true);
+			experimentColumns = new PSIMI25Columns(experimentTable);
+			experimentTable.createColumn(ENTRY_EXPERIMENT_ID, Integer.class, true);
+			experimentColumns.ensure(NAME_SHORT);
+			experimentColumns.ensure(NAME_FULL);
+			experimentColumns.ensure(DETECTION_METHOD);
+			experimentColumns.ensure(PUBLICATION);
+			experimentColumns.ensureList(HOST_ORGANISM, String.class);
+			experimentColumns.ensureList(HOST_TAX_ID, String.class);
+		}
+		
+		final CyRow row = experimentTable.getRow(key);
+		row.set(ENTRY_EXPERIMENT_ID, experiment.id);
+		mapNames(experimentColumns, row, experiment.names, NAME_SHORT, NAME_FULL);
+		row.set(DETECTION_METHOD, experiment.detectionMethod);
+		row.set(PUBLICATION, experiment.publication);
 		
-		for(ExperimentDescription desc: exp) {
-			String prefix = "Experiment " + expCount + ": ";
-			final Names names = desc.getNames();
-			mapNames(networkTable, network.getSUID(), names, prefix);
-			expCount++;
+		if(!experiment.hostOrganisms.isEmpty()) {
+			row.set(HOST_ORGANISM, new ArrayList<String>(experiment.hostOrganisms));
+			row.set(HOST_TAX_ID, new ArrayList<String>(experiment.hostTaxIDs));
 		}
+		
+		mapAttributes(experimentColumns, row, experiment.attributes);
 	}
 
-	private void mapNodes(final Collection<Interactor> interactors) {
-		final CyTable nodeTable = network.getDefaultNodeTable();
+	private CyNode mapNode(final PSIMI25Records.Interactor interactor) {
+		final CyNode node = network.addNode();
+		final CyRow row = nodeColumns.getTable().getRow(node.getSUID());
+		final String name = interactor.names == null ? null : interactor.names.shortLabel;
 		
-		// Create default column
-		if(nodeTable.getColumn(INTERACTOR_TYPE) == null) {
-			nodeTable.createColumn(INTERACTOR_TYPE, String.class, false);
-		}
-		if(nodeTable.getColumn(TAX_ID) == null) {
-			nodeTable.createColumn(TAX_ID, String.class, false);
-		}
+		if(interactor.names != null)
+			row.set(CyNetwork.NAME, name);
 		
-		for(final Interactor interactor: interactors) {
-			if(cancelFlag)
-				return;
-			
-			final int id = interactor.getId();
-			
-			final CyNode node = network.addNode();
-			final String nameColumn = interactor.getNames().getShortLabel();
-			nodeTable.getRow(node.getSUID()).set(CyNetwork.NAME, nameColumn);
-			
-			final InteractorType itrType = interactor.getInteractorType();
-			final Names typeNames = itrType.getNames();
-			if(typeNames != null) {
-				final String shortName = typeNames.getShortLabel();
-				nodeTable.getRow(node.getSUID()).set(INTERACTOR_TYPE, shortName);
-			}
-			final Organism org = interactor.getOrganism();
-			if(org != null) {
-				final Integer taxID = org.getNcbiTaxId();
-				mapNames(nodeTable, node.getSUID(), org.getNames(), "Species ");
-				
-				if(taxID != null)
-					nodeTable.getRow(node.getSUID()).set(TAX_ID, Integer.toString(taxID));
-				
-			}
-			mapNames(nodeTable, node.getSUID(), interactor.getNames(), null);
-			
-			mapAttributes(interactor.getAttributes(), nodeTable, node.getSUID());
+		final PSIMI25Records.Names typeNames = interactor.typeNames;
+		if(typeNames != null) {
+			row.set(INTERACTOR_TYPE, typeNames.shortLabel);
+		}
+		if(interactor.hasOrganism) {
+			final Integer taxID = interactor.taxID;
+			mapNames(nodeColumns, row, interactor.organismNames, SPECIES_SHORT, SPECIES_FULL);
 			
-			id2NodeMap.put(id, node);
+			if(taxID != null)
+				row.set(TAX_ID, Integer.toString(taxID));
 		}
+		mapNames(nodeColumns, row, interactor.names, NAME_SHORT, NAME_FULL);
+		
+		mapAttributes(nodeColumns, row, interactor.attributes);
+		
+		id2NodeMap.put(interactor.id, node);
+		nodeNames.put(node, name);
+		
+		return node;
 	}
 	
-	private void mapEdges(final Collection<Interaction> interactions) {
+	private void mapEdges(final PSIMI25Records.Interaction interaction) {
+		final List<PSIMI25Records.Participant> nodes = interaction.participants;
 		
-		final CyTable edgeTable = network.getDefaultEdgeTable();
-		final CyTable nodeTable = network.getDefaultNodeTable();
-		
-		if(edgeTable.getColumn(INTERACTION_TYPE) == null) {
-			edgeTable.createListColumn(INTERACTION_TYPE, String.class, false);
-		}
+		if(nodes.isEmpty())
+			return;
 		
-		for(Interaction interaction: interactions) {
-			if(cancelFlag)
-				return;
-			
-			final Collection<Participant> nodes = interaction.getParticipants();
-			
-			// Regular edge
-			if(nodes.size() == 2) {
-				final Iterator<Participant> itr = nodes.iterator();
-				final Participant source = itr.next();
-				final Participant target = itr.next();
-				
-				processEdge(source, target, interaction, nodes, nodeTable, edgeTable);
-			} else {
-				// TODO: do we need Clique, too?
-				createSpokeModel(interaction, nodes, nodeTable, edgeTable);
-			}
+		// Regular edge
+		if(nodes.size() == 2) {
+			processEdge(nodes.get(0), nodes.get(1), interaction);
+		} else {
+			// TODO: do we need Clique, too?
+			createSpokeModel(interaction, nodes);
 		}
 	}
 	
-	
-	private void createSpokeModel(final Interaction interaction, final Collection<Participant> nodes,
-			CyTable nodeTable, CyTable edgeTable) {
-		final Participant hub = nodes.iterator().next();
+	private void createSpokeModel(final PSIMI25Records.Interaction interaction,
+			final List<PSIMI25Records.Participant> nodes) {
+		final PSIMI25Records.Participant hub = nodes.get(0);
 
-		for (Participant target : nodes) {
+		for (PSIMI25Records.Participant target : nodes) {
 			if (hub != target)
-				processEdge(hub, target, interaction, nodes, nodeTable, edgeTable);
-
+				processEdge(hub, target, interaction);
 		}
 	}
 	
-	private void processEdge(final Participant source, final Participant target, final Interaction interaction,
-			final Collection<Participant> nodes, CyTable nodeTable, CyTable edgeTable) {
-		Interactor sourceInteractor = source.getInteractor();
-		Interactor targetInteractor = target.getInteractor();
-		
-		if (sourceInteractor == null || targetInteractor == null) {
+	private void processEdge(final PSIMI25Records.Participant source, final PSIMI25Records.Participant target,
+			final PSIMI25Records.Interaction interaction) {
+		if (!source.hasInteractor || !target.hasInteractor) {
 			return;
 		}
 		
-		final CyNode sourceCyNode = id2NodeMap.get(sourceInteractor.getId());
-		final CyNode targetCyNode = id2NodeMap.get(targetInteractor.getId());
+		final CyNode sourceCyNode = getNode(source);
+		final CyNode targetCyNode = getNode(target);
 		
 		// PPI does not have directinarity
 		final CyEdge edge = network.addEdge(sourceCyNode, targetCyNode, false);
+		final CyRow row = edgeColumns.getTable().getRow(edge.getSUID());
 
 		// TODO: what's the best value for interaction?
-		edgeTable.getRow(edge.getSUID()).set(CyEdge.INTERACTION, "pp");
-		final String sourceName = nodeTable.getRow(sourceCyNode.getSUID()).get(CyNetwork.NAME, String.class);
-		final String targetName = nodeTable.getRow(targetCyNode.getSUID()).get(CyNetwork.NAME, String.class);
-		edgeTable.getRow(edge.getSUID()).set(CyNetwork.NAME, sourceName + " (pp) " + targetName);
+		row.set(CyEdge.INTERACTION, "pp");
+		row.set(CyNetwork.NAME, nodeNames.get(sourceCyNode) + " (pp) " + nodeNames.get(targetCyNode));
 
-		mapNames(edgeTable, edge.getSUID(), interaction.getNames(), null);
-		mapAttributes(interaction.getAttributes(), edgeTable, edge.getSUID());
-		final Collection<InteractionType> types = interaction.getInteractionTypes();
-		mapInteractionType(types, edgeTable, edge.getSUID());
+		mapNames(edgeColumns, row, interaction.names, NAME_SHORT, NAME_FULL);
+		mapAttributes(edgeColumns, row, interaction.attributes);
+		row.set(INTERACTION_TYPE, new ArrayList<String>(interaction.types));
+		
+		if(tableFactory != null && !interaction.experimentIDs.isEmpty()) {
+			final List<Integer> keys = new ArrayList<Integer>(interaction.experimentIDs.size());
+			
+			for(final Integer id: interaction.experimentIDs) {
+				final Integer key = experimentKeys.get(id);
+				
+				// References to experiments that the entry does not describe are dropped
+				if(key != null)
+					keys.add(key);
+			}
+			
+			if(!keys.isEmpty())
+				row.set(EXPERIMENTS, keys);
+		}
 	}
 	
-	private void mapInteractionType(final Collection<InteractionType> types, final CyTable table, final Long suid) {
-		if(types == null)
+	/**
+	 * Interactors that are written inside the participant are mapped the
+	 * first time they are seen.
+	 */
+	private CyNode getNode(final PSIMI25Records.Participant participant) {
+		final CyNode node = id2NodeMap.get(participant.interactorID);
+		
+		if(node != null)
+			return node;
+		
+		if(participant.interactor != null)
+			return mapNode(participant.interactor);
+		
+		final PSIMI25Records.Interactor unknown = new PSIMI25Records.Interactor();
+		unknown.id = participant.interactorID;
+		
+		return mapNode(unknown);
+	}
+	
+	/**
+	 * The rows are always new, so the values of each attribute name are
+	 * collected first and every list column is written once.
+	 */
+	private void mapAttributes(final PSIMI25Columns columns, final CyRow row,
+			final List<PSIMI25Records.Attribute> attrs) {
+		if(attrs.isEmpty())
 			return;
 		
-		final List<String> typeList = new ArrayList<String>();
-		for(final InteractionType type: types) {
-			final String label = type.getNames().getShortLabel();
-			typeList.add(label);
+		final Map<String, List<String>> lists = new LinkedHashMap<String, List<String>>();
+		
+		for(PSIMI25Records.Attribute attr: attrs) {
+			List<String> list = lists.get(attr.name);
+			if(list == null) {
+				list = new ArrayList<String>(1);
+				lists.put(attr.name, list);
+			}
+			
+			list.add(attr.value);
+		}
+		
+		for(Map.Entry<String, List<String>> entry: lists.entrySet()) {
+			columns.ensureList(entry.getKey(), String.class);
+			row.set(entry.getKey(), entry.getValue());
 		}
-		table.getRow(suid).set(INTERACTION_TYPE, typeList);
 	}
 	
-	private void mapAttributes(final Collection<Attribute> attrs, final CyTable table, final Long suid) {
-		for(Attribute attr: attrs) {
-			final String name = attr.getName();
-			
-			if(table.getColumn(name) == null)
-				table.createListColumn(name, String.class, false);
+	private static PSIMI25Records.Names toRecord(final Names names) {
+		if(names == null)
+			return null;
+		
+		final PSIMI25Records.Names record = new PSIMI25Records.Names();
+		record.shortLabel = names.getShortLabel();
+		record.fullName = names.getFullName();
+		
+		for(Alias alias: names.getAliases())
+			record.addAlias(alias.getType(), alias.getValue());
+		
+		return record;
+	}
+	
+	private static PSIMI25Records.Interactor toRecord(final Interactor interactor) {
+		final PSIMI25Records.Interactor record = new PSIMI25Records.Interactor();
+		record.id = interactor.getId();
+		record.names = toRecord(interactor.getNames());
+		
+		final InteractorType itrType = interactor.getInteractorType();
+		if(itrType != null)
+			record.typeNames = toRecord(itrType.getNames());
+		
+		final Organism org = interactor.getOrganism();
+		if(org != null) {
+			record.hasOrganism = true;
+			record.taxID = org.getNcbiTaxId();
+			record.organismNames = toRecord(org.getNames());
+		}
+		
+		addAttributes(interactor.getAttributes(), record.attributes);
+		
+		return record;
+	}
+	
+	private PSIMI25Records.Interaction toRecord(final Interaction interaction) {
+		final PSIMI25Records.Interaction record = new PSIMI25Records.Interaction();
+		record.id = interaction.getId();
+		record.names = toRecord(interaction.getNames());
+		
+		for(Participant participant: interaction.getParticipants()) {
+			final PSIMI25Records.Participant p = new PSIMI25Records.Participant();
+			final Interactor interactor = participant.getInteractor();
 			
-			final CyRow row = table.getRow(suid);
-			List<String> list = row.getList(name, String.class);
-			if(list == null)
-				list = new ArrayList<String>();
+			if(interactor != null) {
+				p.interactorID = interactor.getId();
+				p.hasInteractor = true;
+				
+				// Only interactors that were not in the interactor list are converted
+				if(!id2NodeMap.containsKey(p.interactorID))
+					p.interactor = toRecord(interactor);
+			}
 			
-			final String nameAc = attr.getNameAc();
-			final String value = attr.getValue();
-			list.add(value);
-			row.set(name, list);
+			record.participants.add(p);
 		}
+		
+		final Collection<InteractionType> types = interaction.getInteractionTypes();
+		if(types != null) {
+			for(final InteractionType type: types)
+				record.types.add(type.getNames().getShortLabel());
+		}
+		
+		for(final ExperimentDescription desc: interaction.getExperiments())
+			record.experimentIDs.add(desc.getId());
+		
+		addAttributes(interaction.getAttributes(), record.attributes);
+		
+		return record;
 	}
 	
-	private void mapXref() {
+	private static PSIMI25Records.Experiment toRecord(final ExperimentDescription desc) {
+		final PSIMI25Records.Experiment record = new PSIMI25Records.Experiment();
+		record.id = desc.getId();
+		record.names = toRecord(desc.getNames());
+		
+		final Bibref bibref = desc.getBibref();
+		if(bibref != null && bibref.getXref() != null) {
+			final DbReference ref = bibref.getXref().getPrimaryRef();
+			if(ref != null)
+				record.publication = PSIMI25StreamReader.primaryRef(ref.getDb(), ref.getId());
+		}
 		
+		final InteractionDetectionMethod method = desc.getInteractionDetectionMethod();
+		if(method != null && method.getNames() != null)
+			record.detectionMethod = method.getNames().getShortLabel();
+		
+		for(final Organism host: desc.getHostOrganisms()) {
+			final Names names = host.getNames();
+			record.hostOrganisms.add(names == null ? null : names.getShortLabel());
+			record.hostTaxIDs.add(Integer.toString(host.getNcbiTaxId()));
+		}
+		
+		addAttributes(desc.getAttributes(), record.attributes);
+		
+		return record;
+	}
+	
+	private static void addAttributes(final Collection<Attribute> attrs, final List<PSIMI25Records.Attribute> records) {
+		for(Attribute attr: attrs)
+			records.add(new PSIMI25Records.Attribute(attr.getName(), attr.getValue()));
 	}
 	
 	public void cancel() {
 		cancelFlag = true;
+		reader.cancel();
 	}
 
 }
@@ -0,0 +1,106 @@
+package org.cytoscape.psi_mi.internal.data_mapper;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The parts of a PSI-MI 2.5 entry that {@link PSIMI25EntryMapper} maps to
+ * the network, as plain records.  They are filled either by
+ * {@link PSIMI25StreamReader} while it walks the XML or from the object
+ * model of the PSI-MI XML library, so both produce the same network.
+ */
+final class PSIMI25Records {
+
+	private PSIMI25Records() {
+	}
+
+	/** A names element. */
+	static final class Names {
+		String shortLabel;
+		String fullName;
+		/** Alias types and values, alternating. */
+		final List<String> aliases = new ArrayList<String>(2);
+
+		void addAlias(final String type, final String value) {
+			aliases.add(type);
+			aliases.add(value);
+		}
+	}
+
+	static final class Attribute {
+		final String name;
+		final String value;
+
+		Attribute(final String name, final String value) {
+			this.name = name;
+			this.value = value;
+		}
+	}
+
+	static final class Interactor {
+		int id;
+		Names names;
+		/** Names of the interactor type. */
+		Names typeNames;
+		boolean hasOrganism;
+		Names organismNames;
+		Integer taxID;
+		final List<Attribute> attributes = new ArrayList<Attribute>(2);
+	}
+
+	static final class Participant {
+		int interactorID;
+		/** Only set if the interactor may not have been mapped yet, e.g. if it is written inline. */
+		Interactor interactor;
+		/** False if the participant refers to an interaction instead of an interactor. */
+		boolean hasInteractor;
+	}
+
+	static final class Experiment {
+		int id;
+		Names names;
+		/** Primary reference of the bibref, as db:id. */
+		String publication;
+		/** Short label of the interaction detection method. */
+		String detectionMethod;
+		/** Short labels and taxonomy IDs of the host organisms, in the same order. */
+		final List<String> hostOrganisms = new ArrayList<String>(1);
+		final List<String> hostTaxIDs = new ArrayList<String>(1);
+		final List<Attribute> attributes = new ArrayList<Attribute>(2);
+	}
+
+	static final class Interaction {
+		int id;
+		Names names;
+		final List<Participant> participants = new ArrayList<Participant>(2);
+		/** IDs of the experiments, which were handed over before the interaction. */
+		final List<Integer> experimentIDs = new ArrayList<Integer>(1);
+		/** Short labels of the interaction types. */
+		final List<String> types = new ArrayList<String>(1);
+		final List<Attribute> attributes = new ArrayList<Attribute>(2);
+	}
+}
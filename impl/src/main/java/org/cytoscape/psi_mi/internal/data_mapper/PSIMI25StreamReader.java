@@ -0,0 +1,404 @@
+package org.cytoscape.psi_mi.internal.data_mapper;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.InputStream;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Walks a PSI-MI 2.5 XML document with StAX and hands every interactor and
+ * interaction to a handler as soon as it has been read.  Only the element
+ * that is being read is held in memory; everything the mapper does not use
+ * is skipped without building objects.
+ */
+final class PSIMI25StreamReader {
+
+	private static final XMLInputFactory FACTORY = createFactory();
+
+	private volatile boolean cancelled;
+
+	/**
+	 * Reads the whole document, unless cancelled.
+	 */
+	void read(final InputStream is, final PSIMI25EntryHandler handler) throws XMLStreamException {
+		final XMLStreamReader reader;
+
+		synchronized (FACTORY) {
+			reader = FACTORY.createXMLStreamReader(is);
+		}
+
+		try {
+			if (reader.nextTag() != XMLStreamConstants.START_ELEMENT || !"entrySet".equals(reader.getLocalName()))
+				throw new XMLStreamException("Not a PSI-MI entry set: " + reader.getLocalName(), reader.getLocation());
+
+			while (!cancelled && nextChild(reader)) {
+				if ("entry".equals(reader.getLocalName()))
+					readEntry(reader, handler);
+				else
+					skip(reader);
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	void cancel() {
+		cancelled = true;
+	}
+
+	private void readEntry(final XMLStreamReader reader, final PSIMI25EntryHandler handler) throws XMLStreamException {
+		handler.startEntry();
+
+		while (!cancelled && nextChild(reader)) {
+			final String name = reader.getLocalName();
+
+			if ("source".equals(name)) {
+				handler.source(readSourceNames(reader));
+			} else if ("experimentList".equals(name)) {
+				while (!cancelled && nextChild(reader)) {
+					if ("experimentDescription".equals(reader.getLocalName()))
+						handler.experiment(readExperiment(reader));
+					else
+						skip(reader);
+				}
+			} else if ("interactorList".equals(name)) {
+				while (!cancelled && nextChild(reader)) {
+					if ("interactor".equals(reader.getLocalName()))
+						handler.interactor(readInteractor(reader));
+					else
+						skip(reader);
+				}
+			} else if ("interactionList".equals(name)) {
+				while (!cancelled && nextChild(reader)) {
+					if ("interaction".equals(reader.getLocalName()))
+						handler.interaction(readInteraction(reader, handler));
+					else
+						skip(reader);
+				}
+			} else {
+				skip(reader);
+			}
+		}
+	}
+
+	private static PSIMI25Records.Names readSourceNames(final XMLStreamReader reader) throws XMLStreamException {
+		PSIMI25Records.Names names = null;
+
+		while (nextChild(reader)) {
+			if ("names".equals(reader.getLocalName()))
+				names = readNames(reader);
+			else
+				skip(reader);
+		}
+
+		return names;
+	}
+
+	private static PSIMI25Records.Interactor readInteractor(final XMLStreamReader reader) throws XMLStreamException {
+		final PSIMI25Records.Interactor interactor = new PSIMI25Records.Interactor();
+		interactor.id = intAttribute(reader, "id");
+
+		while (nextChild(reader)) {
+			final String name = reader.getLocalName();
+
+			if ("names".equals(name)) {
+				interactor.names = readNames(reader);
+			} else if ("interactorType".equals(name)) {
+				interactor.typeNames = readCvNames(reader);
+			} else if ("organism".equals(name)) {
+				interactor.hasOrganism = true;
+				interactor.taxID = taxIDAttribute(reader);
+				interactor.organismNames = readCvNames(reader);
+			} else if ("attributeList".equals(name)) {
+				readAttributes(reader, interactor.attributes);
+			} else {
+				skip(reader);
+			}
+		}
+
+		return interactor;
+	}
+
+	private static PSIMI25Records.Experiment readExperiment(final XMLStreamReader reader) throws XMLStreamException {
+		final PSIMI25Records.Experiment experiment = new PSIMI25Records.Experiment();
+		experiment.id = intAttribute(reader, "id");
+
+		while (nextChild(reader)) {
+			final String name = reader.getLocalName();
+
+			if ("names".equals(name)) {
+				experiment.names = readNames(reader);
+			} else if ("bibref".equals(name)) {
+				while (nextChild(reader)) {
+					if ("xref".equals(reader.getLocalName()))
+						experiment.publication = readPrimaryRef(reader);
+					else
+						skip(reader);
+				}
+			} else if ("interactionDetectionMethod".equals(name)) {
+				final PSIMI25Records.Names names = readCvNames(reader);
+				if (names != null)
+					experiment.detectionMethod = names.shortLabel;
+			} else if ("hostOrganismList".equals(name)) {
+				while (nextChild(reader)) {
+					if ("hostOrganism".equals(reader.getLocalName())) {
+						final Integer taxID = taxIDAttribute(reader);
+						final PSIMI25Records.Names names = readCvNames(reader);
+						experiment.hostOrganisms.add(names == null ? null : names.shortLabel);
+						experiment.hostTaxIDs.add(taxID == null ? null : taxID.toString());
+					} else {
+						skip(reader);
+					}
+				}
+			} else if ("attributeList".equals(name)) {
+				readAttributes(reader, experiment.attributes);
+			} else {
+				skip(reader);
+			}
+		}
+
+		return experiment;
+	}
+
+	/**
+	 * @return the primary reference of an xref as db:id, null if it has none.
+	 */
+	private static String readPrimaryRef(final XMLStreamReader reader) throws XMLStreamException {
+		String ref = null;
+
+		while (nextChild(reader)) {
+			if ("primaryRef".equals(reader.getLocalName()))
+				ref = primaryRef(reader.getAttributeValue(null, "db"), reader.getAttributeValue(null, "id"));
+
+			skip(reader);
+		}
+
+		return ref;
+	}
+
+	/**
+	 * Experiments that are written inside the interaction are handed to the
+	 * handler right away, so they come before the interaction.
+	 */
+	private static PSIMI25Records.Interaction readInteraction(final XMLStreamReader reader,
+			final PSIMI25EntryHandler handler) throws XMLStreamException {
+		final PSIMI25Records.Interaction interaction = new PSIMI25Records.Interaction();
+		interaction.id = intAttribute(reader, "id");
+
+		while (nextChild(reader)) {
+			final String name = reader.getLocalName();
+
+			if ("names".equals(name)) {
+				interaction.names = readNames(reader);
+			} else if ("experimentList".equals(name)) {
+				while (nextChild(reader)) {
+					final String child = reader.getLocalName();
+
+					if ("experimentRef".equals(child)) {
+						interaction.experimentIDs.add(parseInt(reader, reader.getElementText()));
+					} else if ("experimentDescription".equals(child)) {
+						final PSIMI25Records.Experiment experiment = readExperiment(reader);
+						handler.experiment(experiment);
+						interaction.experimentIDs.add(experiment.id);
+					} else {
+						skip(reader);
+					}
+				}
+			} else if ("participantList".equals(name)) {
+				while (nextChild(reader)) {
+					if ("participant".equals(reader.getLocalName()))
+						interaction.participants.add(readParticipant(reader));
+					else
+						skip(reader);
+				}
+			} else if ("interactionType".equals(name)) {
+				final PSIMI25Records.Names names = readCvNames(reader);
+				if (names != null && names.shortLabel != null)
+					interaction.types.add(names.shortLabel);
+			} else if ("attributeList".equals(name)) {
+				readAttributes(reader, interaction.attributes);
+			} else {
+				skip(reader);
+			}
+		}
+
+		return interaction;
+	}
+
+	/**
+	 * Only the direct interactorRef or interactor child identifies the
+	 * interactor; the ones in experimentalInteractorList do not.
+	 */
+	private static PSIMI25Records.Participant readParticipant(final XMLStreamReader reader) throws XMLStreamException {
+		final PSIMI25Records.Participant participant = new PSIMI25Records.Participant();
+
+		while (nextChild(reader)) {
+			final String name = reader.getLocalName();
+
+			if ("interactorRef".equals(name)) {
+				participant.interactorID = parseInt(reader, reader.getElementText());
+				participant.hasInteractor = true;
+			} else if ("interactor".equals(name)) {
+				participant.interactor = readInteractor(reader);
+				participant.interactorID = participant.interactor.id;
+				participant.hasInteractor = true;
+			} else {
+				skip(reader);
+			}
+		}
+
+		return participant;
+	}
+
+	/**
+	 * @return the names of a controlled vocabulary term or organism, null if it has none.
+	 */
+	private static PSIMI25Records.Names readCvNames(final XMLStreamReader reader) throws XMLStreamException {
+		PSIMI25Records.Names names = null;
+
+		while (nextChild(reader)) {
+			if ("names".equals(reader.getLocalName()))
+				names = readNames(reader);
+			else
+				skip(reader);
+		}
+
+		return names;
+	}
+
+	private static PSIMI25Records.Names readNames(final XMLStreamReader reader) throws XMLStreamException {
+		final PSIMI25Records.Names names = new PSIMI25Records.Names();
+
+		while (nextChild(reader)) {
+			final String name = reader.getLocalName();
+
+			if ("shortLabel".equals(name)) {
+				names.shortLabel = reader.getElementText();
+			} else if ("fullName".equals(name)) {
+				names.fullName = reader.getElementText();
+			} else if ("alias".equals(name)) {
+				final String type = reader.getAttributeValue(null, "type");
+				names.addAlias(type, reader.getElementText());
+			} else {
+				skip(reader);
+			}
+		}
+
+		return names;
+	}
+
+	private static void readAttributes(final XMLStreamReader reader, final List<PSIMI25Records.Attribute> attributes)
+			throws XMLStreamException {
+		while (nextChild(reader)) {
+			if ("attribute".equals(reader.getLocalName())) {
+				final String name = reader.getAttributeValue(null, "name");
+				attributes.add(new PSIMI25Records.Attribute(name, reader.getElementText()));
+			} else {
+				skip(reader);
+			}
+		}
+	}
+
+	/**
+	 * Moves to the next child element of the current element.
+	 *
+	 * @return false, positioned at the end tag of the current element, if
+	 *         there are no more children.
+	 */
+	private static boolean nextChild(final XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext()) {
+			final int event = reader.next();
+
+			if (event == XMLStreamConstants.START_ELEMENT)
+				return true;
+			if (event == XMLStreamConstants.END_ELEMENT)
+				return false;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Skips the current element and everything in it.
+	 */
+	private static void skip(final XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+
+		while (depth > 0) {
+			final int event = reader.next();
+
+			if (event == XMLStreamConstants.START_ELEMENT)
+				depth++;
+			else if (event == XMLStreamConstants.END_ELEMENT)
+				depth--;
+		}
+	}
+
+	/**
+	 * @return a reference as db:id, or only the id if it has no database.
+	 */
+	static String primaryRef(final String db, final String id) {
+		return db == null || db.isEmpty() ? id : db + ":" + id;
+	}
+
+	/**
+	 * @return the ncbiTaxId of an organism, or null if it has none.
+	 */
+	private static Integer taxIDAttribute(final XMLStreamReader reader) throws XMLStreamException {
+		final String taxID = reader.getAttributeValue(null, "ncbiTaxId");
+
+		try {
+			return taxID == null ? null : Integer.valueOf(taxID.trim());
+		} catch (NumberFormatException e) {
+			throw new XMLStreamException("Not an NCBI taxonomy id: " + taxID, reader.getLocation(), e);
+		}
+	}
+
+	private static int intAttribute(final XMLStreamReader reader, final String name) throws XMLStreamException {
+		return parseInt(reader, reader.getAttributeValue(null, name));
+	}
+
+	private static int parseInt(final XMLStreamReader reader, final String value) throws XMLStreamException {
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (RuntimeException e) {
+			throw new XMLStreamException("Not an id: " + value, reader.getLocation(), e);
+		}
+	}
+
+	private static XMLInputFactory createFactory() {
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+
+		return factory;
+	}
+}
@@ -0,0 +1,162 @@
+package org.cytoscape.psi_mi.internal.data_mapper;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs an XML parser on its own thread, so that the network can be mapped
+ * while the rest of the document is still being parsed.
+ * <p>
+ * The parser hands each record it has read to {@link #emit(Object)}.  The
+ * records are passed to the mapping thread in document order, in batches,
+ * through a bounded queue; when the queue is full the parser blocks, so at
+ * most {@link #QUEUE_CAPACITY} batches are held in memory.
+ *
+ * @param <T> type of the records.
+ */
+public final class ParsePipeline<T> {
+
+	/** Number of batches that may wait for the mapping thread. */
+	public static final int QUEUE_CAPACITY = 8;
+
+	/**
+	 * Reads the document and emits its records.
+	 */
+	public interface Parser<T> {
+		void parse(ParsePipeline<T> pipeline) throws Exception;
+	}
+
+	private final List<T> end = new ArrayList<T>(0);
+	private final BlockingQueue<List<T>> queue = new ArrayBlockingQueue<List<T>>(QUEUE_CAPACITY);
+	private final String name;
+	private final int batchSize;
+
+	private List<T> batch;
+	private Thread parserThread;
+	private volatile Throwable parseFailure;
+	private volatile boolean closed;
+
+	/**
+	 * @param name name of the parser thread.
+	 * @param batchSize number of records that are handed over at once.
+	 */
+	public ParsePipeline(final String name, final int batchSize) {
+		this.name = name;
+		this.batchSize = batchSize;
+		this.batch = new ArrayList<T>(batchSize);
+	}
+
+	public void start(final Parser<T> parser) {
+		parserThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				parse(parser);
+			}
+		}, name);
+		parserThread.setDaemon(true);
+		parserThread.start();
+	}
+
+	/**
+	 * Called by the parser for each record, in document order.
+	 *
+	 * @throws CancellationException if the pipeline was closed.
+	 */
+	public void emit(final T record) {
+		batch.add(record);
+
+		if (batch.size() >= batchSize)
+			flush();
+	}
+
+	/**
+	 * @return the next batch of records, or null when the whole document has
+	 *         been parsed.
+	 * @throws ExecutionException if the parser failed; the cause is its exception.
+	 */
+	public List<T> take() throws InterruptedException, ExecutionException {
+		final List<T> records = queue.take();
+
+		if (records == end) {
+			queue.put(end);
+
+			if (parseFailure != null)
+				throw new ExecutionException(parseFailure);
+
+			return null;
+		}
+
+		return records;
+	}
+
+	/**
+	 * Stops the parser if it is still running.
+	 */
+	public void close() {
+		closed = true;
+
+		if (parserThread != null)
+			parserThread.interrupt();
+	}
+
+	private void parse(final Parser<T> parser) {
+		try {
+			parser.parse(this);
+			flush();
+		} catch (Throwable t) {
+			// The parser may have wrapped the CancellationException
+			if (closed)
+				return;
+
+			parseFailure = t;
+		}
+
+		try {
+			queue.put(end);
+		} catch (InterruptedException e) {
+			// Closed while the mapping thread was not taking records anymore
+		}
+	}
+
+	private void flush() {
+		if (batch.isEmpty())
+			return;
+
+		try {
+			queue.put(batch);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Parsing was cancelled.");
+		}
+
+		batch = new ArrayList<T>(batchSize);
+	}
+}
@@ -0,0 +1,145 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing index of the edges of a merged MITAB import, keyed on the
+ * canonical (unordered) pair of interactor index entries and an optional
+ * interaction type number.  Every entry keeps the SUID of its edge and the
+ * number of lines that were merged into it.
+ */
+final class EdgeMergeIndex {
+
+	/** SUID of an entry whose edge has not been created yet. */
+	static final long NO_SUID = -1L;
+
+	/** Type number for lines without interaction type, or when types are not part of the key. */
+	static final int NO_TYPE = -1;
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/** Entry number + 1 per slot, 0 for free slots. */
+	private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+	private int[] first = new int[INITIAL_CAPACITY];
+	private int[] second = new int[INITIAL_CAPACITY];
+	private int[] types = new int[INITIAL_CAPACITY];
+	private long[] suids = new long[INITIAL_CAPACITY];
+	private int[] counts = new int[INITIAL_CAPACITY];
+	private int size;
+
+	/**
+	 * Finds the entry of the interaction between the two interactors, in either
+	 * direction, or adds one with {@link #NO_SUID}.  Either way its evidence
+	 * count is incremented.
+	 *
+	 * @return the entry number.
+	 */
+	int lookupOrInsert(final int source, final int target, final int type) {
+		final int a = Math.min(source, target);
+		final int b = Math.max(source, target);
+		final int mask = slots.length - 1;
+		int slot = hash(a, b, type) & mask;
+		int entry;
+
+		while ((entry = slots[slot]) != 0) {
+			final int index = entry - 1;
+
+			if (first[index] == a && second[index] == b && types[index] == type) {
+				counts[index]++;
+				return index;
+			}
+
+			slot = (slot + 1) & mask;
+		}
+
+		if (size == suids.length)
+			grow();
+
+		final int index = size++;
+		first[index] = a;
+		second[index] = b;
+		types[index] = type;
+		suids[index] = NO_SUID;
+		counts[index] = 1;
+		slots[slot] = index + 1;
+
+		if (size * 2 > slots.length)
+			rehash();
+
+		return index;
+	}
+
+	long getSUID(final int index) {
+		return suids[index];
+	}
+
+	void setSUID(final int index, final long suid) {
+		suids[index] = suid;
+	}
+
+	/**
+	 * @return the number of lines merged into the edge of this entry.
+	 */
+	int getCount(final int index) {
+		return counts[index];
+	}
+
+	int size() {
+		return size;
+	}
+
+	private void grow() {
+		final int capacity = size * 2;
+		first = Arrays.copyOf(first, capacity);
+		second = Arrays.copyOf(second, capacity);
+		types = Arrays.copyOf(types, capacity);
+		suids = Arrays.copyOf(suids, capacity);
+		counts = Arrays.copyOf(counts, capacity);
+	}
+
+	private void rehash() {
+		slots = new int[slots.length * 2];
+		final int mask = slots.length - 1;
+
+		for (int index = 0; index < size; index++) {
+			int slot = hash(first[index], second[index], types[index]) & mask;
+			while (slots[slot] != 0)
+				slot = (slot + 1) & mask;
+
+			slots[slot] = index + 1;
+		}
+	}
+
+	private static int hash(final int a, final int b, final int type) {
+		long h = ((long) a << 32 | (b & 0xffffffffL)) * 0x9E3779B97F4A7C15L + type;
+		h *= 0xC2B2AE3D27D4EB4FL;
+
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -0,0 +1,204 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Maps interactor IDs to node SUIDs with a single open-addressing hash table.
+ * <p>
+ * Entries are numbered 0, 1, 2... in insertion order.  The UTF-8 bytes of
+ * all IDs are stored back to back in one array and the entries themselves live
+ * in primitive arrays, so an entry costs its bytes, a long and a few ints,
+ * instead of a String, a map entry and a boxed key.  The dense entry numbers
+ * can be used to keep per-interactor state in arrays or bit sets.
+ */
+final class InteractorIndex {
+
+	/** SUID of an entry whose node has not been created yet. */
+	static final long NO_SUID = -1L;
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/** Pairs of (hash, entry number + 1) per slot; an entry number of 0 marks a free slot. */
+	private int[] table = new int[INITIAL_CAPACITY * 4];
+	private int slotCount = INITIAL_CAPACITY * 2;
+
+	private long[] suids = new long[INITIAL_CAPACITY];
+	/** Start of the bytes of every entry; the element after the last entry is the end of the store. */
+	private int[] offsets = new int[INITIAL_CAPACITY + 1];
+	private byte[] bytes = new byte[INITIAL_CAPACITY * 16];
+	private int size;
+
+	/**
+	 * Finds the entry of the given ID or adds one, with {@link #NO_SUID}.
+	 *
+	 * @return the entry number.
+	 */
+	int lookupOrInsert(final String id) {
+		final int hash = id.hashCode();
+		final int mask = slotCount - 1;
+		int slot = spread(hash) & mask;
+		int entry;
+
+		while ((entry = table[slot * 2 + 1]) != 0) {
+			if (table[slot * 2] == hash && matches(entry - 1, id))
+				return entry - 1;
+
+			slot = (slot + 1) & mask;
+		}
+
+		final int index = add(id);
+		table[slot * 2] = hash;
+		table[slot * 2 + 1] = index + 1;
+
+		if (size * 3 > slotCount * 2)
+			rehash();
+
+		return index;
+	}
+
+	long getSUID(final int index) {
+		return suids[index];
+	}
+
+	void setSUID(final int index, final long suid) {
+		suids[index] = suid;
+	}
+
+	String getID(final int index) {
+		return new String(bytes, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of bytes held by the arrays of this index.
+	 */
+	long memoryBytes() {
+		return 4L * table.length + 8L * suids.length + 4L * offsets.length + bytes.length;
+	}
+
+	private int add(final String id) {
+		if (size == suids.length) {
+			final int capacity = size + (size >> 1);
+			suids = Arrays.copyOf(suids, capacity);
+			offsets = Arrays.copyOf(offsets, capacity + 1);
+		}
+
+		final int start = offsets[size];
+		final int length = id.length();
+		int end = start + length;
+		ensureBytes(end);
+
+		for (int i = 0; i < length; i++) {
+			final char c = id.charAt(i);
+
+			if (c >= 0x80) {
+				// Not ASCII: store the encoded ID
+				final byte[] utf8 = id.getBytes(StandardCharsets.UTF_8);
+				end = start + utf8.length;
+				ensureBytes(end);
+				System.arraycopy(utf8, 0, bytes, start, utf8.length);
+				break;
+			}
+
+			bytes[start + i] = (byte) c;
+		}
+
+		suids[size] = NO_SUID;
+		offsets[size + 1] = end;
+
+		return size++;
+	}
+
+	private void ensureBytes(final int length) {
+		if (length > bytes.length)
+			bytes = Arrays.copyOf(bytes, Math.max(length, bytes.length + (bytes.length >> 1)));
+	}
+
+	private boolean matches(final int index, final String id) {
+		final int start = offsets[index];
+		final int length = offsets[index + 1] - start;
+
+		if (length == id.length()) {
+			for (int i = 0; i < length; i++) {
+				final char c = id.charAt(i);
+
+				if (c >= 0x80)
+					return matchesEncoded(start, length, id);
+
+				if (bytes[start + i] != (byte) c)
+					return false;
+			}
+
+			return true;
+		}
+
+		// Encoded IDs are longer than their String
+		return length > id.length() && matchesEncoded(start, length, id);
+	}
+
+	private boolean matchesEncoded(final int start, final int length, final String id) {
+		final byte[] utf8 = id.getBytes(StandardCharsets.UTF_8);
+
+		if (utf8.length != length)
+			return false;
+
+		for (int i = 0; i < length; i++) {
+			if (bytes[start + i] != utf8[i])
+				return false;
+		}
+
+		return true;
+	}
+
+	private void rehash() {
+		final int[] old = table;
+		slotCount *= 2;
+		table = new int[slotCount * 2];
+		final int mask = slotCount - 1;
+
+		for (int i = 0; i < old.length; i += 2) {
+			if (old[i + 1] != 0) {
+				int slot = spread(old[i]) & mask;
+				while (table[slot * 2 + 1] != 0)
+					slot = (slot + 1) & mask;
+
+				table[slot * 2] = old[i];
+				table[slot * 2 + 1] = old[i + 1];
+			}
+		}
+	}
+
+	private static int spread(final int hash) {
+		final int h = hash * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,213 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import org.cytoscape.model.CyRow;
+
+/**
+ * Collects the values of String list attributes per row and writes every list
+ * once, when {@link #flush()} is called.  Values keep the order in which they
+ * were first added and duplicates are dropped, like repeated read-append-write
+ * updates of the row would do, but each value costs one hash lookup instead of
+ * a copy of the whole list.
+ *
+ * The lists of columns with a small vocabulary, such as interaction types,
+ * can be interned: rows with equal lists then share one array of values.
+ * Each row still gets a list of its own, because the table keeps the list it
+ * is given and callers may change what {@code row.getList} returns; the
+ * values are copied when the list is first changed.
+ */
+final class ListAttributeAccumulator {
+
+	/** Lists up to this size are searched linearly. */
+	private static final int INDEX_THRESHOLD = 8;
+	/** Distinct lists beyond this many are not interned. */
+	private static final int MAX_INTERNED = 4096;
+
+	private final Map<String, Map<CyRow, Values>> columns = new HashMap<String, Map<CyRow, Values>>();
+	private final Set<String> internedColumns = new HashSet<String>();
+	private final Map<List<String>, String[]> interned = new HashMap<List<String>, String[]>();
+
+	/**
+	 * Rows share the values of equal lists for the given column.
+	 */
+	void intern(final String column) {
+		internedColumns.add(column);
+	}
+
+	void add(final CyRow row, final String column, final String value) {
+		Map<CyRow, Values> rows = columns.get(column);
+
+		if (rows == null) {
+			rows = new HashMap<CyRow, Values>();
+			columns.put(column, rows);
+		}
+
+		Values values = rows.get(row);
+
+		if (values == null) {
+			// Start from what the row already has, e.g. a node from an earlier import
+			values = new Values(row.getList(column, String.class));
+			rows.put(row, values);
+		}
+
+		values.add(value);
+	}
+
+	void addAll(final CyRow row, final String column, final List<String> values) {
+		for (int i = 0; i < values.size(); i++)
+			add(row, column, values.get(i));
+	}
+
+	/**
+	 * Writes all collected lists to their rows and forgets them.
+	 */
+	void flush() {
+		for (Map.Entry<String, Map<CyRow, Values>> column : columns.entrySet()) {
+			final Map<CyRow, Values> rows = column.getValue();
+
+			if (!rows.isEmpty()) {
+				final boolean intern = internedColumns.contains(column.getKey());
+
+				for (Map.Entry<CyRow, Values> row : rows.entrySet()) {
+					final List<String> list = row.getValue().list;
+					row.getKey().set(column.getKey(), intern ? intern(list) : list);
+				}
+
+				rows.clear();
+			}
+		}
+	}
+
+	private List<String> intern(final List<String> list) {
+		String[] shared = interned.get(list);
+
+		if (shared == null) {
+			if (interned.size() >= MAX_INTERNED)
+				return list;
+
+			shared = list.toArray(new String[list.size()]);
+			interned.put(Arrays.asList(shared), shared);
+		}
+
+		return new SharedList(shared);
+	}
+
+	/**
+	 * @return number of distinct lists shared between rows.
+	 */
+	int internedLists() {
+		return interned.size();
+	}
+
+	/**
+	 * A list that reads an array shared with other rows until it is changed,
+	 * and then works on a copy.
+	 */
+	private static final class SharedList extends AbstractList<String> implements RandomAccess {
+		private final String[] shared;
+		private List<String> own;
+
+		SharedList(final String[] shared) {
+			this.shared = shared;
+		}
+
+		@Override
+		public String get(final int index) {
+			if (own != null)
+				return own.get(index);
+			if (index < 0 || index >= shared.length)
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + shared.length);
+
+			return shared[index];
+		}
+
+		@Override
+		public int size() {
+			return own != null ? own.size() : shared.length;
+		}
+
+		@Override
+		public String set(final int index, final String value) {
+			return own().set(index, value);
+		}
+
+		@Override
+		public void add(final int index, final String value) {
+			own().add(index, value);
+			modCount++;
+		}
+
+		@Override
+		public String remove(final int index) {
+			final String value = own().remove(index);
+			modCount++;
+
+			return value;
+		}
+
+		private List<String> own() {
+			if (own == null)
+				own = new ArrayList<String>(Arrays.asList(shared));
+
+			return own;
+		}
+	}
+
+	private static final class Values {
+		final List<String> list;
+		Set<String> index;
+
+		Values(final List<String> existing) {
+			list = existing == null ? new ArrayList<String>(2) : new ArrayList<String>(existing);
+
+			if (list.size() > INDEX_THRESHOLD)
+				index = new HashSet<String>(list);
+		}
+
+		void add(final String value) {
+			if (index != null) {
+				if (index.add(value))
+					list.add(value);
+			} else if (!list.contains(value)) {
+				list.add(value);
+
+				if (list.size() > INDEX_THRESHOLD)
+					index = new HashSet<String>(list);
+			}
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.nio.ByteBuffer;
+
+/**
+ * Iterates over the lines of a chunk, skipping empty and comment lines.
+ * Line terminators (LF or CRLF) are not part of a line.  Skipped lines
+ * still count for {@link #index}.
+ */
+final class MITABChunkLines {
+
+	private final ByteBuffer chunk;
+	private final int limit;
+	private int next;
+	private int count;
+
+	int start;
+	int end;
+	/** Index of the current line among all lines of the range. */
+	int index;
+
+	MITABChunkLines(final ByteBuffer chunk) {
+		this(chunk, chunk.position(), chunk.limit());
+	}
+
+	MITABChunkLines(final ByteBuffer chunk, final int from, final int to) {
+		this.chunk = chunk;
+		this.next = from;
+		this.limit = to;
+	}
+
+	boolean next() {
+		while (next < limit) {
+			final int lineStart = next;
+			int lineEnd = lineStart;
+
+			while (lineEnd < limit && chunk.get(lineEnd) != '\n')
+				lineEnd++;
+
+			next = lineEnd + 1;
+			count++;
+
+			if (lineEnd > lineStart && chunk.get(lineEnd - 1) == '\r')
+				lineEnd--;
+
+			if (lineEnd > lineStart && chunk.get(lineStart) != '#') {
+				start = lineStart;
+				end = lineEnd;
+				index = count - 1;
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return the number of lines iterated over so far, including skipped ones.
+	 */
+	int getLineCount() {
+		return count;
+	}
+}
@@ -0,0 +1,116 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * The optional parts of a MITAB line that can be selected for import.  The
+ * two interactor ID columns are always read.  The parts after the 15 columns
+ * of MITAB 2.5 only exist in MITAB 2.6 (36 columns) and 2.7 (42 columns)
+ * files.
+ */
+public enum MITABColumn {
+
+	ALIASES("Aliases and interactor type", 2, 3, 4, 5),
+	DETECTION_METHOD("Interaction detection method", 6),
+	AUTHORS("Publication authors", 7),
+	PUBLICATION("Publication identifiers", 8),
+	TAXONOMY("Taxonomy", 9, 10),
+	INTERACTION_TYPE("Interaction type", 11),
+	SOURCE_DB("Source database", 12),
+	INTERACTION_ID("Interaction identifier", 13),
+	CONFIDENCE("Confidence values", 14),
+
+	// MITAB 2.6
+	EXPANSION("Complex expansion method", 15),
+	BIOLOGICAL_ROLE("Biological roles", 16, 17),
+	EXPERIMENTAL_ROLE("Experimental roles", 18, 19),
+	INTERACTOR_TYPES("Interactor types", 20, 21),
+	XREFS("Cross references", 22, 23, 24),
+	ANNOTATIONS("Annotations", 25, 26, 27),
+	HOST_ORGANISM("Host organism", 28),
+	PARAMETERS("Interaction parameters", 29),
+	DATES("Creation and update dates", 30, 31),
+	CHECKSUMS("Checksums", 32, 33, 34),
+	NEGATIVE("Negative interaction", 35),
+
+	// MITAB 2.7
+	FEATURES("Features", 36, 37),
+	STOICHIOMETRY("Stoichiometry", 38, 39),
+	IDENTIFICATION_METHOD("Participant identification methods", 40, 41);
+
+	/** The interactor ID columns. */
+	static final long REQUIRED = 0x3;
+
+	private final String label;
+	private final long mask;
+
+	private MITABColumn(final String label, final int... columns) {
+		long mask = 0;
+		for (int column : columns)
+			mask |= 1L << column;
+
+		this.label = label;
+		this.mask = mask;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * @return bit set of the MITAB column indices needed for the given selection.
+	 */
+	static long mask(final Collection<MITABColumn> selection) {
+		long mask = REQUIRED;
+		for (MITABColumn column : selection)
+			mask |= column.mask;
+
+		return mask;
+	}
+
+	public static List<String> labels() {
+		final List<String> labels = new ArrayList<String>();
+		for (MITABColumn column : values())
+			labels.add(column.label);
+
+		return labels;
+	}
+
+	public static EnumSet<MITABColumn> forLabels(final Collection<String> labels) {
+		final EnumSet<MITABColumn> columns = EnumSet.noneOf(MITABColumn.class);
+		for (MITABColumn column : values()) {
+			if (labels.contains(column.label))
+				columns.add(column);
+		}
+
+		return columns;
+	}
+}
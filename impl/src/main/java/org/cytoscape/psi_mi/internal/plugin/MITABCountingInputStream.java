@@ -0,0 +1,100 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read through it.  The count is written by the thread
+ * that reads and may be polled by any other thread.
+ */
+final class MITABCountingInputStream extends FilterInputStream {
+
+	private volatile long count;
+
+	MITABCountingInputStream(final InputStream in) {
+		super(in);
+	}
+
+	long getCount() {
+		return count;
+	}
+
+	/**
+	 * Goes on counting on another stream, for inputs that are read one after
+	 * another.  The previous stream is not closed.
+	 */
+	void setInput(final InputStream in) {
+		this.in = in;
+	}
+
+	@Override
+	public int read() throws IOException {
+		final int b = in.read();
+
+		if (b >= 0)
+			count++;
+
+		return b;
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		final int n = in.read(b, off, len);
+
+		if (n > 0)
+			count += n;
+
+		return n;
+	}
+
+	@Override
+	public long skip(final long n) throws IOException {
+		final long skipped = in.skip(n);
+		count += skipped;
+
+		return skipped;
+	}
+
+	/**
+	 * Marks are not supported, so that bytes read again after a reset
+	 * cannot be counted twice.
+	 */
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(final int readlimit) {
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		throw new IOException("mark/reset not supported");
+	}
+}
@@ -0,0 +1,142 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * A list of MITAB values stored as start/end offsets into the line they
+ * were read from.  A value is only turned into a String the first time
+ * it is requested.
+ */
+final class MITABFieldList extends AbstractList<String> {
+
+	private static final int[] NO_BOUNDS = new int[0];
+	private static final String[] NO_VALUES = new String[0];
+
+	private CharSequence line;
+	private MITABTermDictionary.Lookup dictionary;
+	private int[] bounds = NO_BOUNDS;
+	private String[] values = NO_VALUES;
+	private int size;
+
+	/**
+	 * Decode values through the given dictionary, for columns whose values
+	 * come from a small vocabulary.
+	 */
+	void setDictionary(final MITABTermDictionary.Lookup dictionary) {
+		this.dictionary = dictionary;
+	}
+
+	void reset(final CharSequence line) {
+		this.line = line;
+		Arrays.fill(values, 0, size, null);
+		size = 0;
+	}
+
+	void add(final int start, final int end) {
+		if (size == values.length) {
+			final int capacity = Math.max(4, size * 2);
+			values = Arrays.copyOf(values, capacity);
+			bounds = Arrays.copyOf(bounds, capacity * 2);
+		}
+
+		bounds[size * 2] = start;
+		bounds[size * 2 + 1] = end;
+		size++;
+	}
+
+	/**
+	 * Appends the offsets of the values, and the values decoded so far, to
+	 * the batch.
+	 */
+	void copyTo(final MITABParsedBatch batch) {
+		batch.addField(size, bounds, values);
+	}
+
+	/**
+	 * Replaces the values by count values of a parsed batch: their offsets
+	 * start at bounds[from], their decoded values (null if not decoded yet)
+	 * at decoded[valueFrom].
+	 */
+	void load(final int[] bounds, final int from, final String[] decoded, final int valueFrom, final int count) {
+		if (count > values.length) {
+			values = new String[count];
+			this.bounds = new int[count * 2];
+		}
+
+		System.arraycopy(bounds, from, this.bounds, 0, count * 2);
+		System.arraycopy(decoded, valueFrom, values, 0, count);
+		size = count;
+	}
+
+	/**
+	 * @return offset of the first character of value i in the current line.
+	 */
+	int start(final int i) {
+		checkIndex(i);
+		return bounds[i * 2];
+	}
+
+	/**
+	 * @return offset after the last character of value i in the current line.
+	 */
+	int end(final int i) {
+		checkIndex(i);
+		return bounds[i * 2 + 1];
+	}
+
+	CharSequence line() {
+		return line;
+	}
+
+	@Override
+	public String get(final int i) {
+		checkIndex(i);
+		String value = values[i];
+
+		if (value == null) {
+			if (dictionary != null)
+				value = dictionary.get(line, bounds[i * 2], bounds[i * 2 + 1]);
+			else
+				value = line.subSequence(bounds[i * 2], bounds[i * 2 + 1]).toString();
+
+			values[i] = value;
+		}
+
+		return value;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private void checkIndex(final int i) {
+		if (i < 0 || i >= size)
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+	}
+}
@@ -0,0 +1,190 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads and parses MITAB input in the background, so that the thread which
+ * writes the network (the apply stage) only has to call {@link #take()}.
+ * <p>
+ * A reader thread cuts the input into batches of whole lines and submits them
+ * to a pool of parse threads.  Batches are handed to the apply stage in file
+ * order through a bounded queue; when the queue is full the reader blocks, so
+ * at most {@link MITABPipelineStats#getQueueCapacity()} batches are held in memory.
+ * <p>
+ * The reader thread is never interrupted: an interrupt closes the FileChannel
+ * it may be reading from, and zip entries share one channel.  {@link #close()}
+ * sets a flag and frees the queue instead, and the reader stops after the
+ * read or put it is in.
+ */
+final class MITABImportPipeline {
+
+	/** Size of the byte ranges that make up a batch. */
+	private static final int BATCH_SIZE = 1024 * 1024;
+
+	private static final Batch END = new Batch(null);
+
+	private final MITABChunkReader reader;
+	private final ForkJoinPool parsePool;
+	private final BlockingQueue<Batch> queue;
+	private final MITABPipelineStats stats;
+	private final MITABLineFormat format;
+	private final Thread readerThread;
+
+	private volatile Exception readFailure;
+	private volatile boolean closed;
+
+	MITABImportPipeline(final MITABChunkReader reader, final int parseThreads, final MITABLineFormat format) {
+		final int capacity = 2 * parseThreads + 2;
+
+		this.reader = reader;
+		this.format = format;
+		this.parsePool = new ForkJoinPool(parseThreads);
+		this.queue = new ArrayBlockingQueue<Batch>(capacity);
+		this.stats = new MITABPipelineStats(parseThreads, capacity);
+		this.readerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				read();
+			}
+		}, "MITAB reader");
+		this.readerThread.setDaemon(true);
+	}
+
+	MITABPipelineStats getStats() {
+		return stats;
+	}
+
+	void start() {
+		readerThread.start();
+	}
+
+	/**
+	 * @return the next batch of parsed lines in file order, or null when the
+	 *         whole input has been read.
+	 */
+	MITABParsedBatch take() throws IOException {
+		try {
+			final long start = System.nanoTime();
+			final Batch batch = queue.take();
+
+			if (batch == END) {
+				queue.put(END);
+
+				if (readFailure != null)
+					throw new IOException("Could not read MITAB input.", readFailure);
+
+				return null;
+			}
+
+			final MITABParsedBatch parsed = batch.task.get();
+			stats.batchTaken(System.nanoTime() - start, parsedBatches());
+
+			return parsed;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("MITAB import interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Could not parse MITAB input.", e.getCause());
+		}
+	}
+
+	void close() {
+		closed = true;
+		parsePool.shutdownNow();
+
+		// Unblocks a reader waiting in put(); it checks the flag after every put
+		for (Batch batch; (batch = queue.poll()) != null;) {
+			if (batch != END)
+				batch.task.cancel(false);
+		}
+	}
+
+	private void read() {
+		try {
+			long start = System.nanoTime();
+			ByteBuffer chunk;
+
+			while (!closed && (chunk = reader.next()) != null) {
+				final int limit = chunk.limit();
+				int from = chunk.position();
+
+				while (from < limit && !closed) {
+					int to = Math.min(from + BATCH_SIZE, limit);
+					while (to < limit && chunk.get(to - 1) != '\n')
+						to++;
+
+					final Batch batch = new Batch(parsePool.submit(new MITABParseTask(chunk, from, to, stats, format)));
+					from = to;
+
+					final long blocked = System.nanoTime();
+					queue.put(batch);
+					final long now = System.nanoTime();
+
+					stats.batchRead(blocked - start, now - blocked, parsePool.getQueuedSubmissionCount());
+					start = now;
+				}
+			}
+		} catch (InterruptedException e) {
+			return;
+		} catch (Exception e) {
+			if (!closed)
+				readFailure = e;
+		}
+
+		try {
+			if (!closed)
+				queue.put(END);
+		} catch (InterruptedException e) {
+			// Not interrupted by close(), only by whoever owns the thread
+		}
+	}
+
+	private int parsedBatches() {
+		int parsed = 0;
+		for (Batch batch : queue) {
+			if (batch != END && batch.task.isDone())
+				parsed++;
+		}
+
+		return parsed;
+	}
+
+	private static final class Batch {
+		final ForkJoinTask<MITABParsedBatch> task;
+
+		Batch(final ForkJoinTask<MITABParsedBatch> task) {
+			this.task = task;
+		}
+	}
+}
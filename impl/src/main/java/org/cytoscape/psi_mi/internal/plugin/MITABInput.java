@@ -0,0 +1,199 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Opens MITAB input that may be compressed.  The format is sniffed from the
+ * first bytes, not from a file name: gzip (including files of several
+ * concatenated members) is decompressed while it is read, on several threads
+ * if a local file has many members, and the files of a zip archive are read
+ * one after another as if they were a single file.
+ * Nothing is unpacked to disk.
+ */
+final class MITABInput {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	enum Format { PLAIN, GZIP, ZIP }
+
+	private MITABInput() {
+	}
+
+	/**
+	 * @return a stream of the uncompressed MITAB text.  Plain input is returned
+	 *         as is, so that local files can still be memory-mapped.
+	 */
+	static InputStream open(final InputStream in) throws IOException {
+		return open(in, 1);
+	}
+
+	/**
+	 * Like {@link #open(InputStream)}, but a local gzip file of several members
+	 * is inflated by the given number of threads.
+	 */
+	static InputStream open(final InputStream in, final int threads) throws IOException {
+		final InputStream sniffed = in instanceof FileInputStream || in.markSupported()
+				? in : new BufferedInputStream(in, BUFFER_SIZE);
+
+		switch (sniff(sniffed)) {
+			case GZIP:
+				if (threads > 1 && sniffed instanceof FileInputStream) {
+					final FileChannel channel = ((FileInputStream) sniffed).getChannel();
+					final InputStream parallel = ParallelGzipInputStream.open(channel, channel.position(), threads);
+
+					if (parallel != null)
+						return parallel;
+				}
+
+				return new GZIPInputStream(sniffed, BUFFER_SIZE);
+			case ZIP:
+				return new ZipEntriesInputStream(new ZipInputStream(new BufferedInputStream(sniffed, BUFFER_SIZE)));
+			default:
+				return sniffed;
+		}
+	}
+
+	/**
+	 * Reads the magic number at the current position without consuming it.
+	 * The stream must be a FileInputStream or support mark.
+	 */
+	static Format sniff(final InputStream in) throws IOException {
+		final byte[] magic = new byte[4];
+		int count = 0;
+
+		if (in instanceof FileInputStream) {
+			final FileChannel channel = ((FileInputStream) in).getChannel();
+			final long position = channel.position();
+			count = Math.max(0, channel.read(ByteBuffer.wrap(magic), position));
+		} else {
+			in.mark(magic.length);
+
+			while (count < magic.length) {
+				final int n = in.read(magic, count, magic.length - count);
+				if (n < 0)
+					break;
+				count += n;
+			}
+
+			in.reset();
+		}
+
+		if (count >= 2 && magic[0] == (byte) 0x1f && magic[1] == (byte) 0x8b)
+			return Format.GZIP;
+		if (count == 4 && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4)
+			return Format.ZIP;
+
+		return Format.PLAIN;
+	}
+
+	/**
+	 * @return true for archive entries that are not data files: directories,
+	 *         hidden files and the resource forks macOS adds.
+	 */
+	static boolean isSkipped(final String name) {
+		final String file = name.substring(name.lastIndexOf('/', name.length() - 2) + 1);
+		return name.endsWith("/") || name.startsWith("__MACOSX/") || file.startsWith(".");
+	}
+
+	/**
+	 * The contents of all files of a zip archive in order.  A newline is added
+	 * to a file that does not end with one, so the last line of a file never
+	 * runs into the first line of the next.
+	 */
+	private static final class ZipEntriesInputStream extends InputStream {
+
+		private final ZipInputStream zip;
+		private boolean inEntry;
+		private boolean needsNewline;
+		private boolean eof;
+
+		ZipEntriesInputStream(final ZipInputStream zip) {
+			this.zip = zip;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			if (len == 0)
+				return 0;
+
+			while (!eof) {
+				if (!inEntry && !nextEntry())
+					break;
+
+				final int n = zip.read(b, off, len);
+
+				if (n > 0) {
+					needsNewline = b[off + n - 1] != '\n';
+					return n;
+				}
+
+				inEntry = false;
+
+				if (needsNewline) {
+					needsNewline = false;
+					b[off] = '\n';
+					return 1;
+				}
+			}
+
+			return -1;
+		}
+
+		private boolean nextEntry() throws IOException {
+			ZipEntry entry;
+
+			while ((entry = zip.getNextEntry()) != null) {
+				if (!isSkipped(entry.getName())) {
+					inEntry = true;
+					return true;
+				}
+			}
+
+			eof = true;
+			return false;
+		}
+
+		@Override
+		public void close() throws IOException {
+			zip.close();
+		}
+	}
+}
@@ -25,8 +25,11 @@ package org.cytoscape.psi_mi.internal.plugin;
  */
 
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.ArrayList;
 
 // There are 15 tab separated columns.  Columns can be further separated by '|' and sub-columns
 // can be further separated by ':'
@@ -47,7 +50,8 @@ import java.util.ArrayList;
 // 12  sourceDB|sourceDB  
 // 13  interactionID|XXXX
 // 14  edgeScoreType:edgeScoreString|edgeScoreType:edgeScoreString
-// subsequent optional columns are ignored!
+// MITAB 2.6 adds columns 15 to 35 and MITAB 2.7 columns 36 to 41, see MITABColumn.
+// They are only delimited while tokenizing and split into values when decoded.
 // 
 // For a better description see: http://wiki.reactome.org/index.php/PSI-MITAB_interactions
 //
@@ -65,166 +69,523 @@ public class MITABLine25 {
 	private static final char TAB = '	';
 	private static final char QUOTE = '"';
 
+	private static final int COLUMN_COUNT = 15;
+	/** Number of columns of MITAB 2.7, the widest format. */
+	static final int EXTENDED_COLUMN_COUNT = 42;
+
+	/** Extended columns whose values come from a small vocabulary. */
+	private static final long EXTENDED_TERMS = 0x7fL << 15 | 1L << 28 | 1L << 35 | 3L << 40;
+
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+	};
+
+	/** Bit set of all column indices of MITAB 2.5. */
+	static final int ALL_COLUMNS = (1 << COLUMN_COUNT) - 1;
+
+	private static final String TOO_FEW_COLUMNS = "Line does not contain both interactor columns.";
+
+	/** Index of the line within its parsed batch, counting every line of the input. */
+	int lineIndex;
+
 	String sourceRawID = "";
 	String targetRawID = "";
 
-	final List<String> srcAliases = new ArrayList<String>(10);
-	final List<String> srcDBs = new ArrayList<String>(10);
+	final MITABFieldList srcAliases = new MITABFieldList();
+	final MITABFieldList srcDBs = new MITABFieldList();
+	/** The aliases without their qualifier, e.g. "TP53" of "TP53(gene name)". */
+	final MITABFieldList srcAliasNames = new MITABFieldList();
+	/** The qualifiers of the aliases, e.g. "gene name", empty if there is none. */
+	final MITABFieldList srcAliasQualifiers = new MITABFieldList();
+
+	final MITABFieldList tgtAliases = new MITABFieldList();
+	final MITABFieldList tgtDBs = new MITABFieldList();
+	final MITABFieldList tgtAliasNames = new MITABFieldList();
+	final MITABFieldList tgtAliasQualifiers = new MITABFieldList();
 
-	final List<String> tgtAliases = new ArrayList<String>(10);
-	final List<String> tgtDBs = new ArrayList<String>(10);
+	final MITABFieldList authors = new MITABFieldList();
 
-	final List<String> authors = new ArrayList<String>(5);
+	final MITABFieldList detectionMethods = new MITABFieldList();
+	final MITABFieldList detectionDBs = new MITABFieldList();
 
-	final List<String> detectionMethods = new ArrayList<String>(5);
-	final List<String> detectionDBs = new ArrayList<String>(5);
+	final MITABFieldList publicationValues = new MITABFieldList();
+	final MITABFieldList publicationDBs = new MITABFieldList();
 
-	final List<String> publicationValues = new ArrayList<String>(5);
-	final List<String> publicationDBs = new ArrayList<String>(5);
+	final MITABFieldList srcTaxonDBs = new MITABFieldList();
+	final MITABFieldList srcTaxonIDs = new MITABFieldList();
 
-	final List<String> srcTaxonDBs = new ArrayList<String>(5);
-	final List<String> srcTaxonIDs = new ArrayList<String>(5);
+	final MITABFieldList tgtTaxonDBs = new MITABFieldList();
+	final MITABFieldList tgtTaxonIDs = new MITABFieldList();
 
-	final List<String> tgtTaxonDBs = new ArrayList<String>(5);
-	final List<String> tgtTaxonIDs = new ArrayList<String>(5);
+	final MITABFieldList sourceIDs = new MITABFieldList();
+	final MITABFieldList sourceDBs = new MITABFieldList();
 
-	final List<String> sourceIDs = new ArrayList<String>(5);
-	final List<String> sourceDBs = new ArrayList<String>(5);
+	final MITABFieldList interactionTypes = new MITABFieldList();
+	final MITABFieldList interactionTypeDBs = new MITABFieldList();
 
-	final List<String> interactionTypes = new ArrayList<String>(5);
-	final List<String> interactionTypeDBs = new ArrayList<String>(5);
+	final MITABFieldList edgeScoreTypes = new MITABFieldList();
+	final MITABFieldList edgeScoreStrings = new MITABFieldList();
 
-	final List<String> edgeScoreTypes = new ArrayList<String>(5);
-	final List<String> edgeScoreStrings = new ArrayList<String>(5);
+	final MITABFieldList interactionIDs = new MITABFieldList();
+	final MITABFieldList interactionDBs = new MITABFieldList();
 
-	final List<String> interactionIDs = new ArrayList<String>(5);
-	List<String> interactionDBs = new ArrayList<String>(5);
+	/** Numeric values of edgeScoreStrings, NaN where a value is not a number. */
+	private double[] edgeScores = new double[4];
 
-	private int colon = 0; 
-	private int tab = 0; 
-	private int pipe = 0; 
-	private int begin = 0; 
-	private int end = 0; 
+	/**
+	 * Values of the selected MITAB 2.6/2.7 columns, by column index - 15.
+	 * Only created once a line has more than 15 columns.
+	 */
+	private MITABFieldList[] extended;
+	/** Start and end of each extended column in the line, -1 if absent. */
+	private int[] extendedBounds;
+	private int columnCount;
 
-	private void init() {
+	private final MITABFieldList[] fields = {
+		srcAliases, srcDBs, srcAliasNames, srcAliasQualifiers, tgtAliases, tgtDBs, tgtAliasNames, tgtAliasQualifiers,
+		authors, detectionMethods, detectionDBs, publicationValues, publicationDBs, srcTaxonDBs, srcTaxonIDs,
+		tgtTaxonDBs, tgtTaxonIDs, sourceIDs, sourceDBs, interactionTypes, interactionTypeDBs, edgeScoreTypes,
+		edgeScoreStrings, interactionIDs, interactionDBs
+	};
+
+	/** Columns whose values come from a small vocabulary. */
+	private final MITABFieldList[] terms = {
+		srcDBs, srcAliasQualifiers, tgtDBs, tgtAliasQualifiers, detectionMethods, detectionDBs, publicationDBs,
+		srcTaxonDBs, srcTaxonIDs, tgtTaxonDBs, tgtTaxonIDs, sourceIDs, sourceDBs, interactionTypes,
+		interactionTypeDBs, edgeScoreTypes, interactionDBs
+	};
+
+	private final ByteSequence bytes = new ByteSequence();
+	private CharSequence line = "";
+
+	private final long columns;
+	private final int lastColumn;
+	private final MITABTermDictionary.Lookup lookup;
+
+	public MITABLine25() {
+		this(null, ALL_COLUMNS);
+	}
+
+	/**
+	 * @param dictionary shares the values of the vocabulary columns between lines.
+	 */
+	MITABLine25(final MITABTermDictionary dictionary) {
+		this(dictionary, ALL_COLUMNS);
+	}
+
+	/**
+	 * @param dictionary shares the values of the vocabulary columns between
+	 *        lines, may be null.
+	 * @param columns bit set of the column indices to read.  Other columns are
+	 *        skipped without looking at their content and their fields stay empty.
+	 */
+	MITABLine25(final MITABTermDictionary dictionary, final long columns) {
+		this.columns = columns | MITABColumn.REQUIRED;
+		this.lastColumn = 64 - Long.numberOfLeadingZeros(this.columns & ((1L << EXTENDED_COLUMN_COUNT) - 1));
+
+		this.lookup = dictionary == null ? null : dictionary.lookup();
+
+		if (lookup != null) {
+			for (MITABFieldList field : terms)
+				field.setDictionary(lookup);
+		}
+	}
+
+	private void init(final CharSequence line) {
+		this.line = line;
 		sourceRawID = "";
 		targetRawID = "";
-		colon = 0; 
-		tab = 0; 
-		pipe = 0; 
-		begin = 0;
-		end = 0;
-		srcAliases.clear(); 
-		tgtAliases.clear();
-		authors.clear();
-		detectionMethods.clear();
-		detectionDBs.clear();
-		publicationDBs.clear();
-		publicationValues.clear();
-		srcTaxonIDs.clear();
-		srcTaxonDBs.clear();
-		tgtTaxonIDs.clear();
-		tgtTaxonDBs.clear();
-		sourceIDs.clear();
-		sourceDBs.clear();
-		interactionTypes.clear();
-		interactionTypeDBs.clear();
-		edgeScoreTypes.clear();
-		edgeScoreStrings.clear();
-		interactionIDs.clear();
-		interactionDBs.clear();
+
+		for (MITABFieldList field : fields)
+			field.reset(line);
 	}
 
+	/**
+	 * Clears the fields of the selected extended columns for a line that has
+	 * more than 15 columns.  They are only created for the first such line,
+	 * so the lines of a MITAB 2.5 file do without them.
+	 */
+	private void initExtended() {
+		if (extended == null) {
+			extended = new MITABFieldList[EXTENDED_COLUMN_COUNT - COLUMN_COUNT];
+			extendedBounds = new int[extended.length * 2];
+
+			for (int column = COLUMN_COUNT; column < lastColumn; column++) {
+				if ((columns & (1L << column)) != 0) {
+					final MITABFieldList field = new MITABFieldList();
+					if (lookup != null && (EXTENDED_TERMS & (1L << column)) != 0)
+						field.setDictionary(lookup);
+
+					extended[column - COLUMN_COUNT] = field;
+				}
+			}
+		}
 
+		Arrays.fill(extendedBounds, -1);
+
+		for (MITABFieldList field : extended) {
+			if (field != null)
+				field.reset(line);
+		}
+	}
+
+	/**
+	 * Tokenizes the line in a single left-to-right sweep.  Every TAB closes a
+	 * column, every '|' closes a field within a column and the first ':' of a
+	 * field separates the database from the value.  Pipes and colons inside
+	 * double quotes are part of the value, e.g. psi-mi:"MI:0018"(two hybrid).
+	 */
 	public void readLine(final String line) {
-		init();
-
-		// Extract 1st and 2nd column for testing 
-		// TODO: review this class and make this more robust.
-		final int firstDelimiterIdx = line.indexOf(TAB);
-		final int secondDelimiterIdx = line.indexOf(TAB, firstDelimiterIdx+1);
-		final String primarySourceId = line.substring(0, firstDelimiterIdx);
-		final String primaryTargetId = line.substring(firstDelimiterIdx, secondDelimiterIdx);
-		
-		// column 0
-		// get first source DB
-		srcDBs.add(nextString(line));
-
-		// get sourceRawID
-		sourceRawID = nextString(line);
-		srcAliases.add(sourceRawID);
-
-		// get any additional source aliases from col 0
-		if(primarySourceId.indexOf(PIPE) != -1) {
-			// Do this only when multiple IDs are available.
-			addNextPairs("additional src aliases", srcDBs, srcAliases, line );
+		if (!scan(line))
+			throw new IllegalArgumentException(TOO_FEW_COLUMNS);
+	}
+
+	/**
+	 * Reads the line stored in buffer between start (inclusive) and end
+	 * (exclusive) without decoding it.  All delimiters are ASCII, so the
+	 * UTF-8 bytes can be tokenized directly; values are decoded on demand.
+	 * The buffer must not change while the fields of this line are in use.
+	 */
+	public void readLine(final ByteBuffer buffer, final int start, final int end) {
+		if (!read(buffer, start, end))
+			throw new IllegalArgumentException(TOO_FEW_COLUMNS);
+	}
+
+	/**
+	 * Like {@link #readLine(ByteBuffer, int, int)}, but a line without both
+	 * interactor columns is reported without the cost of an exception.
+	 *
+	 * @return false if the line does not contain both interactor columns.
+	 */
+	boolean read(final ByteBuffer buffer, final int start, final int end) {
+		bytes.reset(buffer, start, end);
+		return scan(bytes);
+	}
+
+	/**
+	 * Decodes the values of all columns that were read, see {@link #decode(long)}.
+	 */
+	void decode() {
+		decode(columns);
+	}
+
+	/**
+	 * Decodes the values of the given columns that are imported for every
+	 * line, so that the thread that imports the line does not have to.  The
+	 * values that are only imported for a node seen for the first time
+	 * (taxonomy, alias qualifiers and databases) and the values of the other
+	 * columns stay offsets until they are requested.
+	 *
+	 * @param written bit set of the column indices that are imported.
+	 */
+	void decode(final long written) {
+		// The database of the first ID names the ID column of the node
+		if (!srcDBs.isEmpty())
+			srcDBs.get(0);
+		if (!interactionIDs.isEmpty())
+			interactionIDs.get(0);
+
+		// Aliases are imported without their qualifiers
+		if ((written & (1L << 2)) != 0) {
+			decodeAll(srcAliasNames);
+			decodeAll(tgtAliasNames);
+		}
+
+		if ((written & (1L << 6)) != 0)
+			decodeAll(detectionMethods);
+		if ((written & (1L << 7)) != 0)
+			decodeAll(authors);
+		if ((written & (1L << 8)) != 0) {
+			decodeAll(publicationValues);
+			decodeAll(publicationDBs);
+		}
+		if ((written & (1L << 11)) != 0)
+			decodeAll(interactionTypes);
+		if ((written & (1L << 12)) != 0) {
+			decodeAll(sourceDBs);
+			decodeAll(sourceIDs);
+		}
+
+		// Scores are decoded as numbers; only the ones that are not stay text.
+		final int scores = edgeScoreStrings.size();
+		if (edgeScores.length < scores)
+			edgeScores = new double[Math.max(scores, edgeScores.length * 2)];
+
+		for (int i = 0; i < scores; i++) {
+			edgeScores[i] = parseScore(line, edgeScoreStrings.start(i), edgeScoreStrings.end(i));
+
+			if ((written & (1L << 14)) != 0) {
+				edgeScoreTypes.get(i);
+				if (Double.isNaN(edgeScores[i]))
+					edgeScoreStrings.get(i);
+			}
+		}
+
+		if (columnCount > COLUMN_COUNT) {
+			for (int column = COLUMN_COUNT; column < lastColumn; column++) {
+				final MITABFieldList field = extended[column - COLUMN_COUNT];
+
+				if (field != null) {
+					split(field, column);
+
+					if ((written & (1L << column)) != 0)
+						decodeAll(field);
+				}
+			}
+		}
+	}
+
+	private static void decodeAll(final MITABFieldList field) {
+		for (int i = 0; i < field.size(); i++)
+			field.get(i);
+	}
+
+	/**
+	 * Adds the current line, which has to be read from a buffer and decoded,
+	 * to the batch: only the offsets of its values and the decoded values
+	 * are kept, not this object.
+	 */
+	void copyTo(final MITABParsedBatch batch) {
+		batch.addLine(lineIndex, bytes.offset, bytes.offset + bytes.length, columnCount, sourceRawID, targetRawID);
+
+		for (MITABFieldList field : fields)
+			field.copyTo(batch);
+
+		batch.addScores(edgeScores, edgeScoreStrings.size());
+
+		if (columnCount > COLUMN_COUNT) {
+			for (int column = COLUMN_COUNT; column < lastColumn; column++) {
+				if (extended[column - COLUMN_COUNT] != null)
+					extended[column - COLUMN_COUNT].copyTo(batch);
+			}
 		}
+	}
 
-		// column 1
-		// get first target db
-		tgtDBs.add(nextString(line));
+	/**
+	 * Makes kept line i of the batch the current line, as it was when it was
+	 * copied to the batch.  This line has to read the same columns as the
+	 * line that was copied.
+	 */
+	void load(final MITABParsedBatch batch, final int i) {
+		final int[] data = batch.data;
+		int at = batch.record(i);
+
+		bytes.reset(batch.chunk, data[at + 1], data[at + 2]);
+		init(bytes);
+		lineIndex = data[at];
+		columnCount = data[at + 3];
+		int value = data[at + 4];
+		final int score = data[at + 5];
+		at += MITABParsedBatch.HEADER;
+
+		sourceRawID = batch.values[value++];
+		targetRawID = batch.values[value++];
+
+		for (MITABFieldList field : fields) {
+			final int count = data[at];
+			field.load(data, at + 1, batch.values, value, count);
+			at += 1 + count * 2;
+			value += count;
+		}
 
-		// get targetRawID
-		targetRawID = nextString(line); 
-		tgtAliases.add(targetRawID);
+		final int scores = edgeScoreStrings.size();
+		if (edgeScores.length < scores)
+			edgeScores = new double[scores];
+		System.arraycopy(batch.scores, score, edgeScores, 0, scores);
 
-		// get any additional target aliases from col 1
-		if(primaryTargetId.indexOf(PIPE) != -1) {
-			// Do this only when multiple IDs are available.
-			addNextPairs("additional tgt aliases", tgtDBs, tgtAliases, line);
+		if (columnCount > COLUMN_COUNT) {
+			initExtended();
+
+			for (int column = COLUMN_COUNT; column < lastColumn; column++) {
+				final MITABFieldList field = extended[column - COLUMN_COUNT];
+
+				if (field != null) {
+					final int count = data[at];
+					field.load(data, at + 1, batch.values, value, count);
+					at += 1 + count * 2;
+					value += count;
+				}
+			}
 		}
+	}
+
+	/**
+	 * @return the number of columns of the line, as far as it was read:
+	 *         15 for MITAB 2.5, 36 for 2.6 and 42 for 2.7.
+	 */
+	int getColumnCount() {
+		return columnCount;
+	}
 
-		// column 2
-		// get any additional source aliases
-		addNextPairs("col 2 src", srcDBs, srcAliases, line );
-
-		// column 3
-		// get any additional target aliases
-		addNextPairs("col 3 tgt", tgtDBs, tgtAliases, line);
-
-		// column 4
-		// get any additional source aliases
-		addNextPairs("col 4 src", srcDBs, srcAliases, line );
-
-		// column 5
-		// get any additional target aliases
-		addNextPairs("col 5 tgt", tgtDBs, tgtAliases, line);
-		
-		// column 6
-		// get any detection methods 
-		addNextPairs("detection", detectionDBs, detectionMethods, line);
-
-		// column 7
-		// get any authors 
-		addNextValues("authors",authors,line);
-
-		// column 8
-		// get any additional publications 
-		addNextPairs("publications", publicationDBs, publicationValues, line);
-
-		// column 9
-		// get source taxon 
-		addNextPairs("src taxon", srcTaxonDBs, srcTaxonIDs, line);
-
-		// column 10 
-		// get target taxon 
-		addNextPairs("tgt taxon", tgtTaxonDBs, tgtTaxonIDs, line);
-
-		// column 11 
-		// get any interaction types 
-		addNextPairs("interaction", interactionTypeDBs, interactionTypes, line);
-
-		// column 12 
-		// get any source databases 
-		addNextPairs("source", sourceDBs,sourceIDs,line);
-
-		// column 13 
-		// get interaction ID 
-		addNextPairs("interaction IDs", interactionDBs, interactionIDs, line );
-
-		// column 14 
-		// get edge scores 
-		addNextPairs("edge scores", edgeScoreTypes, edgeScoreStrings, line);
+	/**
+	 * @return the whole values of a selected MITAB 2.6/2.7 column, such as
+	 *         psi-mi:"MI:0499"(unspecified role), or an empty list if the
+	 *         column was not selected or the line does not have it.  Only
+	 *         valid after {@link #decode()}.
+	 */
+	List<String> getExtended(final int column) {
+		if (columnCount <= COLUMN_COUNT || column < COLUMN_COUNT || column >= EXTENDED_COLUMN_COUNT
+				|| extended[column - COLUMN_COUNT] == null)
+			return Collections.emptyList();
+
+		return extended[column - COLUMN_COUNT];
+	}
+
+	/**
+	 * Splits an extended column at the pipes that are not quoted.
+	 */
+	private void split(final MITABFieldList field, final int column) {
+		final int start = extendedBounds[(column - COLUMN_COUNT) * 2];
+		final int end = extendedBounds[(column - COLUMN_COUNT) * 2 + 1];
+
+		if (start < 0 || field.size() > 0)
+			return;
+
+		boolean quoted = false;
+		int from = start;
+
+		for (int i = start; i <= end; i++) {
+			final char c = i < end ? line.charAt(i) : PIPE;
+
+			if (c == QUOTE) {
+				quoted = !quoted;
+			} else if (c == PIPE && (!quoted || i == end)) {
+				// Skip empty fields and the "-" placeholder
+				if (i > from && !(i == from + 1 && line.charAt(from) == '-'))
+					field.add(from, i);
+
+				from = i + 1;
+			}
+		}
+	}
+
+	/**
+	 * @return the numeric value of edge score i, NaN if it is not a finite
+	 *         number.  Only valid after {@link #decode()}.
+	 */
+	double edgeScore(final int i) {
+		return edgeScores[i];
+	}
+
+	/**
+	 * Parses a confidence value such as 0.56 without creating a String.
+	 * Values with an exponent or many digits go through Double.parseDouble.
+	 *
+	 * @return the value, or NaN if the text is not a finite number.
+	 */
+	static double parseScore(final CharSequence line, final int start, final int end) {
+		int i = start;
+		final boolean negative = i < end && line.charAt(i) == '-';
+
+		if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+'))
+			i++;
+
+		long mantissa = 0;
+		int digits = 0;
+		int fraction = -1;
+
+		for (; i < end; i++) {
+			final char c = line.charAt(i);
+
+			if (c >= '0' && c <= '9') {
+				mantissa = mantissa * 10 + (c - '0');
+				digits++;
+
+				if (fraction >= 0)
+					fraction++;
+			} else if (c == '.' && fraction < 0) {
+				fraction = 0;
+			} else {
+				break;
+			}
+		}
+
+		// Both the digits and the power of ten are exact doubles, so one
+		// division rounds correctly
+		if (i == end && digits > 0 && digits <= 15) {
+			final double value = fraction > 0 ? mantissa / POWERS_OF_TEN[fraction] : mantissa;
+			return negative ? -value : value;
+		}
+
+		if (start == end || (i == end && digits == 0))
+			return Double.NaN;
+
+		final char first = line.charAt(start);
+		if ((first < '0' || first > '9') && first != '.' && first != '-' && first != '+')
+			return Double.NaN;
+
+		try {
+			final double value = Double.parseDouble(line.subSequence(start, end).toString());
+			return Double.isInfinite(value) ? Double.NaN : value;
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * @return the text of the line that was read last.
+	 */
+	public String getLine() {
+		return line.toString();
+	}
+
+	private boolean scan(final CharSequence line) {
+		init(line);
+
+		final int length = line.length();
+		int column = 0;
+		int start = 0;
+		int colon = -1;
+		boolean quoted = false;
+
+		scan:
+		for (int i = 0; i <= length; i++) {
+			final char c = i < length ? line.charAt(i) : TAB;
+
+			if (c == TAB) {
+				addField(column, line, start, colon, i);
+				colon = -1;
+				quoted = false;
+
+				// Jump over the columns that were not selected, and over the
+				// extended ones after noting where they are
+				while (true) {
+					if (++column == lastColumn)
+						break scan;
+
+					start = i + 1;
+
+					if (i >= length || (column < COLUMN_COUNT && (columns & (1 << column)) != 0))
+						break;
+
+					if (column == COLUMN_COUNT)
+						initExtended();
+
+					i = start;
+					while (i < length && line.charAt(i) != TAB)
+						i++;
+
+					if ((columns & (1L << column)) != 0 && column >= COLUMN_COUNT) {
+						extendedBounds[(column - COLUMN_COUNT) * 2] = start;
+						extendedBounds[(column - COLUMN_COUNT) * 2 + 1] = i;
+					}
+				}
+			} else if (c == QUOTE) {
+				quoted = !quoted;
+			} else if (!quoted) {
+				if (c == PIPE) {
+					addField(column, line, start, colon, i);
+					start = i + 1;
+					colon = -1;
+				} else if (c == COLON && colon < 0) {
+					colon = i;
+				}
+			}
+		}
+
+		columnCount = column;
+
+		return column >= 2;
 	}
 
 	// just for debugging
@@ -258,83 +619,143 @@ public class MITABLine25 {
 		System.out.println();
 	}
 
-	private String nextString(final String line) {
-		end = nextIndex(line,begin);
-		if ( (begin > end) || (begin > line.length() - 1))
-			return "";
-
-		String ret = line.substring(begin,end);
-
-		// This is an attempt to handle quoted strings, which may
-		// include our tokenizing characters! Basically, if
-		// we see a quote, make sure we get a close quote too!
-		int openQuote = ret.indexOf(QUOTE);
-		if ( openQuote >= 0 ) {
-			int closeQuote = ret.indexOf(QUOTE,openQuote+1);
-			if ( closeQuote < 0 ) {
-				end = nextIndex(line,end+1);
-				ret = line.substring(begin,end);
-			} 
+	private void addField(final int column, final CharSequence line, final int start, final int colon, final int end) {
+		// Skip empty fields and the "-" placeholder
+		if (end == start || (end == start + 1 && line.charAt(start) == '-'))
+			return;
+
+		// Authors are plain values which may contain colons
+		if (column == 7) {
+			authors.add(start, end);
+			return;
 		}
 
-		begin = end+1;
-		return ret;
+		// Fields without a database get an empty one
+		final int dbEnd = colon < 0 ? start : colon;
+		final int valueStart = colon < 0 ? start : colon + 1;
+
+		switch (column) {
+			case 0:
+				if (sourceRawID.isEmpty())
+					sourceRawID = line.subSequence(valueStart, end).toString();
+				// fall through
+			case 2:
+			case 4:
+				srcDBs.add(start, dbEnd);
+				srcAliases.add(valueStart, end);
+				addAlias(srcAliasNames, srcAliasQualifiers, line, valueStart, end);
+				break;
+			case 1:
+				if (targetRawID.isEmpty())
+					targetRawID = line.subSequence(valueStart, end).toString();
+				// fall through
+			case 3:
+			case 5:
+				tgtDBs.add(start, dbEnd);
+				tgtAliases.add(valueStart, end);
+				addAlias(tgtAliasNames, tgtAliasQualifiers, line, valueStart, end);
+				break;
+			case 6:
+				detectionDBs.add(start, dbEnd);
+				detectionMethods.add(valueStart, end);
+				break;
+			case 8:
+				publicationDBs.add(start, dbEnd);
+				publicationValues.add(valueStart, end);
+				break;
+			case 9:
+				srcTaxonDBs.add(start, dbEnd);
+				srcTaxonIDs.add(valueStart, end);
+				break;
+			case 10:
+				tgtTaxonDBs.add(start, dbEnd);
+				tgtTaxonIDs.add(valueStart, end);
+				break;
+			case 11:
+				interactionTypeDBs.add(start, dbEnd);
+				interactionTypes.add(valueStart, end);
+				break;
+			case 12:
+				sourceDBs.add(start, dbEnd);
+				sourceIDs.add(valueStart, end);
+				break;
+			case 13:
+				interactionDBs.add(start, dbEnd);
+				interactionIDs.add(valueStart, end);
+				break;
+			case 14:
+				edgeScoreTypes.add(start, dbEnd);
+				edgeScoreStrings.add(valueStart, end);
+				break;
+		}
 	}
 
-	private void addNextValues(String desc,List<String> values, String line) {
-		do { 
-			authors.add(nextString(line));
-		} while ( end != tab );
+	/**
+	 * Splits an alias such as "TP53(gene name)" at its first parenthesis.  An
+	 * alias that starts with a parenthesis has no qualifier.
+	 */
+	private static void addAlias(final MITABFieldList names, final MITABFieldList qualifiers, final CharSequence line,
+			final int start, final int end) {
+		int paren = start + 1;
+		while (paren < end && line.charAt(paren) != '(')
+			paren++;
+
+		if (paren >= end) {
+			names.add(start, end);
+			qualifiers.add(end, end);
+			return;
+		}
+
+		final int close = line.charAt(end - 1) == ')' ? end - 1 : end;
+		names.add(start, paren);
+		qualifiers.add(paren + 1, Math.max(paren + 1, close));
 	}
 
-	private void addNextPairs(String desc, List<String> dbs, List<String> values, String line) {
-		// Test 
-		do {
-			String db = nextString(line);
-			//System.out.println("      next db string: '" + db + "'");
+	/**
+	 * ASCII view of a line of UTF-8 bytes.  Sub-sequences are decoded.
+	 */
+	private static final class ByteSequence implements CharSequence {
 
-			// make sure the first column is valid before continuing
-			if ( db.equals("") || db.equals("-") ) {
-				//System.out.println("      got invalid col: " + db);
-				return;
-			}
-			dbs.add(db);
+		private ByteBuffer buffer;
+		private int offset;
+		private int length;
+		private byte[] scratch;
 
-			String val = nextString(line);
-			//System.out.println("      next val string: '" + val + "'");
-			values.add(val);
-		} while ( end != tab );
-	}
-
-	private int nextIndex(String s, int start) {
-		colon = s.indexOf(COLON, start);
-		if ( colon < 0 ) colon = s.length() - 1;
+		void reset(final ByteBuffer buffer, final int start, final int end) {
+			this.buffer = buffer;
+			this.offset = start;
+			this.length = end - start;
+		}
 
-		pipe = s.indexOf(PIPE, start);
-		if ( pipe < 0 ) pipe = s.length() - 1;
+		@Override
+		public int length() {
+			return length;
+		}
 
-		tab = s.indexOf(TAB, start);
-		if ( tab < 0 ) tab = s.length() - 1;
+		@Override
+		public char charAt(final int index) {
+			return (char) (buffer.get(offset + index) & 0xff);
+		}
 
-		int ind =  Math.min(colon, Math.min(pipe,tab));
+		@Override
+		public CharSequence subSequence(final int start, final int end) {
+			final int len = end - start;
 
-		return ind; 
-	}
+			if (buffer.hasArray())
+				return new String(buffer.array(), buffer.arrayOffset() + offset + start, len, StandardCharsets.UTF_8);
 
-	// just for debugging!
-	private int peekNextIndex(String s, int start) {
-		int x, y, z = 0;
-		x = s.indexOf(COLON, start);
-		if ( x < 0 ) x = s.length() - 1;
+			if (scratch == null || scratch.length < len)
+				scratch = new byte[Math.max(len, 128)];
 
-		y = s.indexOf(PIPE, start);
-		if ( y < 0 ) y = s.length() - 1;
+			for (int i = 0; i < len; i++)
+				scratch[i] = buffer.get(offset + start + i);
 
-		z = s.indexOf(TAB, start);
-		if ( z < 0 ) z = s.length() - 1;
+			return new String(scratch, 0, len, StandardCharsets.UTF_8);
+		}
 
-		int ind =  Math.min(x, Math.min(y,z));
-		return ind; 
+		@Override
+		public String toString() {
+			return subSequence(0, length).toString();
+		}
 	}
 }
-
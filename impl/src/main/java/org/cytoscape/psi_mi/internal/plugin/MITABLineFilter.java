@@ -0,0 +1,361 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which MITAB lines are imported.  The predicates are evaluated by the
+ * parser threads on the offsets of a tokenized line, before its values are
+ * decoded, so a rejected line never allocates Strings and never reaches the
+ * network.  All predicates must hold for a line to be accepted; a predicate
+ * that was not set accepts every line.
+ *
+ * The filter must be configured before the import starts.
+ */
+public final class MITABLineFilter {
+
+	public enum TaxonMode {
+		/** At least one of the interactors has one of the taxa. */
+		EITHER,
+		/** Both interactors have one of the taxa. */
+		BOTH
+	}
+
+	private static final String[] NONE = new String[0];
+
+	private String[] taxonIDs = NONE;
+	private TaxonMode taxonMode = TaxonMode.EITHER;
+	private String[] detectionMethods = NONE;
+	private String[] interactionTypes = NONE;
+	private String[] sourceDatabases = NONE;
+	private double minimumScore = Double.NaN;
+	private boolean excludeSelfInteractions;
+
+	private final LongAdder accepted = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder prefiltered = new LongAdder();
+
+	/**
+	 * @param taxonIDs NCBI taxonomy IDs, such as "9606".
+	 * @param mode whether one or both interactors must have one of them.
+	 */
+	public void setTaxonIDs(final Collection<String> taxonIDs, final TaxonMode mode) {
+		this.taxonIDs = normalize(taxonIDs, false);
+		this.taxonMode = mode;
+	}
+
+	/**
+	 * @param ids PSI-MI IDs of the accepted detection methods, such as "MI:0018".
+	 */
+	public void setDetectionMethods(final Collection<String> ids) {
+		this.detectionMethods = normalize(ids, true);
+	}
+
+	/**
+	 * @param ids PSI-MI IDs of the accepted interaction types, such as "MI:0915".
+	 */
+	public void setInteractionTypes(final Collection<String> ids) {
+		this.interactionTypes = normalize(ids, true);
+	}
+
+	/**
+	 * @param databases PSI-MI IDs or names of the accepted source databases,
+	 *        such as "MI:0469" or "IntAct".  Names are compared ignoring case.
+	 */
+	public void setSourceDatabases(final Collection<String> databases) {
+		this.sourceDatabases = normalize(databases, false);
+	}
+
+	/**
+	 * @param minimumScore lines are only accepted if one of their confidence
+	 *        values is a number of at least this value.  NaN disables the check.
+	 */
+	public void setMinimumScore(final double minimumScore) {
+		this.minimumScore = minimumScore;
+	}
+
+	public void setExcludeSelfInteractions(final boolean excludeSelfInteractions) {
+		this.excludeSelfInteractions = excludeSelfInteractions;
+	}
+
+	/**
+	 * @return true if no predicate was set.
+	 */
+	public boolean isEmpty() {
+		return taxonIDs.length == 0 && detectionMethods.length == 0 && interactionTypes.length == 0
+				&& sourceDatabases.length == 0 && Double.isNaN(minimumScore) && !excludeSelfInteractions;
+	}
+
+	/**
+	 * @return the columns that have to be tokenized to evaluate the predicates.
+	 */
+	Set<MITABColumn> getColumns() {
+		final Set<MITABColumn> columns = EnumSet.noneOf(MITABColumn.class);
+
+		if (taxonIDs.length > 0)
+			columns.add(MITABColumn.TAXONOMY);
+		if (detectionMethods.length > 0)
+			columns.add(MITABColumn.DETECTION_METHOD);
+		if (interactionTypes.length > 0)
+			columns.add(MITABColumn.INTERACTION_TYPE);
+		if (sourceDatabases.length > 0)
+			columns.add(MITABColumn.SOURCE_DB);
+		if (!Double.isNaN(minimumScore))
+			columns.add(MITABColumn.CONFIDENCE);
+
+		return columns;
+	}
+
+	/**
+	 * Evaluates the predicates on a line that was read but not decoded yet,
+	 * and counts the result.  May be called by several threads at once.
+	 */
+	boolean accept(final MITABLine25 mline) {
+		final boolean result = test(mline);
+
+		if (result)
+			accepted.increment();
+		else
+			rejected.increment();
+
+		return result;
+	}
+
+	private boolean test(final MITABLine25 mline) {
+		if (excludeSelfInteractions && mline.sourceRawID.equals(mline.targetRawID))
+			return false;
+
+		if (taxonIDs.length > 0) {
+			final boolean source = matchesID(mline.srcTaxonIDs, taxonIDs);
+
+			if (taxonMode == TaxonMode.BOTH) {
+				if (!source || !matchesID(mline.tgtTaxonIDs, taxonIDs))
+					return false;
+			} else if (!source && !matchesID(mline.tgtTaxonIDs, taxonIDs)) {
+				return false;
+			}
+		}
+
+		if (detectionMethods.length > 0 && !matchesID(mline.detectionMethods, detectionMethods))
+			return false;
+		if (interactionTypes.length > 0 && !matchesID(mline.interactionTypes, interactionTypes))
+			return false;
+		if (sourceDatabases.length > 0 && !matchesIDOrName(mline.sourceIDs, sourceDatabases))
+			return false;
+		if (!Double.isNaN(minimumScore) && !hasScore(mline.edgeScoreStrings, minimumScore))
+			return false;
+
+		return true;
+	}
+
+	/**
+	 * Counts a line that {@link MITABPrefilter} rejected before it was tokenized.
+	 */
+	void prefilterRejected() {
+		rejected.increment();
+		prefiltered.increment();
+	}
+
+	public long getAccepted() {
+		return accepted.sum();
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	/**
+	 * @return how many of the rejected lines were never tokenized.
+	 */
+	public long getPrefiltered() {
+		return prefiltered.sum();
+	}
+
+	String[] getTaxonIDs() {
+		return taxonIDs;
+	}
+
+	TaxonMode getTaxonMode() {
+		return taxonMode;
+	}
+
+	String[] getDetectionMethods() {
+		return detectionMethods;
+	}
+
+	String[] getInteractionTypes() {
+		return interactionTypes;
+	}
+
+	String[] getSourceDatabases() {
+		return sourceDatabases;
+	}
+
+	@Override
+	public String toString() {
+		return "accepted " + getAccepted() + " lines, rejected " + getRejected() + " (" + getPrefiltered()
+				+ " of them before tokenizing)";
+	}
+
+	/**
+	 * Values look like <code>"MI:0018"(two hybrid)</code> or <code>9606(human)</code>:
+	 * the ID is either quoted or runs up to the opening parenthesis.
+	 */
+	private static boolean matchesID(final MITABFieldList values, final String[] ids) {
+		final CharSequence line = values.line();
+
+		for (int i = 0; i < values.size(); i++) {
+			final int start = values.start(i);
+			final int end = values.end(i);
+			final boolean quoted = start < end && line.charAt(start) == '"';
+			final int idStart = quoted ? start + 1 : start;
+			final int idEnd = idEnd(line, idStart, end, quoted);
+
+			for (String id : ids) {
+				if (regionMatches(line, idStart, idEnd, id, false))
+					return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean matchesIDOrName(final MITABFieldList values, final String[] terms) {
+		if (matchesID(values, terms))
+			return true;
+
+		final CharSequence line = values.line();
+
+		for (int i = 0; i < values.size(); i++) {
+			final int end = values.end(i);
+			final int open = indexOf(line, '(', values.start(i), end);
+
+			if (open < 0)
+				continue;
+
+			final int close = indexOf(line, ')', open + 1, end);
+
+			if (close < 0)
+				continue;
+
+			for (String term : terms) {
+				if (regionMatches(line, open + 1, close, term, true))
+					return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean hasScore(final MITABFieldList values, final double minimum) {
+		final CharSequence line = values.line();
+
+		for (int i = 0; i < values.size(); i++) {
+			// NaN, for values that are not numbers, is never at least the minimum
+			if (MITABLine25.parseScore(line, values.start(i), values.end(i)) >= minimum)
+				return true;
+		}
+
+		return false;
+	}
+
+	private static int idEnd(final CharSequence line, final int idStart, final int end, final boolean quoted) {
+		if (quoted) {
+			final int quote = indexOf(line, '"', idStart, end);
+			return quote < 0 ? end : quote;
+		}
+
+		final int paren = indexOf(line, '(', idStart, end);
+		return paren < 0 ? end : paren;
+	}
+
+	private static int indexOf(final CharSequence line, final char c, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			if (line.charAt(i) == c)
+				return i;
+		}
+
+		return -1;
+	}
+
+	private static boolean regionMatches(final CharSequence line, final int start, final int end, final String term,
+			final boolean ignoreCase) {
+		if (end - start != term.length())
+			return false;
+
+		for (int i = 0; i < term.length(); i++) {
+			final char a = line.charAt(start + i);
+			final char b = term.charAt(i);
+
+			if (a != b && (!ignoreCase || Character.toLowerCase(a) != Character.toLowerCase(b)))
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Trims the terms and drops empty ones; bare numbers become PSI-MI IDs,
+	 * padded to four digits, when miIDs is set.
+	 */
+	private static String[] normalize(final Collection<String> terms, final boolean miIDs) {
+		final List<String> result = new ArrayList<String>();
+
+		for (String term : terms) {
+			term = term.trim();
+
+			if (term.length() > 1 && term.startsWith("\"") && term.endsWith("\""))
+				term = term.substring(1, term.length() - 1);
+			if (term.isEmpty())
+				continue;
+			if (miIDs && isNumber(term))
+				term = String.format("MI:%04d", Integer.valueOf(term));
+			else if (miIDs && Character.isDigit(term.charAt(0)))
+				term = "MI:" + term;
+
+			result.add(term);
+		}
+
+		return result.toArray(NONE);
+	}
+
+	private static boolean isNumber(final String term) {
+		if (term.length() > 9)
+			return false;
+
+		for (int i = 0; i < term.length(); i++) {
+			if (!Character.isDigit(term.charAt(i)))
+				return false;
+		}
+
+		return true;
+	}
+}
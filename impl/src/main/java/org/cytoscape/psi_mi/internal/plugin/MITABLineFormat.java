@@ -0,0 +1,116 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * How the lines of one import are tokenized: which columns are read, which
+ * dictionary the vocabulary values are shared through, which lines are
+ * kept at all and where the lines that can not be parsed are counted.
+ */
+final class MITABLineFormat {
+
+	private final MITABTermDictionary dictionary;
+	private final long columns;
+	private final long written;
+	private final MITABLineFilter filter;
+	private final MITABPrefilter prefilter;
+	private final MITABQuarantine quarantine;
+
+	/**
+	 * @param dictionary may be null.
+	 * @param columns bit set of the MITAB column indices to read.
+	 */
+	MITABLineFormat(final MITABTermDictionary dictionary, final long columns) {
+		this(dictionary, columns, null);
+	}
+
+	/**
+	 * @param filter may be null.  The columns it needs have to be part of columns.
+	 */
+	MITABLineFormat(final MITABTermDictionary dictionary, final long columns, final MITABLineFilter filter) {
+		this(dictionary, columns, filter, null);
+	}
+
+	/**
+	 * @param quarantine counts the lines that can not be parsed, may be null
+	 *        to log every such line instead.
+	 */
+	MITABLineFormat(final MITABTermDictionary dictionary, final long columns, final MITABLineFilter filter,
+			final MITABQuarantine quarantine) {
+		this(dictionary, columns, columns, filter, quarantine);
+	}
+
+	/**
+	 * @param written bit set of the column indices that are imported, whose
+	 *        values are decoded while parsing.  The other columns, such as
+	 *        the ones only read for the filter, are not decoded.
+	 */
+	MITABLineFormat(final MITABTermDictionary dictionary, final long columns, final long written,
+			final MITABLineFilter filter, final MITABQuarantine quarantine) {
+		this.dictionary = dictionary;
+		this.columns = columns;
+		this.written = written;
+		this.filter = filter;
+		this.prefilter = filter == null ? null : MITABPrefilter.create(filter);
+		this.quarantine = quarantine;
+	}
+
+	long getWritten() {
+		return written;
+	}
+
+	MITABQuarantine getQuarantine() {
+		return quarantine;
+	}
+
+	/**
+	 * @return a line to read the lines of this format into, one line after
+	 *         the other.  It has to be used on the thread that created it.
+	 */
+	MITABLine25 newLine() {
+		return new MITABLine25(dictionary, columns);
+	}
+
+	/**
+	 * @return false if the raw line can not pass the filter.  Lines that pass
+	 *         still have to be read and checked by {@link #accept(MITABLine25)}.
+	 */
+	boolean accept(final ByteBuffer buffer, final int start, final int end) {
+		if (prefilter == null || prefilter.accept(buffer, start, end))
+			return true;
+
+		filter.prefilterRejected();
+		return false;
+	}
+
+	/**
+	 * @return false if the line, read but not decoded yet, is filtered out.
+	 */
+	boolean accept(final MITABLine25 mline) {
+		return filter == null || filter.accept(mline);
+	}
+}
@@ -0,0 +1,138 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.RecursiveTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tokenizes a byte range of whole lines into a {@link MITABParsedBatch},
+ * reading every line of a leaf task into the same {@link MITABLine25}.
+ * Large ranges are split in two at a line boundary and parsed in
+ * parallel; the result always keeps the order of the lines in the file.
+ * Lines that can not be parsed are counted by the quarantine of the format.
+ */
+final class MITABParseTask extends RecursiveTask<MITABParsedBatch> {
+
+	private static final long serialVersionUID = 4412373045128856447L;
+
+	private static final Logger logger = LoggerFactory.getLogger(MITABParseTask.class);
+
+	private static final int LEAF_SIZE = 64 * 1024;
+
+	private final ByteBuffer chunk;
+	private final int start;
+	private final int end;
+	private final int leafSize;
+	private final MITABPipelineStats stats;
+	private final MITABLineFormat format;
+
+	MITABParseTask(final ByteBuffer chunk, final int start, final int end, final MITABPipelineStats stats,
+			final MITABLineFormat format) {
+		this(chunk, start, end, LEAF_SIZE, stats, format);
+	}
+
+	/**
+	 * @param stats receives the parse time, may be null.
+	 */
+	MITABParseTask(final ByteBuffer chunk, final int start, final int end, final int leafSize,
+			final MITABPipelineStats stats, final MITABLineFormat format) {
+		this.chunk = chunk;
+		this.start = start;
+		this.end = end;
+		this.leafSize = leafSize;
+		this.stats = stats;
+		this.format = format;
+	}
+
+	@Override
+	protected MITABParsedBatch compute() {
+		if (end - start > leafSize) {
+			int middle = start + (end - start) / 2;
+			while (middle < end && chunk.get(middle - 1) != '\n')
+				middle++;
+
+			if (middle < end) {
+				final MITABParseTask left = new MITABParseTask(chunk, start, middle, leafSize, stats, format);
+				left.fork();
+				final MITABParsedBatch right = new MITABParseTask(chunk, middle, end, leafSize, stats, format).compute();
+				final MITABParsedBatch batch = left.join();
+				batch.append(right);
+
+				return batch;
+			}
+		}
+
+		final long startTime = System.nanoTime();
+		final MITABParsedBatch batch = new MITABParsedBatch(chunk);
+		final MITABChunkLines chunkLines = new MITABChunkLines(chunk, start, end);
+		final MITABLine25 mline = format.newLine();
+
+		while (chunkLines.next()) {
+			if (!format.accept(chunk, chunkLines.start, chunkLines.end))
+				continue;
+
+			try {
+				if (!mline.read(chunk, chunkLines.start, chunkLines.end)) {
+					reject(batch, chunkLines.index, MITABQuarantine.Category.TOO_FEW_COLUMNS, mline, null);
+					continue;
+				}
+				if (!format.accept(mline))
+					continue;
+
+				mline.decode(format.getWritten());
+				mline.lineIndex = chunkLines.index;
+				mline.copyTo(batch);
+			} catch (Exception ex) {
+				reject(batch, chunkLines.index, MITABQuarantine.Category.MALFORMED, mline, ex);
+			}
+		}
+
+		batch.lineCount = chunkLines.getLineCount();
+
+		if (stats != null)
+			stats.parsed(System.nanoTime() - startTime);
+
+		return batch;
+	}
+
+	/**
+	 * Counts a line that can not be parsed.  Its text is only kept while the
+	 * quarantine still needs it.
+	 */
+	private void reject(final MITABParsedBatch batch, final int index, final MITABQuarantine.Category category,
+			final MITABLine25 mline, final Exception ex) {
+		final MITABQuarantine quarantine = format.getQuarantine();
+
+		if (quarantine == null)
+			logger.warn("Could not parse this line: " + mline.getLine(), ex);
+		else if (quarantine.count(category))
+			batch.reject(new MITABQuarantine.Reject(category, index, mline.getLine(), ex == null ? null : ex.toString()));
+	}
+}
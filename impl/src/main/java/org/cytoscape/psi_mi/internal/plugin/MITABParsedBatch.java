@@ -0,0 +1,191 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The lines of a batch that were parsed and kept, in file order, with what is
+ * needed to give them line numbers: the batch knows how many lines of the
+ * input it covers, and every kept or rejected line its index in the batch.
+ * <p>
+ * A kept line is not stored as a {@link MITABLine25}, but as the offsets of
+ * its values in the chunk and the values that were decoded while parsing,
+ * so that a single line object can be reused for all lines: see
+ * {@link MITABLine25#copyTo(MITABParsedBatch)} and
+ * {@link MITABLine25#load(MITABParsedBatch, int)}.
+ */
+final class MITABParsedBatch {
+
+	/** Ints at the start of each line record: index, start, end, columns, first value, first score. */
+	static final int HEADER = 6;
+
+	/** The buffer the lines were read from. */
+	final ByteBuffer chunk;
+	/** Rejected lines whose text was kept, in file order; null if there are none. */
+	List<MITABQuarantine.Reject> rejects;
+	/** Lines of the input in the batch, including comments and rejected lines. */
+	int lineCount;
+
+	/** Where the record of each kept line starts in data. */
+	private int[] records = new int[64];
+	private int size;
+
+	/** The line records: a header, then per field its value count and the offsets of its values. */
+	int[] data = new int[4096];
+	int dataLength;
+	/** One entry per value offset pair in data, null for a value not decoded yet. */
+	String[] values = new String[1024];
+	int valueCount;
+	double[] scores = new double[64];
+	int scoreCount;
+
+	MITABParsedBatch(final ByteBuffer chunk) {
+		this.chunk = chunk;
+	}
+
+	/**
+	 * @return the number of lines that were kept.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return the index of kept line i in the batch, counting every line of the input.
+	 */
+	int lineIndex(final int i) {
+		return data[records[i]];
+	}
+
+	/**
+	 * @return the position of the record of kept line i in data.
+	 */
+	int record(final int i) {
+		return records[i];
+	}
+
+	/**
+	 * Starts the record of a kept line.
+	 */
+	void addLine(final int lineIndex, final int start, final int end, final int columnCount,
+			final String sourceRawID, final String targetRawID) {
+		if (size == records.length)
+			records = Arrays.copyOf(records, size * 2);
+		records[size++] = dataLength;
+
+		ensureData(HEADER);
+		data[dataLength++] = lineIndex;
+		data[dataLength++] = start;
+		data[dataLength++] = end;
+		data[dataLength++] = columnCount;
+		data[dataLength++] = valueCount;
+		data[dataLength++] = scoreCount;
+
+		ensureValues(2);
+		values[valueCount++] = sourceRawID;
+		values[valueCount++] = targetRawID;
+	}
+
+	/**
+	 * Adds the next field of the current line record.
+	 */
+	void addField(final int count, final int[] bounds, final String[] decoded) {
+		ensureData(1 + count * 2);
+		data[dataLength++] = count;
+		System.arraycopy(bounds, 0, data, dataLength, count * 2);
+		dataLength += count * 2;
+
+		ensureValues(count);
+		System.arraycopy(decoded, 0, values, valueCount, count);
+		valueCount += count;
+	}
+
+	/**
+	 * Adds the numeric edge scores of the current line record.
+	 */
+	void addScores(final double[] lineScores, final int count) {
+		if (scoreCount + count > scores.length)
+			scores = Arrays.copyOf(scores, Math.max(scoreCount + count, scores.length * 2));
+
+		System.arraycopy(lineScores, 0, scores, scoreCount, count);
+		scoreCount += count;
+	}
+
+	void reject(final MITABQuarantine.Reject reject) {
+		if (rejects == null)
+			rejects = new ArrayList<MITABQuarantine.Reject>();
+
+		rejects.add(reject);
+	}
+
+	/**
+	 * Appends the batch that follows this one in the same chunk.
+	 */
+	void append(final MITABParsedBatch next) {
+		if (size + next.size > records.length)
+			records = Arrays.copyOf(records, Math.max(size + next.size, records.length * 2));
+
+		for (int i = 0; i < next.size; i++) {
+			final int at = next.records[i];
+			next.data[at] += lineCount;
+			next.data[at + 4] += valueCount;
+			next.data[at + 5] += scoreCount;
+			records[size++] = dataLength + at;
+		}
+
+		ensureData(next.dataLength);
+		System.arraycopy(next.data, 0, data, dataLength, next.dataLength);
+		dataLength += next.dataLength;
+
+		ensureValues(next.valueCount);
+		System.arraycopy(next.values, 0, values, valueCount, next.valueCount);
+		valueCount += next.valueCount;
+
+		addScores(next.scores, next.scoreCount);
+
+		if (next.rejects != null) {
+			for (MITABQuarantine.Reject reject : next.rejects) {
+				reject.lineNumber += lineCount;
+				reject(reject);
+			}
+		}
+
+		lineCount += next.lineCount;
+	}
+
+	private void ensureData(final int count) {
+		if (dataLength + count > data.length)
+			data = Arrays.copyOf(data, Math.max(dataLength + count, data.length * 2));
+	}
+
+	private void ensureValues(final int count) {
+		if (valueCount + count > values.length)
+			values = Arrays.copyOf(values, Math.max(valueCount + count, values.length * 2));
+	}
+}
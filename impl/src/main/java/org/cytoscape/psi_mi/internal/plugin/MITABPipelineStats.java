@@ -0,0 +1,162 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings and queue depths of the stages of a MITAB import.  The read stage
+ * does the I/O and cuts the input into batches of lines, the parse stage
+ * tokenizes and decodes them and the apply stage writes them to the network.
+ * All times are in nanoseconds; the parse time is summed over all parse threads.
+ */
+public final class MITABPipelineStats {
+
+	private final int parseThreads;
+	private final int capacity;
+
+	private volatile long batches;
+	private volatile long readNanos;
+	private volatile long readBlockedNanos;
+	private final LongAdder parseNanos = new LongAdder();
+	private volatile long applyNanos;
+	private volatile long applyWaitNanos;
+
+	private volatile int parseQueueDepth;
+	private volatile int maxParseQueueDepth;
+	private volatile int applyQueueDepth;
+	private volatile int maxApplyQueueDepth;
+
+	MITABPipelineStats(final int parseThreads, final int capacity) {
+		this.parseThreads = parseThreads;
+		this.capacity = capacity;
+	}
+
+	void batchRead(final long nanos, final long blockedNanos, final int parseQueueDepth) {
+		batches++;
+		readNanos += nanos;
+		readBlockedNanos += blockedNanos;
+		this.parseQueueDepth = parseQueueDepth;
+		maxParseQueueDepth = Math.max(maxParseQueueDepth, parseQueueDepth);
+	}
+
+	void parsed(final long nanos) {
+		parseNanos.add(nanos);
+	}
+
+	void batchTaken(final long waitNanos, final int applyQueueDepth) {
+		applyWaitNanos += waitNanos;
+		this.applyQueueDepth = applyQueueDepth;
+		maxApplyQueueDepth = Math.max(maxApplyQueueDepth, applyQueueDepth);
+	}
+
+	void applied(final long nanos) {
+		applyNanos += nanos;
+	}
+
+	public int getParseThreads() {
+		return parseThreads;
+	}
+
+	/**
+	 * @return the maximum number of batches that are read but not yet applied.
+	 */
+	public int getQueueCapacity() {
+		return capacity;
+	}
+
+	public long getBatches() {
+		return batches;
+	}
+
+	/**
+	 * @return time spent reading and cutting the input, without the time the
+	 *         reader was blocked because the queue was full.
+	 */
+	public long getReadNanos() {
+		return readNanos;
+	}
+
+	/**
+	 * @return time the reader was blocked on a full queue.  Close to the total
+	 *         import time when a later stage is the bottleneck.
+	 */
+	public long getReadBlockedNanos() {
+		return readBlockedNanos;
+	}
+
+	public long getParseNanos() {
+		return parseNanos.sum();
+	}
+
+	public long getApplyNanos() {
+		return applyNanos;
+	}
+
+	/**
+	 * @return time the apply stage waited for the next batch.  Large when
+	 *         reading or parsing is the bottleneck.
+	 */
+	public long getApplyWaitNanos() {
+		return applyWaitNanos;
+	}
+
+	/**
+	 * @return batches submitted to the parse threads but not picked up yet,
+	 *         as seen when the last batch was read.
+	 */
+	public int getParseQueueDepth() {
+		return parseQueueDepth;
+	}
+
+	public int getMaxParseQueueDepth() {
+		return maxParseQueueDepth;
+	}
+
+	/**
+	 * @return batches that were parsed but not yet applied, as seen when the
+	 *         last batch was taken by the apply stage.
+	 */
+	public int getApplyQueueDepth() {
+		return applyQueueDepth;
+	}
+
+	public int getMaxApplyQueueDepth() {
+		return maxApplyQueueDepth;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d batches; read %.2f s (blocked %.2f s), parse %.2f s on %d thread(s), " +
+				"apply %.2f s (waiting %.2f s); max queued for parse %d, max parsed waiting %d of %d",
+				batches, seconds(readNanos), seconds(readBlockedNanos), seconds(getParseNanos()), parseThreads,
+				seconds(applyNanos), seconds(applyWaitNanos), maxParseQueueDepth, maxApplyQueueDepth, capacity);
+	}
+
+	private static double seconds(final long nanos) {
+		return nanos / 1e9;
+	}
+}
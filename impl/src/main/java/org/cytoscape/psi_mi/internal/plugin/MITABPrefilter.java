@@ -0,0 +1,318 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Rejects raw MITAB lines that cannot pass a {@link MITABLineFilter}, before
+ * they are tokenized.  Every predicate of the filter that matches on a term
+ * becomes a group of byte patterns, at least one of which must occur in the
+ * columns the predicate looks at: "9606" in a taxon column, "MI:0018" in the
+ * detection method column, the ID or name of a database in the source column.
+ *
+ * The TABs that separate the columns are found eight bytes at a time; only
+ * the bytes of the columns that have patterns are fed to an Aho-Corasick
+ * automaton, which finds all patterns in one pass and ignores ASCII case.
+ * Finding the patterns is necessary but not sufficient, so the lines that
+ * get through still have to be checked by the filter itself.
+ */
+final class MITABPrefilter {
+
+	private static final long ONES = 0x0101010101010101L;
+	private static final long HIGH_BITS = 0x8080808080808080L;
+	private static final long TABS = ONES * '\t';
+
+	private final int classes;
+	private final byte[] byteClass = new byte[256];
+	/** Next state by state and byte class. */
+	private final int[] transitions;
+	/** Groups completed by reaching a state. */
+	private final int[] output;
+	/** Groups to look for by column index. */
+	private final int[] columnGroups;
+	private final int required;
+
+	/**
+	 * @param groups the patterns of each group.  A line is accepted if it
+	 *        contains at least one pattern of every group.  At most 31 groups.
+	 * @param groupColumns bit set of the column indices each group is looked
+	 *        for in.
+	 */
+	MITABPrefilter(final List<List<String>> groups, final int[] groupColumns) {
+		if (groups.isEmpty() || groups.size() > 31 || groupColumns.length != groups.size())
+			throw new IllegalArgumentException("Need between 1 and 31 pattern groups with their columns: " + groups.size());
+
+		// Bytes that occur in no pattern share class 0.
+		int classCount = 1;
+		for (List<String> group : groups) {
+			for (String pattern : group) {
+				for (byte b : fold(pattern)) {
+					if (byteClass[b & 0xff] == 0)
+						byteClass[b & 0xff] = (byte) classCount++;
+				}
+			}
+		}
+
+		if (classCount > 127)
+			throw new IllegalArgumentException("Too many distinct pattern bytes: " + classCount);
+
+		for (int c = 'A'; c <= 'Z'; c++)
+			byteClass[c] = byteClass[c + ('a' - 'A')];
+
+		this.classes = classCount;
+
+		// Trie of all patterns
+		final List<int[]> trie = new ArrayList<int[]>();
+		final List<Integer> groupsOf = new ArrayList<Integer>();
+		trie.add(newRow());
+		groupsOf.add(0);
+
+		int required = 0;
+		int lastColumn = 0;
+		for (int g = 0; g < groups.size(); g++) {
+			required |= 1 << g;
+			lastColumn = Math.max(lastColumn, 31 - Integer.numberOfLeadingZeros(groupColumns[g]));
+
+			for (String pattern : groups.get(g)) {
+				final byte[] bytes = fold(pattern);
+				if (bytes.length == 0)
+					throw new IllegalArgumentException("Empty pattern in group " + g);
+
+				int state = 0;
+				for (byte b : bytes) {
+					final int c = byteClass[b & 0xff];
+					if (trie.get(state)[c] == 0) {
+						trie.get(state)[c] = trie.size();
+						trie.add(newRow());
+						groupsOf.add(0);
+					}
+					state = trie.get(state)[c];
+				}
+
+				groupsOf.set(state, groupsOf.get(state) | (1 << g));
+			}
+		}
+
+		this.required = required;
+		this.columnGroups = new int[lastColumn + 1];
+
+		for (int g = 0; g < groups.size(); g++) {
+			for (int column = 0; column <= lastColumn; column++) {
+				if ((groupColumns[g] & (1 << column)) != 0)
+					columnGroups[column] |= 1 << g;
+			}
+		}
+
+		// Breadth first, turn the trie into a complete automaton
+		final int states = trie.size();
+		transitions = new int[states * classes];
+		output = new int[states];
+		final int[] fail = new int[states];
+		final ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+
+		for (int c = 0; c < classes; c++) {
+			final int next = trie.get(0)[c];
+			transitions[c] = next;
+			if (next != 0)
+				queue.add(next);
+		}
+
+		for (int s = 0; s < states; s++)
+			output[s] = groupsOf.get(s);
+
+		while (!queue.isEmpty()) {
+			final int state = queue.poll();
+			output[state] |= output[fail[state]];
+
+			for (int c = 0; c < classes; c++) {
+				final int next = trie.get(state)[c];
+
+				if (next != 0) {
+					fail[next] = transitions[fail[state] * classes + c];
+					transitions[state * classes + c] = next;
+					queue.add(next);
+				} else {
+					transitions[state * classes + c] = transitions[fail[state] * classes + c];
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return a prefilter for the term predicates of the filter, or null if
+	 *         it has none.
+	 */
+	static MITABPrefilter create(final MITABLineFilter filter) {
+		final List<List<String>> groups = new ArrayList<List<String>>();
+		final List<Integer> columns = new ArrayList<Integer>();
+
+		if (filter.getTaxonIDs().length > 0) {
+			final List<String> taxa = Arrays.asList(filter.getTaxonIDs());
+
+			if (filter.getTaxonMode() == MITABLineFilter.TaxonMode.BOTH) {
+				groups.add(taxa);
+				columns.add(1 << 9);
+				groups.add(taxa);
+				columns.add(1 << 10);
+			} else {
+				groups.add(taxa);
+				columns.add(1 << 9 | 1 << 10);
+			}
+		}
+
+		if (filter.getDetectionMethods().length > 0) {
+			groups.add(Arrays.asList(filter.getDetectionMethods()));
+			columns.add(1 << 6);
+		}
+
+		if (filter.getInteractionTypes().length > 0) {
+			groups.add(Arrays.asList(filter.getInteractionTypes()));
+			columns.add(1 << 11);
+		}
+
+		if (filter.getSourceDatabases().length > 0) {
+			groups.add(Arrays.asList(filter.getSourceDatabases()));
+			columns.add(1 << 12);
+		}
+
+		if (groups.isEmpty())
+			return null;
+
+		for (List<String> group : groups) {
+			for (String pattern : group) {
+				// Only ASCII patterns can be matched byte by byte
+				if (fold(pattern).length != pattern.length())
+					return null;
+			}
+		}
+
+		final int[] groupColumns = new int[columns.size()];
+		for (int g = 0; g < groupColumns.length; g++)
+			groupColumns[g] = columns.get(g);
+
+		return new MITABPrefilter(groups, groupColumns);
+	}
+
+	/**
+	 * @return false if the line between start and end can not pass the filter.
+	 */
+	boolean accept(final ByteBuffer buffer, final int start, final int end) {
+		final int lastColumn = columnGroups.length - 1;
+		int found = 0;
+		int from = start;
+
+		for (int column = 0; column <= lastColumn; column++) {
+			final int tab = nextTab(buffer, from, end);
+			final int groups = columnGroups[column];
+
+			if (groups != 0) {
+				found |= find(buffer, from, tab, groups);
+
+				if (found == required)
+					return true;
+			}
+
+			if (tab == end)
+				break;
+
+			from = tab + 1;
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return the groups of the given ones that have a pattern between from and to.
+	 */
+	private int find(final ByteBuffer buffer, final int from, final int to, final int groups) {
+		final int[] transitions = this.transitions;
+		final int[] output = this.output;
+		final byte[] byteClass = this.byteClass;
+		final int classes = this.classes;
+		int state = 0;
+		int found = 0;
+
+		for (int i = from; i < to; i++) {
+			state = transitions[state * classes + byteClass[buffer.get(i) & 0xff]];
+			found |= output[state] & groups;
+
+			if (found == groups)
+				break;
+		}
+
+		return found;
+	}
+
+	/**
+	 * @return the index of the first TAB between from and end, or end.
+	 */
+	private static int nextTab(final ByteBuffer buffer, final int from, final int end) {
+		int i = from;
+
+		// The buffers are big-endian; swapped, the lowest flagged byte is the
+		// first TAB.  The flags of the bytes after it may be wrong, which does
+		// not matter.
+		for (; i + 8 <= end; i += 8) {
+			final long word = Long.reverseBytes(buffer.getLong(i)) ^ TABS;
+			final long tabs = (word - ONES) & ~word & HIGH_BITS;
+
+			if (tabs != 0)
+				return i + (Long.numberOfTrailingZeros(tabs) >>> 3);
+		}
+
+		for (; i < end; i++) {
+			if (buffer.get(i) == '\t')
+				return i;
+		}
+
+		return end;
+	}
+
+	int stateCount() {
+		return output.length;
+	}
+
+	private int[] newRow() {
+		return new int[classes];
+	}
+
+	private static byte[] fold(final String pattern) {
+		final byte[] bytes = pattern.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+
+		for (byte b : bytes) {
+			if (b < 0)
+				return new byte[0];
+		}
+
+		return bytes;
+	}
+}
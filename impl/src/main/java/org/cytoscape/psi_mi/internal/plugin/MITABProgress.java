@@ -0,0 +1,223 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.cytoscape.work.TaskMonitor;
+
+/**
+ * Reports how far a MITAB import has got: the share of the input bytes
+ * consumed so far, when the size of the input is known, and the line and
+ * byte throughput.  The bytes are counted before decompression, so the
+ * progress of a compressed file is exact as well.
+ *
+ * {@link #isDue} is cheap enough to be called for every line and lets a
+ * report through every {@link #UPDATE_INTERVAL} nanoseconds.
+ *
+ * One progress may count several inputs that are read one after another,
+ * such as the files of an archive: the line counts passed in start again at
+ * 0 for each input, after {@link #endInput}.
+ */
+final class MITABProgress {
+
+	static final long UPDATE_INTERVAL = TimeUnit.MILLISECONDS.toNanos(500);
+
+	/** Lines between two looks at the clock. */
+	private static final int CHECK_INTERVAL = 256;
+	private static final double MB = 1024 * 1024;
+
+	private final FileChannel channel;
+	private final MITABCountingInputStream stream;
+	private final long size;
+	private final long startOffset;
+
+	private long startTime;
+	private long lastUpdate;
+	private long lastCheck;
+	/** Lines and interactions of the inputs before the current one, for a progress over several inputs. */
+	private long previousLines;
+	private long previousInteractions;
+
+	private MITABProgress(final FileChannel channel, final MITABCountingInputStream stream, final long size,
+			final long startOffset) {
+		this.channel = channel;
+		this.stream = stream;
+		this.size = size;
+		this.startOffset = startOffset;
+		start();
+	}
+
+	/**
+	 * Progress of a local file, read through the channel or its stream.
+	 * The channel position must follow what was consumed, as it does for
+	 * sequential reads.
+	 */
+	static MITABProgress of(final FileChannel channel) throws IOException {
+		final long position = channel.position();
+		return new MITABProgress(channel, null, channel.size() - position, position);
+	}
+
+	/**
+	 * @param size the number of bytes the stream will deliver, or -1 if unknown.
+	 */
+	static MITABProgress of(final MITABCountingInputStream stream, final long size) {
+		return new MITABProgress(null, stream, size, 0);
+	}
+
+	/**
+	 * Restarts the clock.
+	 */
+	void start() {
+		startTime = System.nanoTime();
+		lastUpdate = startTime;
+		lastCheck = 0;
+	}
+
+	/**
+	 * @return the total number of input bytes, or -1 if unknown.
+	 */
+	long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return input bytes consumed since the import started.
+	 */
+	long getBytesRead() {
+		if (stream != null)
+			return stream.getCount();
+
+		try {
+			return channel.isOpen() ? channel.position() - startOffset : size;
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * @return the consumed share of the input between 0 and 1, or -1 if the
+	 *         size of the input is not known.
+	 */
+	double getFraction() {
+		if (size < 0)
+			return -1.0;
+		if (size == 0)
+			return 1.0;
+
+		return Math.min(1.0, Math.max(0.0, (double) getBytesRead() / size));
+	}
+
+	/**
+	 * @param lines lines processed so far; the clock is only read every few lines.
+	 * @return true if the last report is long enough ago for the next one.
+	 */
+	boolean isDue(final long lines) {
+		if (previousLines + lines - lastCheck < CHECK_INTERVAL)
+			return false;
+
+		lastCheck = previousLines + lines;
+		final long now = System.nanoTime();
+
+		if (now - lastUpdate < UPDATE_INTERVAL)
+			return false;
+
+		lastUpdate = now;
+		return true;
+	}
+
+	/**
+	 * Sets the progress, if the size of the input is known, and a status
+	 * message with the throughput.
+	 *
+	 * @param lines input lines processed so far.
+	 * @param detail appended to the status message, may be null.
+	 */
+	void report(final TaskMonitor taskMonitor, final long lines, final String detail) {
+		final double fraction = getFraction();
+
+		if (fraction >= 0)
+			taskMonitor.setProgress(fraction);
+
+		taskMonitor.setStatusMessage(status(previousLines + lines, System.nanoTime()) + (detail == null ? "" : "; " + detail));
+	}
+
+	/**
+	 * Ends one of several inputs whose bytes are counted by this progress, so
+	 * that the lines of the next input are counted after its lines.
+	 *
+	 * @param lines lines of the input that ended.
+	 * @param interactions interactions imported from it.
+	 */
+	void endInput(final long lines, final long interactions) {
+		previousLines += lines;
+		previousInteractions += interactions;
+	}
+
+	private String status(final long lines, final long now) {
+		final double seconds = (now - startTime) / 1e9;
+		final long bytes = getBytesRead();
+		final StringBuilder status = new StringBuilder();
+
+		status.append(String.format(Locale.US, "Read %,d lines, %.1f", lines, bytes / MB));
+		if (size >= 0)
+			status.append(String.format(Locale.US, " of %.1f MB (%.0f%%; ", size / MB, 100 * getFraction()));
+		else
+			status.append(" MB (");
+
+		status.append(String.format(Locale.US, "%,.0f lines/s, %.1f MB/s", lines / seconds, bytes / MB / seconds));
+
+		if (size > bytes && bytes > 0)
+			status.append(String.format(Locale.US, ", %s left", duration((long) (seconds * (size - bytes) / bytes))));
+
+		return status.append(')').toString();
+	}
+
+	/**
+	 * @return one line with the totals and rates of the whole import, for the log.
+	 */
+	String summary(final long lines, final long interactions) {
+		final long nanos = System.nanoTime() - startTime;
+		final double seconds = Math.max(nanos, 1) / 1e9;
+		final long bytes = getBytesRead();
+		final long totalLines = previousLines + lines;
+
+		return String.format(Locale.US, "%d lines, %d interactions, %d bytes in %.3f s: %.0f lines/s, %.2f MB/s",
+				totalLines, previousInteractions + interactions, bytes, seconds, totalLines / seconds,
+				bytes / MB / seconds);
+	}
+
+	private static String duration(final long seconds) {
+		if (seconds < 60)
+			return seconds + " s";
+		if (seconds < 3600)
+			return String.format(Locale.US, "%d min %02d s", seconds / 60, seconds % 60);
+
+		return String.format(Locale.US, "%d h %02d min", seconds / 3600, seconds % 3600 / 60);
+	}
+}
@@ -0,0 +1,248 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of the MITAB lines that could not be imported.  Every rejected
+ * line is counted by category; only the first lines are logged, with their
+ * line numbers, and all of them can be copied to a quarantine file.  Once
+ * the sample is complete and no file is written, a rejected line costs a
+ * single counter increment.
+ * <p>
+ * The quarantine file is itself a MITAB file: every rejected line is copied
+ * as it was, after a comment line that gives its line number and the reason.
+ * It is created when the first line is rejected.
+ * <p>
+ * The quarantine must be configured before the import starts.  One instance
+ * may be shared by several imports, which then also share the limit.
+ */
+public final class MITABQuarantine {
+
+	private static final Logger logger = LoggerFactory.getLogger(MITABQuarantine.class);
+
+	public static final int DEFAULT_SAMPLE_SIZE = 10;
+
+	/** Longest part of a line that is logged. */
+	private static final int MAX_LOGGED_LENGTH = 200;
+
+	public enum Category {
+		/** The line does not have both interactor columns. */
+		TOO_FEW_COLUMNS("too few columns"),
+		/** Tokenizing or decoding the line failed. */
+		MALFORMED("malformed"),
+		/** The line was parsed but could not be added to the network. */
+		NOT_IMPORTED("not imported");
+
+		private final String label;
+
+		private Category(final String label) {
+			this.label = label;
+		}
+
+		@Override
+		public String toString() {
+			return label;
+		}
+	}
+
+	/**
+	 * A rejected line whose text is kept for the sample or the file.
+	 */
+	static final class Reject {
+		final Category category;
+		/** Relative to the batch the line was parsed in, until the line is added. */
+		long lineNumber;
+		final String line;
+		final String message;
+
+		Reject(final Category category, final long lineNumber, final String line, final String message) {
+			this.category = category;
+			this.lineNumber = lineNumber;
+			this.line = line;
+			this.message = message;
+		}
+	}
+
+	private int sampleSize = DEFAULT_SAMPLE_SIZE;
+	private File file;
+	private long maxRejected = -1;
+
+	private final LongAdder[] counts = new LongAdder[Category.values().length];
+	/** Whether the text of rejected lines is still needed. */
+	private volatile boolean keepLines = true;
+	private final List<String> sample = new ArrayList<String>();
+	private Writer writer;
+
+	public MITABQuarantine() {
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = new LongAdder();
+	}
+
+	/**
+	 * @param sampleSize how many rejected lines are logged and kept for {@link #getSample()}.
+	 */
+	public void setSampleSize(final int sampleSize) {
+		this.sampleSize = Math.max(0, sampleSize);
+		keepLines = file != null || this.sampleSize > 0;
+	}
+
+	/**
+	 * @param file where all rejected lines are copied to, may be null.
+	 */
+	public void setFile(final File file) {
+		this.file = file;
+		keepLines = file != null || sampleSize > 0;
+	}
+
+	/**
+	 * @param maxRejected the import fails as soon as more lines than this are
+	 *        rejected; a negative value means no limit.
+	 */
+	public void setMaxRejected(final long maxRejected) {
+		this.maxRejected = maxRejected;
+	}
+
+	/**
+	 * Counts a rejected line.  May be called by several threads at once.
+	 *
+	 * @return true if the line has to be passed to {@link #add(String, Reject)}.
+	 */
+	boolean count(final Category category) {
+		counts[category.ordinal()].increment();
+		return keepLines;
+	}
+
+	/**
+	 * Logs a counted line if the sample is not complete yet and copies it to
+	 * the quarantine file.  Lines must be added in the order of the input.
+	 *
+	 * @param source name of the input, for imports of several files; may be null.
+	 */
+	synchronized void add(final String source, final Reject reject) throws IOException {
+		final String where = (source == null ? "Line " : source + ", line ") + reject.lineNumber + " ("
+				+ reject.category + (reject.message == null ? ")" : "): " + reject.message);
+
+		if (sample.size() < sampleSize) {
+			sample.add(where);
+			logger.warn(where + ": " + abbreviate(reject.line));
+		}
+
+		if (file != null) {
+			if (writer == null)
+				writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+
+			writer.write("# ");
+			writer.write(where.replace('\n', ' '));
+			writer.write('\n');
+			writer.write(reject.line);
+			writer.write('\n');
+		}
+
+		keepLines = file != null || sample.size() < sampleSize;
+	}
+
+	/**
+	 * @throws IOException if more lines were rejected than allowed.
+	 */
+	void checkLimit() throws IOException {
+		if (maxRejected < 0)
+			return;
+
+		final long rejected = getRejected();
+
+		if (rejected > maxRejected)
+			throw new IOException("Import stopped: " + rejected + " malformed lines, more than the "
+					+ maxRejected + " allowed (" + this + ").");
+	}
+
+	/**
+	 * Closes the quarantine file, if one was written.
+	 */
+	public synchronized void close() throws IOException {
+		if (writer != null) {
+			writer.close();
+			writer = null;
+		}
+	}
+
+	public long getRejected() {
+		long total = 0;
+		for (LongAdder count : counts)
+			total += count.sum();
+
+		return total;
+	}
+
+	public long getRejected(final Category category) {
+		return counts[category.ordinal()].sum();
+	}
+
+	/**
+	 * @return where and why the first rejected lines were rejected.
+	 */
+	public synchronized List<String> getSample() {
+		return Collections.unmodifiableList(new ArrayList<String>(sample));
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder text = new StringBuilder();
+		text.append(getRejected()).append(" lines rejected");
+
+		String separator = ": ";
+		for (Category category : Category.values()) {
+			final long count = getRejected(category);
+
+			if (count > 0) {
+				text.append(separator).append(count).append(' ').append(category);
+				separator = ", ";
+			}
+		}
+
+		if (file != null && getRejected() > 0)
+			text.append("; copied to ").append(file);
+
+		return text.toString();
+	}
+
+	private static String abbreviate(final String line) {
+		return line.length() <= MAX_LOGGED_LENGTH ? line : line.substring(0, MAX_LOGGED_LENGTH) + "...";
+	}
+}
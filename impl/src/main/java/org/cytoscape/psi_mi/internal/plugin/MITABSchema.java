@@ -0,0 +1,147 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyTable;
+
+/**
+ * The columns a MITAB import creates from the data itself: node columns for
+ * the database of the interactor IDs and per source database, and a Double
+ * edge column per confidence score type.  The columns are planned from a
+ * sample at the head of the file, so that the per-line code only checks a
+ * hash set; a table lookup (and possibly a createColumn) is only done for a
+ * name that was not in the sample.
+ * <p>
+ * The schema hands out column names, not CyColumn handles: CyRow only takes
+ * values by column name, so a handle would not save the lookup that
+ * {@code row.set} does itself.
+ */
+final class MITABSchema {
+
+	private final CyTable nodeTable;
+	private final CyTable edgeTable;
+	private final boolean sourceDBs;
+	private final String scorePrefix;
+	private final Set<String> nodeColumns = new HashSet<String>();
+	/** Score column by score type; null if a column of another type is in the way. */
+	private final Map<String, String> scoreColumns = new HashMap<String, String>();
+
+	private int sampledLines;
+	private int plannedColumns;
+	private int addedColumns;
+
+	/**
+	 * @param sourceDBs whether the source database columns are imported.
+	 * @param scorePrefix start of the names of the score columns, followed by
+	 *        the score type, or null if scores are not imported.
+	 */
+	MITABSchema(final CyTable nodeTable, final CyTable edgeTable, final boolean sourceDBs, final String scorePrefix) {
+		this.nodeTable = nodeTable;
+		this.edgeTable = edgeTable;
+		this.sourceDBs = sourceDBs;
+		this.scorePrefix = scorePrefix;
+	}
+
+	/**
+	 * Plans the columns of a line of the sample.
+	 */
+	void plan(final MITABLine25 mline) {
+		if (!mline.srcDBs.isEmpty())
+			addNodeColumn(mline.srcDBs.get(0));
+
+		if (sourceDBs) {
+			for (int i = 0; i < mline.sourceDBs.size(); i++)
+				addNodeColumn(mline.sourceDBs.get(i));
+		}
+
+		if (scorePrefix != null) {
+			for (int i = 0; i < mline.edgeScoreTypes.size(); i++)
+				addScoreColumn(mline.edgeScoreTypes.get(i));
+		}
+
+		sampledLines++;
+		plannedColumns = nodeColumns.size() + scoreColumns.size();
+	}
+
+	/**
+	 * Makes sure the node table has a String column with the given name.
+	 *
+	 * @return the name.
+	 */
+	String nodeColumn(final String name) {
+		if (!nodeColumns.contains(name)) {
+			addNodeColumn(name);
+			addedColumns++;
+		}
+
+		return name;
+	}
+
+	/**
+	 * Makes sure the edge table has a Double column for the given score type.
+	 *
+	 * @return the name of the column, or null if a column of that name
+	 *         already exists with another type.
+	 */
+	String scoreColumn(final String type) {
+		if (!scoreColumns.containsKey(type)) {
+			addScoreColumn(type);
+			addedColumns++;
+		}
+
+		return scoreColumns.get(type);
+	}
+
+	private void addNodeColumn(final String name) {
+		if (nodeColumns.add(name) && nodeTable.getColumn(name) == null)
+			nodeTable.createColumn(name, String.class, true);
+	}
+
+	private void addScoreColumn(final String type) {
+		if (scoreColumns.containsKey(type))
+			return;
+
+		final String name = scorePrefix + (type.isEmpty() ? "unknown" : type);
+		final CyColumn column = edgeTable.getColumn(name);
+
+		if (column == null)
+			edgeTable.createColumn(name, Double.class, false);
+
+		scoreColumns.put(type, column == null || column.getType() == Double.class ? name : null);
+	}
+
+	@Override
+	public String toString() {
+		return plannedColumns + " columns planned from the first " + sampledLines + " lines, "
+				+ addedColumns + " added later";
+	}
+}
@@ -0,0 +1,183 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-import dictionary of the controlled-vocabulary terms of a MITAB file
+ * (detection methods, interaction types, databases, taxon IDs...), so that
+ * each distinct term is kept on the heap once, however many lines use it.
+ * <p>
+ * Every parse thread looks terms up in its own {@link Lookup}, which is keyed
+ * on the character range of the value in the line, so a hit does not create
+ * a String.  Misses go through a map shared by all threads.
+ */
+public final class MITABTermDictionary {
+
+	/** Stop adding terms once a column turns out not to be a vocabulary. */
+	private static final int MAX_TERMS = 1 << 16;
+	private static final int MAX_TERM_LENGTH = 256;
+
+	private final ConcurrentHashMap<String, String> terms = new ConcurrentHashMap<String, String>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder bytesSaved = new LongAdder();
+
+	private final ThreadLocal<Lookup> lookups = new ThreadLocal<Lookup>() {
+		@Override
+		protected Lookup initialValue() {
+			return new Lookup();
+		}
+	};
+
+	/**
+	 * @return the lookup table of the current thread.
+	 */
+	Lookup lookup() {
+		return lookups.get();
+	}
+
+	public int getUniqueTerms() {
+		return terms.size();
+	}
+
+	/**
+	 * @return number of values that were found in the dictionary instead of
+	 *         being decoded.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return estimated heap size of the Strings that did not have to be created.
+	 */
+	public long getBytesSaved() {
+		return bytesSaved.sum();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%,d unique terms, %,d values shared, ~%,d bytes saved",
+				getUniqueTerms(), getHits(), getBytesSaved());
+	}
+
+	/**
+	 * Heap size of a String with a compact (one byte per character) array.
+	 */
+	private static long stringSize(final int length) {
+		return 24 + ((16 + length + 7) & ~7);
+	}
+
+	/**
+	 * Open-addressing table from character ranges to terms, used by one thread only.
+	 * Only ASCII values are stored, so a term can be compared both against a
+	 * String line and against the raw bytes of a line.
+	 */
+	final class Lookup {
+
+		private String[] table = new String[256];
+		private int size;
+
+		String get(final CharSequence line, final int start, final int end) {
+			if (end - start > MAX_TERM_LENGTH)
+				return line.subSequence(start, end).toString();
+
+			int hash = 0;
+
+			for (int i = start; i < end; i++) {
+				final char c = line.charAt(i);
+
+				if (c >= 0x80)
+					return line.subSequence(start, end).toString();
+
+				hash = 31 * hash + c;
+			}
+
+			final int mask = table.length - 1;
+			int slot = spread(hash) & mask;
+			String term;
+
+			while ((term = table[slot]) != null) {
+				if (term.hashCode() == hash && matches(term, line, start, end)) {
+					hits.increment();
+					bytesSaved.add(stringSize(end - start));
+
+					return term;
+				}
+
+				slot = (slot + 1) & mask;
+			}
+
+			final String value = line.subSequence(start, end).toString();
+
+			if (terms.size() >= MAX_TERMS)
+				return value;
+
+			final String known = terms.putIfAbsent(value, value);
+			term = known == null ? value : known;
+			table[slot] = term;
+
+			if (++size * 2 > table.length)
+				rehash();
+
+			return term;
+		}
+
+		private boolean matches(final String term, final CharSequence line, final int start, final int end) {
+			if (term.length() != end - start)
+				return false;
+
+			for (int i = start; i < end; i++) {
+				if (term.charAt(i - start) != line.charAt(i))
+					return false;
+			}
+
+			return true;
+		}
+
+		private void rehash() {
+			final String[] old = table;
+			table = new String[old.length * 2];
+			final int mask = table.length - 1;
+
+			for (String term : old) {
+				if (term != null) {
+					int slot = spread(term.hashCode()) & mask;
+					while (table[slot] != null)
+						slot = (slot + 1) & mask;
+
+					table[slot] = term;
+				}
+			}
+		}
+
+		private int spread(final int hash) {
+			return hash ^ (hash >>> 16);
+		}
+	}
+}
@@ -0,0 +1,290 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The files of a zip archive on disk, read from the central directory at the
+ * end of the archive.  Unlike a ZipInputStream, which has to go through the
+ * archive from the start, every entry can be opened on its own, so several
+ * entries can be decompressed at the same time.  All reads are positional,
+ * the channel is never moved.
+ *
+ * Only stored and deflated entries of archives without zip64 extensions or
+ * encryption are supported.
+ */
+final class MITABZipFile {
+
+	private static final int END_SIGNATURE = 0x06054b50;
+	private static final int CENTRAL_SIGNATURE = 0x02014b50;
+	private static final int LOCAL_SIGNATURE = 0x04034b50;
+	private static final int END_SIZE = 22;
+	private static final int CENTRAL_SIZE = 46;
+	private static final int LOCAL_SIZE = 30;
+	private static final int MAX_COMMENT = 0xffff;
+	private static final int STORED = 0;
+	private static final int DEFLATED = 8;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * A file in the archive.
+	 */
+	static final class Entry {
+
+		private final FileChannel channel;
+		private final String name;
+		private final int method;
+		private final long compressedSize;
+		private final long size;
+		private final long headerOffset;
+
+		private Entry(final FileChannel channel, final String name, final int method, final long compressedSize,
+				final long size, final long headerOffset) {
+			this.channel = channel;
+			this.name = name;
+			this.method = method;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.headerOffset = headerOffset;
+		}
+
+		String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the uncompressed size in bytes.
+		 */
+		long getSize() {
+			return size;
+		}
+
+		/**
+		 * @return a stream of the uncompressed contents.  May be called by
+		 *         several threads at once, for different entries.
+		 */
+		InputStream open() throws IOException {
+			final ByteBuffer header = read(channel, headerOffset, LOCAL_SIZE);
+
+			if (header.getInt(0) != LOCAL_SIGNATURE)
+				throw new IOException("No local header for " + name + " at " + headerOffset);
+
+			final long dataOffset = headerOffset + LOCAL_SIZE + (header.getShort(26) & 0xffff) + (header.getShort(28) & 0xffff);
+			final InputStream data = new ChannelRangeInputStream(channel, dataOffset, compressedSize);
+
+			if (method == STORED)
+				return data;
+
+			return new EntryInflaterInputStream(data);
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private MITABZipFile() {
+	}
+
+	/**
+	 * @return the data files of the archive in the order of the central
+	 *         directory, or null if the channel is not a zip archive this
+	 *         class can read.
+	 */
+	static List<Entry> entries(final FileChannel channel) throws IOException {
+		final long fileSize = channel.size();
+
+		if (fileSize < END_SIZE)
+			return null;
+
+		// The end record is followed by a comment of at most 64k
+		final int tailSize = (int) Math.min(fileSize, END_SIZE + MAX_COMMENT);
+		final ByteBuffer tail = read(channel, fileSize - tailSize, tailSize);
+		int end = -1;
+
+		for (int i = tailSize - END_SIZE; i >= 0; i--) {
+			if (tail.getInt(i) == END_SIGNATURE && i + END_SIZE + (tail.getShort(i + 20) & 0xffff) == tailSize) {
+				end = i;
+				break;
+			}
+		}
+
+		if (end < 0)
+			return null;
+
+		final int count = tail.getShort(end + 10) & 0xffff;
+		final long directorySize = tail.getInt(end + 12) & 0xffffffffL;
+		final long directoryOffset = tail.getInt(end + 16) & 0xffffffffL;
+
+		// Split archives and zip64
+		if ((tail.getShort(end + 4) & 0xffff) != 0 || count == 0xffff || directoryOffset == 0xffffffffL
+				|| directoryOffset + directorySize > fileSize || directorySize > Integer.MAX_VALUE)
+			return null;
+
+		final ByteBuffer directory = read(channel, directoryOffset, (int) directorySize);
+		final List<Entry> entries = new ArrayList<Entry>(count);
+		int position = 0;
+
+		for (int i = 0; i < count; i++) {
+			if (position + CENTRAL_SIZE > directory.limit() || directory.getInt(position) != CENTRAL_SIGNATURE)
+				return null;
+
+			final int flags = directory.getShort(position + 8) & 0xffff;
+			final int method = directory.getShort(position + 10) & 0xffff;
+			final long compressedSize = directory.getInt(position + 20) & 0xffffffffL;
+			final long size = directory.getInt(position + 24) & 0xffffffffL;
+			final int nameLength = directory.getShort(position + 28) & 0xffff;
+			final int extraLength = directory.getShort(position + 30) & 0xffff;
+			final int commentLength = directory.getShort(position + 32) & 0xffff;
+			final long headerOffset = directory.getInt(position + 42) & 0xffffffffL;
+
+			if (position + CENTRAL_SIZE + nameLength > directory.limit())
+				return null;
+
+			final byte[] nameBytes = new byte[nameLength];
+			directory.position(position + CENTRAL_SIZE);
+			directory.get(nameBytes);
+			// Bit 11: the name is UTF-8, otherwise it is in the DOS code page
+			final Charset charset = (flags & 0x800) != 0 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+			final String name = new String(nameBytes, charset);
+
+			if ((flags & 1) != 0 || (method != STORED && method != DEFLATED) || compressedSize == 0xffffffffL
+					|| size == 0xffffffffL || headerOffset == 0xffffffffL)
+				return null;
+
+			if (!MITABInput.isSkipped(name))
+				entries.add(new Entry(channel, name, method, compressedSize, size, headerOffset));
+
+			position += CENTRAL_SIZE + nameLength + extraLength + commentLength;
+		}
+
+		return Collections.unmodifiableList(entries);
+	}
+
+	private static ByteBuffer read(final FileChannel channel, final long offset, final int length) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, offset + buffer.position()) < 0)
+				throw new EOFException("Zip archive ends at " + (offset + buffer.position()));
+		}
+
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * A range of the channel, read with positional reads.
+	 */
+	private static final class ChannelRangeInputStream extends InputStream {
+
+		private final FileChannel channel;
+		private final long end;
+		private long position;
+
+		ChannelRangeInputStream(final FileChannel channel, final long start, final long length) {
+			this.channel = channel;
+			this.position = start;
+			this.end = start + length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			if (len == 0)
+				return 0;
+			if (position >= end)
+				return -1;
+
+			final int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+
+			if (n < 0)
+				throw new EOFException("Zip entry ends at " + position + " instead of " + end);
+
+			position += n;
+			return n;
+		}
+
+		@Override
+		public int available() {
+			return (int) Math.min(Integer.MAX_VALUE, end - position);
+		}
+	}
+
+	/**
+	 * Inflates raw deflate data.  Like the streams of java.util.zip.ZipFile, it
+	 * adds a dummy byte at the end of the input, which the inflater may need
+	 * to finish when it runs without the zlib wrapper.
+	 */
+	private static final class EntryInflaterInputStream extends InflaterInputStream {
+
+		private boolean eof;
+
+		EntryInflaterInputStream(final InputStream in) {
+			super(in, new Inflater(true), BUFFER_SIZE);
+		}
+
+		@Override
+		protected void fill() throws IOException {
+			if (eof)
+				throw new EOFException("Unexpected end of zip entry");
+
+			len = in.read(buf, 0, buf.length);
+
+			if (len == -1) {
+				buf[0] = 0;
+				len = 1;
+				eof = true;
+			}
+
+			inf.setInput(buf, 0, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			super.close();
+			inf.end();
+		}
+	}
+}
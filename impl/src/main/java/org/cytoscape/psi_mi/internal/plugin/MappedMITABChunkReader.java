@@ -0,0 +1,95 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Memory-maps a MITAB file window by window.  Every chunk ends right after
+ * a newline (or at the end of the file), so no line is ever split between
+ * two chunks and the bytes are never copied onto the heap.  The position
+ * of the channel follows the chunks handed out, as if they had been read,
+ * so that progress can be reported from it.
+ */
+final class MappedMITABChunkReader implements MITABChunkReader {
+
+	private static final int WINDOW_SIZE = 32 * 1024 * 1024;
+
+	private final FileChannel channel;
+	private final long size;
+	private final int windowSize;
+	private long offset;
+
+	MappedMITABChunkReader(final FileChannel channel) throws IOException {
+		this(channel, WINDOW_SIZE);
+	}
+
+	MappedMITABChunkReader(final FileChannel channel, final int windowSize) throws IOException {
+		this.channel = channel;
+		this.size = channel.size();
+		this.windowSize = windowSize;
+		this.offset = channel.position();
+	}
+
+	@Override
+	public ByteBuffer next() throws IOException {
+		if (offset >= size)
+			return null;
+
+		long mapSize = windowSize;
+
+		while (true) {
+			final int length = (int) Math.min(mapSize, size - offset);
+			final MappedByteBuffer window = channel.map(MapMode.READ_ONLY, offset, length);
+
+			if (offset + length == size) {
+				offset = size;
+				channel.position(offset);
+				return window;
+			}
+
+			int end = length;
+			while (end > 0 && window.get(end - 1) != '\n')
+				end--;
+
+			if (end > 0) {
+				window.limit(end);
+				offset += end;
+				channel.position(offset);
+				return window;
+			}
+
+			// A single line longer than the window: map a larger one.
+			if (mapSize >= Integer.MAX_VALUE)
+				throw new IOException("Line at byte " + offset + " is too long.");
+
+			mapSize = Math.min(mapSize * 2, Integer.MAX_VALUE);
+		}
+	}
+}
@@ -32,6 +32,7 @@ import java.io.StringWriter;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import org.cytoscape.application.CyApplicationManager;
 import org.cytoscape.io.read.AbstractCyNetworkReader;
@@ -43,6 +44,7 @@ import org.cytoscape.model.subnetwork.CyRootNetworkManager;
 import org.cytoscape.model.subnetwork.CySubNetwork;
 import org.cytoscape.psi_mi.internal.cyto_mapper.MapToCytoscape;
 import org.cytoscape.psi_mi.internal.data_mapper.MapPsiOneToInteractions;
+import org.cytoscape.psi_mi.internal.data_mapper.ParsePipeline;
 import org.cytoscape.psi_mi.internal.model.Interaction;
 import org.cytoscape.view.layout.CyLayoutAlgorithm;
 import org.cytoscape.view.layout.CyLayoutAlgorithmManager;
@@ -60,6 +62,9 @@ public class PSIMI10XMLNetworkViewReader extends AbstractCyNetworkReader {
 	private static final Logger logger = LoggerFactory.getLogger(PSIMI10XMLNetworkViewReader.class);
 	
 	private static final int BUFFER_SIZE = 16384;
+	
+	/** Number of interactions the parser hands to the mapping thread at once. */
+	private static final int BATCH_SIZE = 64;
 
 	private CyLayoutAlgorithmManager layouts;
 	private TaskMonitor parentTaskMonitor;
@@ -88,16 +93,6 @@ public class PSIMI10XMLNetworkViewReader extends AbstractCyNetworkReader {
 
 		final List<Interaction> interactions = new ArrayList<Interaction>();
 
-		final MapPsiOneToInteractions mapper1 = new MapPsiOneToInteractions(xml, interactions);
-		mapper1.doMapping();
-		
-		taskMonitor.setProgress(0.4);
-		
-		if (cancelled) {
-			inputStream.close();
-			return;
-		}
-
 		CyRootNetwork root = getRootNetwork();
 		final CySubNetwork newNetwork;
 		
@@ -106,8 +101,37 @@ public class PSIMI10XMLNetworkViewReader extends AbstractCyNetworkReader {
 		else // Need to create new network with new root.
 			newNetwork = (CySubNetwork) cyNetworkFactory.createNetwork();
 		
+		// The interactions are mapped while the rest of the document is parsed on another thread
+		final MapPsiOneToInteractions mapper1 = new MapPsiOneToInteractions(xml, interactions);
 		final MapToCytoscape mapper2 = new MapToCytoscape(newNetwork, interactions, MapToCytoscape.SPOKE_VIEW);
-		mapper2.doMapping();
+		final ParsePipeline<Interaction> pipeline = new ParsePipeline<Interaction>("PSI-MI 1 parser", BATCH_SIZE);
+		
+		pipeline.start(new ParsePipeline.Parser<Interaction>() {
+			@Override
+			public void parse(final ParsePipeline<Interaction> out) throws Exception {
+				mapper1.doMapping(out);
+			}
+		});
+		
+		try {
+			List<Interaction> batch;
+			
+			while (!cancelled && (batch = pipeline.take()) != null)
+				mapper2.mapInteractions(batch);
+		} catch (ExecutionException e) {
+			newNetwork.dispose();
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		} catch (Exception e) {
+			newNetwork.dispose();
+			throw e;
+		} finally {
+			pipeline.close();
+		}
+		
+		if (cancelled) {
+			newNetwork.dispose();
+			return;
+		}
 
 		networks = new CyNetwork[] { newNetwork };
 		
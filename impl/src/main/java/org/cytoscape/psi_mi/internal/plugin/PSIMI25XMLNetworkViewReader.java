@@ -31,6 +31,9 @@ import org.cytoscape.io.read.AbstractCyNetworkReader;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyNetworkTableManager;
+import org.cytoscape.model.CyTableFactory;
+import org.cytoscape.model.CyTableManager;
 import org.cytoscape.model.subnetwork.CyRootNetwork;
 import org.cytoscape.model.subnetwork.CyRootNetworkManager;
 import org.cytoscape.model.subnetwork.CySubNetwork;
@@ -45,9 +48,6 @@ import org.cytoscape.work.TaskMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import psidev.psi.mi.xml.PsimiXmlReader;
-import psidev.psi.mi.xml.model.EntrySet;
-
 public class PSIMI25XMLNetworkViewReader extends AbstractCyNetworkReader {
 	
 	private static final Logger logger = LoggerFactory.getLogger(PSIMI25XMLNetworkViewReader.class);
@@ -56,6 +56,10 @@ public class PSIMI25XMLNetworkViewReader extends AbstractCyNetworkReader {
 	private TaskMonitor parentTaskMonitor;
 	private PSIMI25EntryMapper mapper;
 	
+	private final CyTableFactory tableFactory;
+	private final CyTableManager tableManager;
+	private final CyNetworkTableManager networkTableManager;
+	
 	public PSIMI25XMLNetworkViewReader(
 			final InputStream inputStream,
 			final CyApplicationManager applicationManager,
@@ -64,9 +68,32 @@ public class PSIMI25XMLNetworkViewReader extends AbstractCyNetworkReader {
 			final CyLayoutAlgorithmManager layouts,
 			final CyNetworkManager networkManager,
 			final CyRootNetworkManager rootNetworkManager
+	) {
+		this(inputStream, applicationManager, networkFactory, networkViewFactory, layouts, networkManager,
+				rootNetworkManager, null, null, null);
+	}
+
+	/**
+	 * Also maps the experiments to a table, which is registered as a table of
+	 * the new network, so that it is removed together with the network.
+	 */
+	public PSIMI25XMLNetworkViewReader(
+			final InputStream inputStream,
+			final CyApplicationManager applicationManager,
+			final CyNetworkFactory networkFactory,
+			final CyNetworkViewFactory networkViewFactory,
+			final CyLayoutAlgorithmManager layouts,
+			final CyNetworkManager networkManager,
+			final CyRootNetworkManager rootNetworkManager,
+			final CyTableFactory tableFactory,
+			final CyTableManager tableManager,
+			final CyNetworkTableManager networkTableManager
 	) {
 		super(inputStream, applicationManager, networkFactory, networkManager, rootNetworkManager);
 		this.layouts = layouts;
+		this.tableFactory = tableFactory;
+		this.tableManager = tableManager;
+		this.networkTableManager = networkTableManager;
 	}
 
 	@Override
@@ -78,16 +105,6 @@ public class PSIMI25XMLNetworkViewReader extends AbstractCyNetworkReader {
 		taskMonitor.setTitle("Loading PSI-MI 2.5.x XML File ");
 		taskMonitor.setStatusMessage("Loading data file in PSI-MI 2.5 XML format.");
 
-		final PsimiXmlReader reader = new PsimiXmlReader();
-		final EntrySet result = reader.read(inputStream);		
-		taskMonitor.setProgress(0.4);
-		taskMonitor.setStatusMessage("Data Loaded.  Mapping Data to Network...");
-
-		if (cancelled) {
-			inputStream.close();
-			return;
-		}
-		
 		CyRootNetwork root = getRootNetwork();
 		final CySubNetwork newNetwork;
 		
@@ -96,11 +113,32 @@ public class PSIMI25XMLNetworkViewReader extends AbstractCyNetworkReader {
 		else // Need to create new network with new root.
 			newNetwork = (CySubNetwork) cyNetworkFactory.createNetwork();
 		
-		mapper = new PSIMI25EntryMapper(newNetwork, result);
-		mapper.map();
+		// The XML is mapped while it is read, so only the nodes stay in memory
+		taskMonitor.setStatusMessage("Mapping Data to Network...");
+		mapper = new PSIMI25EntryMapper(newNetwork, tableManager == null ? null : tableFactory);
+		
+		if (cancelled)
+			mapper.cancel();
+		
+		try {
+			mapper.map(inputStream);
+		} finally {
+			inputStream.close();
+		}
+		
+		if (cancelled) {
+			newNetwork.dispose();
+			return;
+		}
 		
 		networks = new CyNetwork[] { newNetwork };
 		
+		if (mapper.getExperimentTable() != null) {
+			networkTableManager.setTable(newNetwork, CyNetwork.class, PSIMI25EntryMapper.EXPERIMENT_TABLE,
+					mapper.getExperimentTable());
+			tableManager.addTable(mapper.getExperimentTable());
+		}
+		
 		taskMonitor.setProgress(1.0d);
 		logger.info("PSI-MI XML Data Import finihsed in " + (System.currentTimeMillis() - start) + " msec.");
 	}
@@ -127,6 +165,8 @@ public class PSIMI25XMLNetworkViewReader extends AbstractCyNetworkReader {
 	@Override
 	public void cancel() {
 		super.cancel();
-		mapper.cancel();
+		
+		if (mapper != null)
+			mapper.cancel();
 	}
 }
@@ -0,0 +1,620 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decompresses a gzip file that consists of many members on several threads.
+ * Such files are written by concatenating gzip files, by bgzip (BGZF, where
+ * every member of at most 64k says how long it is) and by some export tools.
+ *
+ * Member starts are taken from the BGZF block sizes, or else found by looking
+ * for gzip headers in the compressed bytes; from the first member without a
+ * block size on, e.g. in bgzip output followed by a plain gzip file, headers
+ * are looked for.  A header found that way may be
+ * part of the compressed data of the member before it, so members are checked
+ * in file order: the member before a candidate must end exactly where the
+ * candidate starts.  If it does not, or if a member is too large to be
+ * buffered, the rest of it is inflated on the reading thread, by the same
+ * inflater.  The output is always exactly that of GZIPInputStream.
+ *
+ * A file with a single member can not be split; {@link #open(FileChannel, long, int)}
+ * returns null for it and the caller keeps using GZIPInputStream.
+ *
+ * The workers are never interrupted: they read through the caller's channel,
+ * which an interrupt would close for everyone.  Tasks that are no longer
+ * needed are cancelled without an interrupt and run to their bound.
+ */
+final class ParallelGzipInputStream extends InputStream {
+
+	private static final int INPUT_CHUNK = 256 * 1024;
+	/** Output a worker buffers per member before leaving the rest to the reader. */
+	private static final int OUTPUT_LIMIT = 8 * 1024 * 1024;
+	/** How far into the file a second member has to start to use threads at all. */
+	private static final int PROBE_SIZE = 64 * 1024 * 1024;
+
+	private static final int FHCRC = 2;
+	private static final int FEXTRA = 4;
+	private static final int FNAME = 8;
+	private static final int FCOMMENT = 16;
+	private static final int RESERVED = 0xe0;
+
+	private static final long NO_BLOCK = -1;
+	private static final long NO_HEADER = -2;
+
+	private final FileChannel channel;
+	private final long size;
+	/** Whether the next member starts still come from BGZF block sizes. */
+	private boolean bgzf;
+	private final ExecutorService executor;
+	private final int window;
+
+	/** Members being inflated, by their start offset. */
+	private final ArrayDeque<Long> starts = new ArrayDeque<Long>();
+	private final ArrayDeque<Future<Member>> members = new ArrayDeque<Future<Member>>();
+	/** Next candidate start that has no task yet, or -1. */
+	private long nextCandidate;
+	private final byte[] scanBuffer = new byte[INPUT_CHUNK];
+	private long scanned;
+
+	/** Start of the next member to read. */
+	private long position;
+	private Member current;
+	private int currentOffset;
+	private int parallelMembers;
+	private int sequentialMembers;
+
+	private ParallelGzipInputStream(final FileChannel channel, final long start, final boolean bgzf, final int threads)
+			throws IOException {
+		this.channel = channel;
+		this.size = channel.size();
+		this.bgzf = bgzf;
+		this.position = start;
+		this.scanned = start;
+		this.window = threads * 2 + 2;
+		this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, "gzip inflater");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.nextCandidate = start;
+	}
+
+	/**
+	 * @param start offset of the first gzip header.
+	 * @return a stream of the decompressed data, or null if the file does not
+	 *         have several members.
+	 */
+	static ParallelGzipInputStream open(final FileChannel channel, final long start, final int threads) throws IOException {
+		final byte[] head = new byte[(int) Math.min(INPUT_CHUNK, channel.size() - start)];
+		readFully(channel, start, head, head.length);
+		final Header header = Header.parse(head, head.length);
+
+		if (header == null)
+			return null;
+
+		if (header.blockSize > 0)
+			return new ParallelGzipInputStream(channel, start, true, threads);
+
+		// A plain gzip file: only worth it if another member follows soon
+		final ParallelGzipInputStream probe = new ParallelGzipInputStream(channel, start, false, threads);
+		final long second = probe.scan(start + 1, Math.min(channel.size(), start + PROBE_SIZE));
+
+		if (second < 0) {
+			probe.close();
+			return null;
+		}
+
+		probe.scanned = start;
+		return probe;
+	}
+
+	@Override
+	public int read() throws IOException {
+		final byte[] b = new byte[1];
+		return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		if (len == 0)
+			return 0;
+
+		while (true) {
+			if (current != null) {
+				if (currentOffset < current.length) {
+					final int n = Math.min(len, current.length - currentOffset);
+					System.arraycopy(current.output, currentOffset, b, off, n);
+					currentOffset += n;
+
+					return n;
+				}
+
+				if (current.inflater != null) {
+					// The worker stopped before the end of the member
+					final int n = current.inflate(channel, size, b, off, len);
+
+					if (n > 0)
+						return n;
+				}
+
+				current.verify(channel);
+				position = current.end;
+				// The members are read at their offsets; move the channel like a
+				// sequential read would, for progress reporting.
+				channel.position(position);
+				current.release();
+				current = null;
+			}
+
+			current = nextMember();
+
+			if (current == null)
+				return -1;
+
+			currentOffset = 0;
+		}
+	}
+
+	/**
+	 * @return the member that starts at position, or null at the end of the file.
+	 */
+	private Member nextMember() throws IOException {
+		fill();
+
+		// Candidates inside the members read so far were not members
+		while (!starts.isEmpty() && starts.peekFirst() < position) {
+			starts.pollFirst();
+			discard(members.pollFirst());
+			fill();
+		}
+
+		if (starts.isEmpty() || starts.peekFirst() != position) {
+			// Like GZIPInputStream, ignore what follows the last member
+			return null;
+		}
+
+		starts.pollFirst();
+		final Member member;
+
+		try {
+			member = members.pollFirst().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while inflating", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException("Could not inflate the member at " + position, e.getCause());
+		}
+
+		if (member.error != null)
+			throw member.error;
+
+		if (member.inflater == null)
+			parallelMembers++;
+		else
+			sequentialMembers++;
+
+		fill();
+		return member;
+	}
+
+	/**
+	 * Submits tasks for the next candidates until the window is full.
+	 */
+	private void fill() throws IOException {
+		while (starts.size() < window && nextCandidate >= 0) {
+			final long start = nextCandidate;
+			final long block = bgzf ? nextBlock(start) : NO_BLOCK;
+			final long bound;
+
+			if (block == NO_HEADER) {
+				// Like GZIPInputStream, what follows the last member is ignored
+				bgzf = false;
+				nextCandidate = scan(start + 1, size);
+				continue;
+			}
+
+			if (block != NO_BLOCK) {
+				bound = block;
+				nextCandidate = bound < size ? bound : -1;
+			} else {
+				bgzf = false;
+				final long next = scan(Math.max(start + 1, scanned), size);
+				bound = next < 0 ? size : next;
+				nextCandidate = next;
+			}
+
+			starts.addLast(start);
+			members.addLast(executor.submit(new Callable<Member>() {
+				@Override
+				public Member call() {
+					return Member.inflate(channel, start, bound);
+				}
+			}));
+		}
+	}
+
+	/**
+	 * @return the start of the block after the BGZF block at start,
+	 *         {@link #NO_BLOCK} for a member without a block size or
+	 *         {@link #NO_HEADER} if there is no member at start.
+	 */
+	private long nextBlock(final long start) throws IOException {
+		final int length = (int) Math.min(scanBuffer.length, size - start);
+		readFully(channel, start, scanBuffer, length);
+		final Header header = Header.parse(scanBuffer, length);
+
+		if (header == null)
+			return NO_HEADER;
+		if (header.blockSize <= 0)
+			return NO_BLOCK;
+
+		return Math.min(size, start + header.blockSize);
+	}
+
+	/**
+	 * @return the offset of the next possible gzip header between from and to,
+	 *         or -1.
+	 */
+	private long scan(final long from, final long to) throws IOException {
+		long offset = from;
+
+		while (offset < to) {
+			// Headers need 10 bytes, so read overlapping buffers
+			final int length = (int) Math.min(scanBuffer.length, to - offset + 9);
+			final int read = (int) Math.min(length, size - offset);
+			readFully(channel, offset, scanBuffer, read);
+
+			for (int i = 0; i + 10 <= read && offset + i < to; i++) {
+				if (scanBuffer[i] == (byte) 0x1f && scanBuffer[i + 1] == (byte) 0x8b && scanBuffer[i + 2] == 8
+						&& (scanBuffer[i + 3] & RESERVED) == 0 && (scanBuffer[i + 8] & ~6) == 0) {
+					scanned = offset + i + 1;
+					return offset + i;
+				}
+			}
+
+			if (read < 10)
+				break;
+
+			offset += read - 9;
+		}
+
+		scanned = to;
+		return -1;
+	}
+
+	/**
+	 * @return how many members were inflated by the worker threads alone.
+	 */
+	int getParallelMembers() {
+		return parallelMembers;
+	}
+
+	/**
+	 * @return how many members had to be finished on the reading thread.
+	 */
+	int getSequentialMembers() {
+		return sequentialMembers;
+	}
+
+	@Override
+	public void close() {
+		executor.shutdown();
+
+		for (Future<Member> member : members)
+			discard(member);
+
+		members.clear();
+		starts.clear();
+
+		if (current != null) {
+			current.release();
+			current = null;
+		}
+	}
+
+	/**
+	 * Cancels the task without interrupting it, or releases its member if it
+	 * is done.
+	 */
+	private static void discard(final Future<Member> member) {
+		if (member.cancel(false) || !member.isDone())
+			return;
+
+		try {
+			member.get().release();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			// Nothing to release
+		}
+	}
+
+	private static void readFully(final FileChannel channel, final long offset, final byte[] buffer, final int length)
+			throws IOException {
+		final ByteBuffer bb = ByteBuffer.wrap(buffer, 0, length);
+
+		while (bb.hasRemaining()) {
+			if (channel.read(bb, offset + bb.position()) < 0)
+				throw new EOFException("Unexpected end of gzip file at " + (offset + bb.position()));
+		}
+	}
+
+	/**
+	 * The fixed part of a gzip member header.
+	 */
+	private static final class Header {
+
+		final int length;
+		/** Size of the whole member for BGZF, otherwise 0. */
+		final int blockSize;
+
+		private Header(final int length, final int blockSize) {
+			this.length = length;
+			this.blockSize = blockSize;
+		}
+
+		/**
+		 * @return the header at the start of the bytes, or null if it is not a
+		 *         valid header or does not fit.
+		 */
+		static Header parse(final byte[] b, final int length) {
+			if (length < 10 || b[0] != (byte) 0x1f || b[1] != (byte) 0x8b || b[2] != 8 || (b[3] & RESERVED) != 0)
+				return null;
+
+			final int flags = b[3];
+			int p = 10;
+			int blockSize = 0;
+
+			if ((flags & FEXTRA) != 0) {
+				if (p + 2 > length)
+					return null;
+
+				final int extraLength = (b[p] & 0xff) | (b[p + 1] & 0xff) << 8;
+				p += 2;
+
+				if (p + extraLength > length)
+					return null;
+
+				// BGZF: subfield "BC" with the member size minus 1
+				for (int s = p; s + 4 <= p + extraLength; ) {
+					final int subLength = (b[s + 2] & 0xff) | (b[s + 3] & 0xff) << 8;
+
+					if (b[s] == 'B' && b[s + 1] == 'C' && subLength == 2 && s + 6 <= p + extraLength)
+						blockSize = ((b[s + 4] & 0xff) | (b[s + 5] & 0xff) << 8) + 1;
+
+					s += 4 + subLength;
+				}
+
+				p += extraLength;
+			}
+
+			if ((flags & FNAME) != 0) {
+				while (p < length && b[p] != 0)
+					p++;
+				p++;
+			}
+
+			if ((flags & FCOMMENT) != 0) {
+				while (p < length && b[p] != 0)
+					p++;
+				p++;
+			}
+
+			if ((flags & FHCRC) != 0)
+				p += 2;
+
+			return p > length ? null : new Header(p, blockSize);
+		}
+	}
+
+	/**
+	 * The output of one member.  If the worker could not finish it, the
+	 * inflater and the input position are kept so the reader can go on.
+	 */
+	private static final class Member {
+
+		byte[] output;
+		int length;
+		IOException error;
+
+		Inflater inflater;
+		final CRC32 crc = new CRC32();
+		long total;
+		/** Input offset of the first byte the inflater has not seen. */
+		long input;
+		/** Offset after the trailer, once the member is finished. */
+		long end;
+
+		private byte[] chunk;
+
+		/**
+		 * Inflates the member at start, reading no further than bound, and
+		 * buffering at most OUTPUT_LIMIT bytes.
+		 */
+		static Member inflate(final FileChannel channel, final long start, final long bound) {
+			final Member member = new Member();
+			final Inflater inflater = new Inflater(true);
+			boolean keep = false;
+
+			try {
+				member.chunk = new byte[(int) Math.min(INPUT_CHUNK, Math.max(10, bound - start))];
+				final int first = (int) Math.min(member.chunk.length, channel.size() - start);
+				readFully(channel, start, member.chunk, first);
+				final Header header = Header.parse(member.chunk, first);
+
+				if (header == null)
+					throw new IOException("No gzip header at " + start);
+
+				// BGZF blocks say how much they inflate to, text members
+				// typically to less than eight times their size
+				int capacity = (int) Math.min(OUTPUT_LIMIT, Math.max(64 * 1024, (bound - start) * 8));
+				if (header.blockSize > 0 && start + header.blockSize <= channel.size()) {
+					final byte[] isize = new byte[4];
+					readFully(channel, start + header.blockSize - 4, isize, 4);
+					capacity = (isize[0] & 0xff) | (isize[1] & 0xff) << 8 | (isize[2] & 0xff) << 16 | (isize[3] & 0xff) << 24;
+					capacity = capacity < 0 || capacity > OUTPUT_LIMIT ? OUTPUT_LIMIT : Math.max(1, capacity);
+				}
+
+				member.output = new byte[capacity];
+				inflater.setInput(member.chunk, header.length, first - header.length);
+				member.input = start + first;
+
+				while (!inflater.finished()) {
+					if (inflater.needsInput()) {
+						if (member.input >= bound)
+							break;
+
+						final int n = (int) Math.min(member.chunk.length, bound - member.input);
+						readFully(channel, member.input, member.chunk, n);
+						inflater.setInput(member.chunk, 0, n);
+						member.input += n;
+					}
+
+					if (member.length == member.output.length) {
+						if (member.length >= OUTPUT_LIMIT)
+							break;
+						member.output = Arrays.copyOf(member.output, Math.min(OUTPUT_LIMIT, member.length * 2));
+					}
+
+					final int n = inflater.inflate(member.output, member.length, member.output.length - member.length);
+					member.length += n;
+
+					if (n == 0 && inflater.needsDictionary())
+						throw new IOException("Gzip member at " + start + " needs a dictionary");
+				}
+
+				member.crc.update(member.output, 0, member.length);
+				member.total = member.length;
+
+				if (inflater.finished()) {
+					member.end = member.input - inflater.getRemaining() + 8;
+					member.chunk = null;
+				} else {
+					// Unread input stays with the inflater, which the reader continues
+					member.inflater = inflater;
+					keep = true;
+				}
+			} catch (IOException e) {
+				member.error = e;
+			} catch (DataFormatException e) {
+				member.error = new IOException("Invalid gzip data in the member at " + start, e);
+			} finally {
+				if (!keep)
+					inflater.end();
+			}
+
+			return member;
+		}
+
+		/**
+		 * Continues a member the worker did not finish, without a bound.
+		 *
+		 * @return number of bytes inflated into b, 0 once the member is finished.
+		 */
+		int inflate(final FileChannel channel, final long size, final byte[] b, final int off, final int len)
+				throws IOException {
+			try {
+				while (!inflater.finished()) {
+					if (inflater.needsInput()) {
+						if (input >= size)
+							throw new EOFException("Unexpected end of gzip file");
+
+						final int n = (int) Math.min(chunk.length, size - input);
+						readFully(channel, input, chunk, n);
+						inflater.setInput(chunk, 0, n);
+						input += n;
+					}
+
+					final int n = inflater.inflate(b, off, len);
+
+					if (n > 0) {
+						crc.update(b, off, n);
+						total += n;
+						return n;
+					}
+
+					if (inflater.needsDictionary())
+						throw new IOException("Gzip member needs a dictionary");
+				}
+			} catch (DataFormatException e) {
+				throw new IOException("Invalid gzip data", e);
+			}
+
+			end = input - inflater.getRemaining() + 8;
+			inflater.end();
+			inflater = null;
+			chunk = null;
+
+			return 0;
+		}
+
+		/**
+		 * Checks the trailer: CRC32 and size of the uncompressed data.
+		 */
+		void verify(final FileChannel channel) throws IOException {
+			final byte[] trailer = new byte[8];
+			readFully(channel, end - 8, trailer, 8);
+
+			final long expectedCrc = (trailer[0] & 0xffL) | (trailer[1] & 0xffL) << 8 | (trailer[2] & 0xffL) << 16
+					| (trailer[3] & 0xffL) << 24;
+			final long expectedSize = (trailer[4] & 0xffL) | (trailer[5] & 0xffL) << 8 | (trailer[6] & 0xffL) << 16
+					| (trailer[7] & 0xffL) << 24;
+
+			if (expectedCrc != crc.getValue() || expectedSize != (total & 0xffffffffL))
+				throw new IOException("Corrupt gzip member ending at " + end);
+		}
+
+		void release() {
+			output = null;
+
+			if (inflater != null) {
+				inflater.end();
+				inflater = null;
+			}
+		}
+	}
+}
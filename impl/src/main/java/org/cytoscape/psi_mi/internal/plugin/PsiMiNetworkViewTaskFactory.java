@@ -31,6 +31,9 @@ import org.cytoscape.io.CyFileFilter;
 import org.cytoscape.io.read.AbstractInputStreamTaskFactory;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyNetworkTableManager;
+import org.cytoscape.model.CyTableFactory;
+import org.cytoscape.model.CyTableManager;
 import org.cytoscape.model.subnetwork.CyRootNetworkManager;
 import org.cytoscape.psi_mi.internal.plugin.PsiMiCyFileFilter.PSIMIVersion;
 import org.cytoscape.view.layout.CyLayoutAlgorithmManager;
@@ -45,6 +48,9 @@ public class PsiMiNetworkViewTaskFactory extends AbstractInputStreamTaskFactory
 	private final CyLayoutAlgorithmManager layouts;
 	private final CyNetworkManager cyNetworkManager;
 	private final CyRootNetworkManager cyRootNetworkManager;
+	private final CyTableFactory cyTableFactory;
+	private final CyTableManager cyTableManager;
+	private final CyNetworkTableManager cyNetworkTableManager;
 	
 	private final PSIMIVersion version;
 
@@ -58,6 +64,26 @@ public class PsiMiNetworkViewTaskFactory extends AbstractInputStreamTaskFactory
 			final CyNetworkManager cyNetworkManager,
 			final CyRootNetworkManager cyRootNetworkManager
 		) {
+		this(version, filter, cyApplicationManager, networkFactory, networkViewFactory, layouts, cyNetworkManager,
+				cyRootNetworkManager, null, null, null);
+	}
+
+	/**
+	 * The table services are used by PSI-MI 2.5 readers to create the experiment table.
+	 */
+	public PsiMiNetworkViewTaskFactory(
+			final PSIMIVersion version,
+			final CyFileFilter filter,
+			final CyApplicationManager cyApplicationManager,
+			final CyNetworkFactory networkFactory, 
+			final CyNetworkViewFactory networkViewFactory,
+			final CyLayoutAlgorithmManager layouts,
+			final CyNetworkManager cyNetworkManager,
+			final CyRootNetworkManager cyRootNetworkManager,
+			final CyTableFactory cyTableFactory,
+			final CyTableManager cyTableManager,
+			final CyNetworkTableManager cyNetworkTableManager
+		) {
 		super(filter);
 		this.cyApplicationManager = cyApplicationManager;
 		this.networkFactory = networkFactory;
@@ -66,6 +92,9 @@ public class PsiMiNetworkViewTaskFactory extends AbstractInputStreamTaskFactory
 		this.version = version;
 		this.cyNetworkManager= cyNetworkManager;
 		this.cyRootNetworkManager = cyRootNetworkManager;
+		this.cyTableFactory = cyTableFactory;
+		this.cyTableManager = cyTableManager;
+		this.cyNetworkTableManager = cyNetworkTableManager;
 	}
 	
 	@Override
@@ -73,7 +102,7 @@ public class PsiMiNetworkViewTaskFactory extends AbstractInputStreamTaskFactory
 		// Usually 3 tasks: load, visualize, and layout.
 		
 		if(version == PSIMIVersion.PSIMI25)
-			return new TaskIterator(3, new PSIMI25XMLNetworkViewReader(inputStream, cyApplicationManager, networkFactory, networkViewFactory, layouts, cyNetworkManager, cyRootNetworkManager));
+			return new TaskIterator(3, new PSIMI25XMLNetworkViewReader(inputStream, cyApplicationManager, networkFactory, networkViewFactory, layouts, cyNetworkManager, cyRootNetworkManager, cyTableFactory, cyTableManager, cyNetworkTableManager));
 		else
 			return new TaskIterator(3, new PSIMI10XMLNetworkViewReader(inputStream, cyApplicationManager, networkFactory, networkViewFactory, layouts, cyNetworkManager, cyRootNetworkManager));
 	}
@@ -41,17 +41,24 @@ import org.slf4j.LoggerFactory;
 public class PsiMiTabCyFileFilter implements CyFileFilter {
 
 	private final Set<String> extensions;
+	private final Set<String> compressedExtensions;
 	private final String description;
 	private final Set<String> contentTypes;
 
 	public PsiMiTabCyFileFilter() {
 		extensions = new HashSet<String>();
 		extensions.add("mitab");
+
+		// Only names like intact.mitab.gz are accepted; other compressed files
+		// are left to the other readers, or accepted by their first line
+		compressedExtensions = new HashSet<String>();
+		compressedExtensions.add("gz");
+		compressedExtensions.add("zip");
 		
 		contentTypes = new HashSet<String>();
 		contentTypes.add("text/psi-mi-tab");
 
-		this.description = "PSI-MI TAB 2.5 file";
+		this.description = "PSI-MI TAB 2.5/2.6/2.7 file";
 	}
 
 	@Override
@@ -59,11 +66,17 @@ public class PsiMiTabCyFileFilter implements CyFileFilter {
 		if (!category.equals(DataCategory.NETWORK))
 			return false;
 		
-		final String ext = CommonsIOFilenameUtils.getExtension(uri.toString());
-		if(extensions.contains(ext))
-			return true;
-		else
-			return false;
+		String name = uri.toString();
+		String ext = CommonsIOFilenameUtils.getExtension(name);
+
+		if (compressedExtensions.contains(ext)) {
+			name = name.substring(0, name.length() - ext.length() - 1);
+			ext = CommonsIOFilenameUtils.getExtension(name);
+
+			return extensions.contains(ext);
+		}
+
+		return extensions.contains(ext);
 	}
 
 
@@ -82,11 +95,13 @@ public class PsiMiTabCyFileFilter implements CyFileFilter {
 	}
 	
 	private boolean checkFirstLine(InputStream stream) throws IOException {
-		final BufferedReader reader = new BufferedReader(new InputStreamReader(stream, Charset.forName("UTF-8").newDecoder()));
+		// gzip and zip content is checked after decompression
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(MITABInput.open(stream), Charset.forName("UTF-8").newDecoder()));
 		final String line = reader.readLine();
 		
 		if (line != null) {
-			String[] parts = line.split("\t");
+			// MITAB 2.6 and 2.7 lines often end in empty columns, which count
+			String[] parts = line.split("\t", -1);
 			if(parts.length >= 15)
 				return true;
 			else {
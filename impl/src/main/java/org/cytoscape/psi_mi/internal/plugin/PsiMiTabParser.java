@@ -24,21 +24,23 @@ package org.cytoscape.psi_mi.internal.plugin;
  * #L%
  */
 
-import java.io.BufferedReader;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyRow;
 import org.cytoscape.model.CyTable;
-import org.cytoscape.model.subnetwork.CyRootNetwork;
 import org.cytoscape.model.subnetwork.CySubNetwork;
 import org.cytoscape.work.TaskMonitor;
 import org.slf4j.Logger;
@@ -48,12 +50,12 @@ public class PsiMiTabParser {
 
 	private static final Logger logger = LoggerFactory.getLogger(PsiMiTabParser.class);
 
-	private static final int BUFFER_SIZE = 100000;
 	private static final String ATTR_PREFIX = "PSIMI-25.";
 
 	// Node Attr Names
 	private static final String INTERACTOR_TYPE = ATTR_PREFIX + "interactor type";
 	private static final String ALIASES = ATTR_PREFIX + "aliases";
+	private static final String GENE_NAME = ATTR_PREFIX + "gene name";
 	private static final String TAXONIDS = ATTR_PREFIX + "taxon ID";
 	private static final String TAXONDBS = ATTR_PREFIX + "taxon DB";
 
@@ -65,223 +67,616 @@ public class PsiMiTabParser {
 	private static final String INTERACTION_TYPE_ID = ATTR_PREFIX + "interaction type ID";
 	private static final String SOURCE_DB = ATTR_PREFIX + "source DB";
 	private static final String EDGE_SCORE = ATTR_PREFIX + "edge score";
+	/** Followed by the score type, e.g. "intact-miscore". */
+	private static final String EDGE_SCORE_PREFIX = EDGE_SCORE + " ";
 	private static final String AUTHORS = ATTR_PREFIX + "authors";
 	private static final String PUBLICATION_ID = ATTR_PREFIX + "publication ID";
 	private static final String PUBLICATION_DB = ATTR_PREFIX + "publication DB";
+	private static final String EVIDENCE_COUNT = ATTR_PREFIX + "evidence count";
+
+	// Attributes of the MITAB 2.6/2.7 columns, by column index from 15
+	private static final int FIRST_EXTENDED = 15;
+	private static final String[] EXTENDED_ATTRIBUTES = {
+		ATTR_PREFIX + "expansion method",
+		ATTR_PREFIX + "source biological role", ATTR_PREFIX + "target biological role",
+		ATTR_PREFIX + "source experimental role", ATTR_PREFIX + "target experimental role",
+		INTERACTOR_TYPE, INTERACTOR_TYPE,
+		ATTR_PREFIX + "xrefs", ATTR_PREFIX + "xrefs", ATTR_PREFIX + "interaction xrefs",
+		ATTR_PREFIX + "annotations", ATTR_PREFIX + "annotations", ATTR_PREFIX + "interaction annotations",
+		ATTR_PREFIX + "host organism",
+		ATTR_PREFIX + "parameters",
+		ATTR_PREFIX + "creation date", ATTR_PREFIX + "update date",
+		ATTR_PREFIX + "checksums", ATTR_PREFIX + "checksums", ATTR_PREFIX + "interaction checksums",
+		ATTR_PREFIX + "negative",
+		ATTR_PREFIX + "source features", ATTR_PREFIX + "target features",
+		ATTR_PREFIX + "source stoichiometry", ATTR_PREFIX + "target stoichiometry",
+		ATTR_PREFIX + "source identification method", ATTR_PREFIX + "target identification method"
+	};
+	/** Extended columns of interactor A that describe the interactor itself, not its role. */
+	private static final long SOURCE_NODE_COLUMNS = 1L << 20 | 1L << 22 | 1L << 25 | 1L << 32;
+	private static final long TARGET_NODE_COLUMNS = SOURCE_NODE_COLUMNS << 1;
+	/** Extended edge columns with few distinct values. */
+	private static final long EDGE_TERM_COLUMNS = 0x1fL << 15 | 1L << 28 | 1L << 35 | 3L << 40;
 
 	// Stable IDs which maybe used for mapping later
 	private static final String CHEBI = "chebi";
 	private static final String COMPOUND = "compound";
 
+	// Alias qualifiers of the gene name, best first
+	private static final String GENE_NAME_QUALIFIER = "gene name";
+	private static final String DISPLAY_SHORT_QUALIFIER = "display_short";
+
 	private final InputStream inputStream;
 	private Map<Object, CyNode> nMap;
 	
 	private volatile boolean cancelFlag;
+	private long interactionCount;
+	/** Lines of the input read so far, including comments and rejected lines. */
+	private long lineCount;
+	private long unparsedScores;
+	private int threadCount = 1;
+	private MITABPipelineStats pipelineStats;
+	private MITABTermDictionary termDictionary;
+	private EnumSet<MITABColumn> columns = EnumSet.allOf(MITABColumn.class);
+	/** The selected MITAB 2.6/2.7 columns. */
+	private long extendedColumns;
+	/** Extended columns up to this index have their attributes. */
+	private int createdColumns;
+	private MITABLineFilter filter;
+	private MITABQuarantine quarantine = new MITABQuarantine();
+	/** Name of the input in the quarantine, may be null. */
+	private String inputName;
+	/** Set by the caller when it can count the input bytes before decompression. */
+	private MITABProgress inputProgress;
+	private MITABProgress progress;
+
+	// Nodes collect list values over the whole import, edges only over their own line.
+	private final ListAttributeAccumulator nodeLists = new ListAttributeAccumulator();
+	private final ListAttributeAccumulator edgeLists = new ListAttributeAccumulator();
+	private final TypedTermCache typedTerms = new TypedTermCache();
+	private MITABSchema schema;
+	private InteractorIndex nodeIndex;
+	/** Set when the index is shared with the imports of other networks of the same root. */
+	private InteractorIndex sharedNodeIndex;
+	/** Index entries whose node has been added to the network of this import. */
+	private final BitSet seenNodes = new BitSet();
+
+	private boolean mergeEdges;
+	private boolean mergeByInteractionType;
+	private EdgeMergeIndex edgeIndex;
+	private final Map<String, Integer> interactionTypeNumbers = new HashMap<String, Integer>();
 
 	public PsiMiTabParser(final InputStream inputStream) {
 		this.inputStream = inputStream;
+
+		// Few distinct lists, shared by many edges
+		edgeLists.intern(INTERACTION_TYPE);
+		edgeLists.intern(INTERACTION_TYPE_ID);
+		edgeLists.intern(DETECTION_METHOD);
+		edgeLists.intern(DETECTION_METHOD_ID);
+		edgeLists.intern(SOURCE_DB);
+		for (int column = FIRST_EXTENDED; column < MITABLine25.EXTENDED_COLUMN_COUNT; column++) {
+			if ((EDGE_TERM_COLUMNS & (1L << column)) != 0)
+				edgeLists.intern(EXTENDED_ATTRIBUTES[column - FIRST_EXTENDED]);
+		}
+	}
+
+	/**
+	 * @param threadCount number of threads that tokenize the input.  The network
+	 *        itself is always built by the thread that calls
+	 *        {@link #parse(CySubNetwork, TaskMonitor)}, one line at a time and in file order.
+	 */
+	public void setThreadCount(final int threadCount) {
+		this.threadCount = Math.max(1, threadCount);
+	}
+
+	/**
+	 * @param columns the optional columns to import.  The other columns are
+	 *        skipped while tokenizing and their attributes are not created.
+	 */
+	public void setColumns(final Set<MITABColumn> columns) {
+		this.columns = columns.isEmpty() ? EnumSet.noneOf(MITABColumn.class) : EnumSet.copyOf(columns);
+	}
+
+	/**
+	 * @param filter decides which lines are imported, may be null.  Its counts
+	 *        of accepted and rejected lines are logged at the end of the import.
+	 */
+	public void setFilter(final MITABLineFilter filter) {
+		this.filter = filter == null || filter.isEmpty() ? null : filter;
+	}
+
+	/**
+	 * @param quarantine counts, logs and keeps the lines that can not be
+	 *        imported, and may stop the import when there are too many of
+	 *        them.  When null, the first lines are logged.
+	 */
+	public void setQuarantine(final MITABQuarantine quarantine) {
+		this.quarantine = quarantine == null ? new MITABQuarantine() : quarantine;
+	}
+
+	/**
+	 * @param name identifies the input where rejected lines are reported, for
+	 *        imports of several files; may be null.
+	 */
+	void setInputName(final String name) {
+		this.inputName = name;
+	}
+
+	/**
+	 * @param progress counts the bytes of the input before it was decompressed,
+	 *        may be null.  Without it, the bytes the parser reads are counted.
+	 */
+	void setInputProgress(final MITABProgress progress) {
+		this.inputProgress = progress;
+	}
+
+	/**
+	 * @param mergeEdges when true, all lines about the same pair of interactors
+	 *        (in either direction) end up in one edge, whose list attributes
+	 *        collect the values of all these lines and whose
+	 *        "PSIMI-25.evidence count" column counts them.
+	 * @param byInteractionType when merging, keep lines with different
+	 *        interaction types in separate edges.
+	 */
+	public void setMergeEdges(final boolean mergeEdges, final boolean byInteractionType) {
+		this.mergeEdges = mergeEdges;
+		this.mergeByInteractionType = byInteractionType;
+	}
+
+	/**
+	 * @return timings and queue depths of the current or last import, or null
+	 *         before the first import.
+	 */
+	public MITABPipelineStats getPipelineStats() {
+		return pipelineStats;
+	}
+
+	/**
+	 * @return the vocabulary terms shared by the lines of the current or last
+	 *         import, or null before the first import.
+	 */
+	public MITABTermDictionary getTermDictionary() {
+		return termDictionary;
 	}
 
 	public void parse(final CySubNetwork network, final TaskMonitor taskMonitor) throws IOException {
-		taskMonitor.setProgress(-1.0);
 		initColumns(network);
 
-		String line = null;
-		final BufferedReader br = new BufferedReader(new InputStreamReader(inputStream, Charset.forName("UTF-8").newDecoder()), BUFFER_SIZE);
-		final MITABLine25 mline = new MITABLine25();
+		// Local files are tokenized straight from the mapped bytes.
+		final MITABChunkReader reader;
+		progress = inputProgress;
+		if (inputStream instanceof FileInputStream) {
+			final FileChannel channel = ((FileInputStream) inputStream).getChannel();
+			if (progress == null)
+				progress = MITABProgress.of(channel);
+			reader = new MappedMITABChunkReader(channel);
+		} else if (progress == null) {
+			final MITABCountingInputStream counted = new MITABCountingInputStream(inputStream);
+			progress = MITABProgress.of(counted, -1);
+			reader = new StreamMITABChunkReader(counted);
+		} else {
+			reader = new StreamMITABChunkReader(inputStream);
+		}
 
-		long interactionCount = 0;
-		
-		while ((line = br.readLine()) != null) {
-			// Check cancel state
-			if (cancelFlag) {
-				System.out.println("Loading canceld.");
-				br.close();
-				network.dispose();
-				throw new IOException("Network loading process canceled by user.");
+		// A progress set by the caller may span several inputs and keeps its clock
+		if (progress != inputProgress)
+			progress.start();
+		lineCount = 0;
+		taskMonitor.setProgress(progress.getFraction());
+
+		termDictionary = new MITABTermDictionary();
+		// Columns the filter looks at are tokenized even if they are not imported.
+		final EnumSet<MITABColumn> tokenized = EnumSet.copyOf(columns);
+		if (filter != null)
+			tokenized.addAll(filter.getColumns());
+
+		final MITABLineFormat format = new MITABLineFormat(termDictionary, MITABColumn.mask(tokenized),
+				MITABColumn.mask(columns), filter, quarantine);
+		final MITABImportPipeline pipeline = new MITABImportPipeline(reader, threadCount, format);
+		pipelineStats = pipeline.getStats();
+		pipeline.start();
+
+		schema = new MITABSchema(network.getDefaultNodeTable(), network.getDefaultEdgeTable(),
+				columns.contains(MITABColumn.SOURCE_DB), columns.contains(MITABColumn.CONFIDENCE) ? EDGE_SCORE_PREFIX : null);
+		unparsedScores = 0;
+		extendedColumns = MITABColumn.mask(columns) & ~(long) MITABLine25.ALL_COLUMNS;
+		createdColumns = FIRST_EXTENDED;
+		nodeIndex = sharedNodeIndex != null ? sharedNodeIndex : createNodeIndex(nMap);
+		seenNodes.clear();
+		edgeIndex = mergeEdges ? new EdgeMergeIndex() : null;
+
+		try {
+			// The lines of all batches are loaded into this one in turn
+			final MITABLine25 mline = format.newLine();
+			MITABParsedBatch batch;
+			boolean head = true;
+
+			while ((batch = pipeline.take()) != null) {
+				if (head) {
+					for (int i = 0; i < batch.size(); i++) {
+						mline.load(batch, i);
+						schema.plan(mline);
+					}
+					head = false;
+				}
+
+				final long start = System.nanoTime();
+				addRejects(batch.rejects);
+				applyParsed(network, batch, mline, taskMonitor);
+				pipelineStats.applied(System.nanoTime() - start);
+				lineCount += batch.lineCount;
+				checkRejected(network);
+				reportProgress(taskMonitor, lineCount);
 			}
+		} finally {
+			pipeline.close();
+		}
 
-			// Ignore comment line
-			if (line.startsWith("#"))
-				continue;
+		nodeLists.flush();
+		edgeLists.flush();
+
+		if (mergeEdges)
+			writeEvidenceCounts(network);
+
+		logger.info("Imported " + interactionCount + " interactions: " + pipelineStats);
+		logger.info("Timing: " + progress.summary(lineCount, interactionCount));
+		if (filter != null)
+			logger.info("Filter: " + filter);
+		logger.info("Vocabulary: " + termDictionary + "; " + typedTerms.size() + " typed terms, "
+				+ edgeLists.internedLists() + " shared edge lists");
+		logger.info("Schema: " + schema);
+		if (unparsedScores > 0)
+			logger.info(unparsedScores + " edge scores that are not numbers were kept in \"" + EDGE_SCORE + "\"");
+		if (quarantine.getRejected() > 0)
+			logger.warn("Quarantine: " + quarantine);
+
+		progress.endInput(lineCount, interactionCount);
+	}
+
+	/**
+	 * Adds parsed lines to the network.  Only the thread that called
+	 * {@link #parse(CySubNetwork, TaskMonitor)} writes to the network and the
+	 * node map.
+	 */
+	private void applyParsed(final CySubNetwork network, final MITABParsedBatch batch, final MITABLine25 mline,
+			final TaskMonitor taskMonitor) throws IOException {
+		for (int i = 0; i < batch.size(); i++) {
+			checkCanceled(network);
+			mline.load(batch, i);
 
 			try {
-				processFull(network, mline, line);
+				processFull(network, mline);
+				interactionCount++;
 			} catch (Exception ex) {
-				logger.warn("Could not parse this line: " + line, ex);
-				continue;
+				if (quarantine.count(MITABQuarantine.Category.NOT_IMPORTED))
+					quarantine.add(inputName, new MITABQuarantine.Reject(MITABQuarantine.Category.NOT_IMPORTED,
+							lineCount + mline.lineIndex + 1, mline.getLine(), ex.toString()));
+			} finally {
+				// Merged edges keep collecting values until the end of the import
+				if (!mergeEdges)
+					edgeLists.flush();
 			}
-			
-			if (++interactionCount % 1000 == 0)
-				taskMonitor.setStatusMessage("parsed " + interactionCount + " interactions");
+
+			reportProgress(taskMonitor, lineCount + mline.lineIndex + 1);
 		}
+	}
 
-		br.close();
+	private void reportProgress(final TaskMonitor taskMonitor, final long lines) {
+		if (progress.isDue(lines))
+			progress.report(taskMonitor, lines, "batches queued for parsing: " + pipelineStats.getParseQueueDepth()
+					+ ", parsed: " + pipelineStats.getApplyQueueDepth());
 	}
 
-	private void processFull(final CySubNetwork network, final MITABLine25 mline, final String line) {
-		mline.readLine(line);
-		
-		final String primaryKeyName = mline.srcDBs.get(0);
-		
-		if (network.getDefaultNodeTable().getColumn(primaryKeyName) == null)
-			network.getDefaultNodeTable().createColumn(primaryKeyName, String.class, true);
+	private void checkCanceled(final CySubNetwork network) throws IOException {
+		if (cancelFlag) {
+			System.out.println("Loading canceld.");
+			network.dispose();
+			throw new IOException("Network loading process canceled by user.");
+		}
+	}
+
+	/**
+	 * Hands the rejected lines of the next batch, which starts after lineCount
+	 * lines, to the quarantine.
+	 */
+	private void addRejects(final List<MITABQuarantine.Reject> rejects) throws IOException {
+		if (rejects == null)
+			return;
+
+		for (MITABQuarantine.Reject reject : rejects) {
+			reject.lineNumber += lineCount + 1;
+			quarantine.add(inputName, reject);
+		}
+	}
+
+	private void checkRejected(final CySubNetwork network) throws IOException {
+		try {
+			quarantine.checkLimit();
+		} catch (IOException e) {
+			network.dispose();
+			throw e;
+		}
+	}
+
+	private void processFull(final CySubNetwork network, final MITABLine25 mline) {
+		final String primaryKeyName = schema.nodeColumn(mline.srcDBs.get(0));
 		
 		final String sourceRawID = mline.sourceRawID;
 		final String targetRawID = mline.targetRawID;
 		
-		final CyRootNetwork rootNetwork = network.getRootNetwork();
-		final CyNode source;
-		
-		if (this.nMap.get(sourceRawID) == null){
-			source = network.addNode();
-			this.nMap.put(sourceRawID, rootNetwork.getNode(source.getSUID()));
-		} else {
-			CyNode parentNode = this.nMap.get(sourceRawID);
-			CySubNetwork subnet = (CySubNetwork) network;
-			subnet.addNode(parentNode);
-			source = subnet.getNode(parentNode.getSUID()); 
-		}
+		final int sourceIndex = nodeIndex.lookupOrInsert(sourceRawID);
+		final boolean newSource = addNode(network, sourceIndex);
+		final int targetIndex = nodeIndex.lookupOrInsert(targetRawID);
+		final boolean newTarget = addNode(network, targetIndex);
 
-		final CyNode target;
-		
-		if (this.nMap.get(targetRawID) == null){
-			target = network.addNode();
-			this.nMap.put(targetRawID, rootNetwork.getNode(target.getSUID()));
-		} else {
-			CyNode parentNode = this.nMap.get(targetRawID);
-			CySubNetwork subnet = (CySubNetwork) network;
-			subnet.addNode(parentNode);
-			target = subnet.getNode(parentNode.getSUID()); 
-		}
+		final CyNode source = network.getNode(nodeIndex.getSUID(sourceIndex));
+		final CyNode target = network.getNode(nodeIndex.getSUID(targetIndex));
 		
 		final CyRow sourceRow = network.getRow(source);
 		final CyRow targetRow = network.getRow(target);
 
-		// set various node attrs
-		sourceRow.set(CyNetwork.NAME, sourceRawID);
-		targetRow.set(CyNetwork.NAME, targetRawID);
-		sourceRow.set(primaryKeyName, sourceRawID);
-		targetRow.set(primaryKeyName, targetRawID);
-		
-		final List<String> sDB = mline.sourceDBs;
-		
-		for(int i=0; i<sDB.size(); i++) {
-			String dbName = sDB.get(i);
-			
-			if (sourceRow.getTable().getColumn(dbName) == null)
-				sourceRow.getTable().createColumn(dbName, String.class, true);
-			
-			sourceRow.set(dbName, mline.sourceIDs.get(i));
+		// Identity attributes are only written the first time a node shows up
+		// in this import; later lines can only add aliases.  Their values were
+		// not decoded while parsing, so only the first line decodes them.
+		if (newSource)
+			setIdentity(sourceRow, sourceRawID, primaryKeyName, mline.srcDBs, mline.srcAliasNames,
+					mline.srcAliasQualifiers, mline.srcTaxonIDs, mline.srcTaxonDBs);
+		if (newTarget)
+			setIdentity(targetRow, targetRawID, primaryKeyName, mline.tgtDBs, mline.tgtAliasNames,
+					mline.tgtAliasQualifiers, mline.tgtTaxonIDs, mline.tgtTaxonDBs);
+
+		if (columns.contains(MITABColumn.SOURCE_DB)) {
+			final List<String> sDB = mline.sourceDBs;
+
+			for(int i=0; i<sDB.size(); i++) {
+				String dbName = schema.nodeColumn(sDB.get(i));
+				sourceRow.set(dbName, mline.sourceIDs.get(i));
+			}
 		}
 
-		setInteractorType(sourceRow, mline.srcAliases);
-		setInteractorType(targetRow, mline.tgtAliases);
+		if (columns.contains(MITABColumn.ALIASES)) {
+			setAliases(sourceRow, mline.srcAliasNames);
+			setAliases(targetRow, mline.tgtAliasNames);
+		}
 
-		setAliases(sourceRow, mline.srcAliases, mline.srcDBs);
-		setAliases(targetRow, mline.tgtAliases, mline.tgtDBs);
+		// create edge, or find the one this line is merged into
+		final CyEdge e;
+		final boolean newEdge;
 
-		setTaxID(sourceRow, mline.srcTaxonIDs, mline.srcTaxonDBs);
-		setTaxID(targetRow, mline.tgtTaxonIDs, mline.tgtTaxonDBs);
+		if (mergeEdges) {
+			final int entry = edgeIndex.lookupOrInsert(sourceIndex, targetIndex, interactionTypeNumber(mline));
+			final long suid = edgeIndex.getSUID(entry);
+			newEdge = suid == EdgeMergeIndex.NO_SUID;
+
+			if (newEdge) {
+				e = network.addEdge(source, target, true);
+				edgeIndex.setSUID(entry, e.getSUID());
+			} else {
+				e = network.getEdge(suid);
+			}
+		} else {
+			e = network.addEdge(source, target, true);
+			newEdge = true;
+		}
 
-		// create edge
-		final CyEdge e = network.addEdge(source, target, true);
 		CyRow edgeRow = network.getRow(e);
 
 		// set various edge attrs
-		String interactionId = "unknown";
-		
-		if (mline.interactionIDs.size() > 0)
-			interactionId = mline.interactionIDs.get(0);
+		if (newEdge) {
+			String interactionId = "unknown";
+			
+			if (mline.interactionIDs.size() > 0)
+				interactionId = mline.interactionIDs.get(0);
 
-		edgeRow.set(INTERACTION, interactionId);
-		edgeRow.set(CyNetwork.NAME, sourceRawID + " (" + interactionId + ") " + targetRawID);
+			edgeRow.set(INTERACTION, interactionId);
+			edgeRow.set(CyNetwork.NAME, sourceRawID + " (" + interactionId + ") " + targetRawID);
+		}
 
-		setTypedEdgeListAttribute(edgeRow, mline.interactionTypes, INTERACTION_TYPE_ID, INTERACTION_TYPE);
-		setTypedEdgeListAttribute(edgeRow, mline.detectionMethods, DETECTION_METHOD_ID, DETECTION_METHOD);
-		setEdgeListAttribute(edgeRow, mline.sourceDBs, SOURCE_DB);
-		setEdgeListAttribute(edgeRow, mline.edgeScoreStrings, EDGE_SCORE);
+		// Columns that were only tokenized for the filter are not written.
+		if (columns.contains(MITABColumn.INTERACTION_TYPE))
+			setTypedEdgeListAttribute(edgeRow, mline.interactionTypes, INTERACTION_TYPE_ID, INTERACTION_TYPE);
+		if (columns.contains(MITABColumn.DETECTION_METHOD))
+			setTypedEdgeListAttribute(edgeRow, mline.detectionMethods, DETECTION_METHOD_ID, DETECTION_METHOD);
+		if (columns.contains(MITABColumn.SOURCE_DB))
+			setEdgeListAttribute(edgeRow, mline.sourceDBs, SOURCE_DB);
+		if (columns.contains(MITABColumn.CONFIDENCE))
+			setScores(edgeRow, mline, newEdge);
+		if (extendedColumns != 0 && mline.getColumnCount() > FIRST_EXTENDED)
+			setExtended(network, mline, sourceRow, targetRow, edgeRow);
 
 		setPublication(edgeRow, mline.publicationValues, mline.publicationDBs);
 		setAuthors(edgeRow, mline.authors);
 	}
 
+	/**
+	 * Adds the node of the given index entry to the network, creating it if the
+	 * interactor is not known yet, unless it was already seen in this import.
+	 *
+	 * @return true when the node is seen for the first time in this import.
+	 */
+	private boolean addNode(final CySubNetwork network, final int index) {
+		if (seenNodes.get(index))
+			return false;
+
+		seenNodes.set(index);
+		final long suid = nodeIndex.getSUID(index);
+
+		if (suid == InteractorIndex.NO_SUID) {
+			final CyNode node = network.addNode();
+			nodeIndex.setSUID(index, node.getSUID());
+
+			if (nMap != null)
+				nMap.put(nodeIndex.getID(index), network.getRootNetwork().getNode(node.getSUID()));
+		} else {
+			network.addNode(network.getRootNetwork().getNode(suid));
+		}
+
+		return true;
+	}
+
+	private int interactionTypeNumber(final MITABLine25 mline) {
+		if (!mergeByInteractionType || mline.interactionTypes.isEmpty())
+			return EdgeMergeIndex.NO_TYPE;
+
+		final String type = mline.interactionTypes.get(0);
+		Integer number = interactionTypeNumbers.get(type);
+
+		if (number == null) {
+			number = interactionTypeNumbers.size();
+			interactionTypeNumbers.put(type, number);
+		}
+
+		return number;
+	}
+
+	private void writeEvidenceCounts(final CySubNetwork network) {
+		for (int entry = 0; entry < edgeIndex.size(); entry++) {
+			final CyEdge edge = network.getEdge(edgeIndex.getSUID(entry));
+
+			if (edge != null)
+				network.getRow(edge).set(EVIDENCE_COUNT, edgeIndex.getCount(entry));
+		}
+	}
+
+	private void setIdentity(CyRow row, String rawID, String primaryKeyName, List<String> aliasDBs,
+			List<String> aliasNames, List<String> aliasQualifiers, List<String> taxonIDs, List<String> taxonDBs) {
+		row.set(CyNetwork.NAME, rawID);
+		row.set(primaryKeyName, rawID);
+
+		if (columns.contains(MITABColumn.ALIASES)) {
+			setInteractorType(row, aliasDBs);
+			setGeneName(row, aliasNames, aliasQualifiers);
+		}
+
+		if (columns.contains(MITABColumn.TAXONOMY))
+			setTaxID(row, taxonIDs, taxonDBs);
+	}
+
 	private void setTaxID(CyRow row, List<String> taxonIDs, List<String> taxonDBs) {
-		row.set(TAXONIDS, taxonIDs);
-		row.set(TAXONDBS, taxonDBs);
+		row.set(TAXONIDS, new ArrayList<String>(taxonIDs));
+		row.set(TAXONDBS, new ArrayList<String>(taxonDBs));
 	}
 
 	private void setPublication(CyRow row, List<String> pubID, List<String> pubDB) {
 		for (int i = 0; i < pubID.size(); i++) {
-			listAttrMapper(row, PUBLICATION_ID, pubID.get(i));
-			listAttrMapper(row, PUBLICATION_DB, pubDB.get(i));
+			edgeLists.add(row, PUBLICATION_ID, pubID.get(i));
+			edgeLists.add(row, PUBLICATION_DB, pubDB.get(i));
 		}
 	}
 
 	private void setAuthors(CyRow row, List<String> authors) {
-		for (String val : authors) {
-			listAttrMapper(row, AUTHORS, val);
-		}
+		edgeLists.addAll(row, AUTHORS, authors);
 	}
 
-	private void setAliases(CyRow row, List<String> aliases, List<String> aliasDBs) {
-		for (String s : aliases) {
-			int ind = s.indexOf('(');
-			if (ind > 0)
-				s = s.substring(0, ind);
-			listAttrMapper(row, ALIASES, s);
+	/**
+	 * @param aliases the aliases without their qualifiers, which were split
+	 *        off while tokenizing.
+	 */
+	private void setAliases(CyRow row, List<String> aliases) {
+		nodeLists.addAll(row, ALIASES, aliases);
+	}
+
+	/**
+	 * Writes the first alias qualified as gene name, or else the first short
+	 * display name.
+	 */
+	private void setGeneName(CyRow row, List<String> aliasNames, List<String> aliasQualifiers) {
+		int displayShort = -1;
+
+		for (int i = 0; i < aliasQualifiers.size(); i++) {
+			final String qualifier = aliasQualifiers.get(i);
+
+			if (qualifier.equals(GENE_NAME_QUALIFIER)) {
+				row.set(GENE_NAME, aliasNames.get(i));
+				return;
+			}
+
+			if (displayShort < 0 && qualifier.equals(DISPLAY_SHORT_QUALIFIER))
+				displayShort = i;
 		}
+
+		if (displayShort >= 0)
+			row.set(GENE_NAME, aliasNames.get(displayShort));
 	}
 
 	private void setEdgeListAttribute(CyRow row, List<String> entry, String key) {
-		for (String val : entry) {
-			listAttrMapper(row, key, val);
-		}
+		edgeLists.addAll(row, key, entry);
 	}
 
-	private void setTypedEdgeListAttribute(CyRow row, List<String> entry, String idKey, String descKey) {
-		for (String val : entry) {
-			String id = "";
-			String desc = "";
-
-			// Extract description between parens.
-			int openParen = val.indexOf('(');
-			if (openParen >= 0) {
-				int closeParen = val.indexOf(')');
-				if (closeParen > openParen)
-					desc = val.substring(openParen + 1, closeParen);
-			}
+	/**
+	 * Adds the values of the selected MITAB 2.6/2.7 columns to their list
+	 * attributes.  The attributes are only created once a line has the columns,
+	 * so a MITAB 2.5 file gets none of them.
+	 */
+	private void setExtended(final CyNetwork network, final MITABLine25 mline, final CyRow sourceRow,
+			final CyRow targetRow, final CyRow edgeRow) {
+		final int count = Math.min(mline.getColumnCount(), MITABLine25.EXTENDED_COLUMN_COUNT);
 
-			// Extract ID between quotes.
-			int firstQuote = val.indexOf('"');
-			if (firstQuote >= 0) {
-				int secondQuote = val.indexOf('"', firstQuote + 1);
-				if (secondQuote > firstQuote) {
-					id = val.substring(firstQuote + 1, secondQuote);
-				}
+		for (int column = FIRST_EXTENDED; column < count; column++) {
+			final long bit = 1L << column;
+
+			if ((extendedColumns & bit) == 0)
+				continue;
+
+			final String name = EXTENDED_ATTRIBUTES[column - FIRST_EXTENDED];
+			final boolean source = (SOURCE_NODE_COLUMNS & bit) != 0;
+			final boolean target = (TARGET_NODE_COLUMNS & bit) != 0;
+
+			if (column >= createdColumns) {
+				createListColumn(source || target ? network.getDefaultNodeTable() : network.getDefaultEdgeTable(),
+						name, String.class);
+				createdColumns = column + 1;
 			}
 
-			// If we can't parse properly, just shove the whole
-			// thing in description.
-			if (desc.equals("") || id.equals("")) {
-				listAttrMapper(row, descKey, val);
-			} else {
-				listAttrMapper(row, idKey, id);
-				listAttrMapper(row, descKey, desc);
+			final List<String> values = mline.getExtended(column);
+
+			if (values.isEmpty())
+				continue;
+
+			if (source)
+				nodeLists.addAll(sourceRow, name, values);
+			else if (target)
+				nodeLists.addAll(targetRow, name, values);
+			else
+				edgeLists.addAll(edgeRow, name, values);
+		}
+	}
+
+	/**
+	 * Writes each numeric score to the Double column of its type, keeping the
+	 * highest one if an edge has several of a type.  Other values are kept as
+	 * text, with their type, in the edge score list.
+	 */
+	private void setScores(final CyRow row, final MITABLine25 mline, final boolean newEdge) {
+		for (int i = 0; i < mline.edgeScoreStrings.size(); i++) {
+			final String type = mline.edgeScoreTypes.get(i);
+			final double score = mline.edgeScore(i);
+			final String column = Double.isNaN(score) ? null : schema.scoreColumn(type);
+
+			if (column == null) {
+				final String value = mline.edgeScoreStrings.get(i);
+				edgeLists.add(row, EDGE_SCORE, type.isEmpty() ? value : type + ":" + value);
+				unparsedScores++;
+				continue;
 			}
+
+			// A new edge has no score of the type of its first score yet
+			final Double previous = newEdge && i == 0 ? null : row.get(column, Double.class);
+
+			if (previous == null || score > previous)
+				row.set(column, score);
 		}
 	}
 
-	private void listAttrMapper(CyRow row, String attrName, String value) {
-		List<String> currentAttr = row.getList(attrName, String.class);
+	private void setTypedEdgeListAttribute(CyRow row, List<String> entry, String idKey, String descKey) {
+		for (int i = 0; i < entry.size(); i++) {
+			final TypedTermCache.Term term = typedTerms.get(entry.get(i));
+
+			if (term.id != null)
+				edgeLists.add(row, idKey, term.id);
 
-		if (currentAttr == null) {
-			currentAttr = new ArrayList<String>();
-			currentAttr.add(value);
-			row.set(attrName, currentAttr);
-		} else if (currentAttr.contains(value) == false) {
-			currentAttr.add(value);
-			row.set(attrName, currentAttr);
+			edgeLists.add(row, descKey, term.description);
 		}
 	}
 
@@ -289,29 +684,46 @@ public class PsiMiTabParser {
 		cancelFlag = true;
 	}
 
-	private void setInteractorType(CyRow row, List<String> aliases) {
+	private void setInteractorType(CyRow row, List<String> aliasDBs) {
 		// Set type if not protein
-		if (aliases.contains(CHEBI))
-			row.set(INTERACTOR_TYPE, COMPOUND);
+		if (aliasDBs.contains(CHEBI))
+			nodeLists.add(row, INTERACTOR_TYPE, COMPOUND);
 	}
 
 	private void initColumns(CyNetwork network) {
 		final CyTable nodeTable = network.getDefaultNodeTable();
-		createListColumn(nodeTable, INTERACTOR_TYPE, String.class);
-		createListColumn(nodeTable, ALIASES, String.class);
-		createListColumn(nodeTable, TAXONIDS, String.class);
-		createListColumn(nodeTable, TAXONDBS, String.class);
+		if (columns.contains(MITABColumn.ALIASES)) {
+			createListColumn(nodeTable, INTERACTOR_TYPE, String.class);
+			createListColumn(nodeTable, ALIASES, String.class);
+			if (nodeTable.getColumn(GENE_NAME) == null)
+				nodeTable.createColumn(GENE_NAME, String.class, false);
+		}
+		if (columns.contains(MITABColumn.TAXONOMY)) {
+			createListColumn(nodeTable, TAXONIDS, String.class);
+			createListColumn(nodeTable, TAXONDBS, String.class);
+		}
 
 		final CyTable edgeTable = network.getDefaultEdgeTable();
-		createListColumn(edgeTable, INTERACTION_TYPE, String.class);
-		createListColumn(edgeTable, INTERACTION_TYPE_ID, String.class);
-		createListColumn(edgeTable, DETECTION_METHOD, String.class);
-		createListColumn(edgeTable, DETECTION_METHOD_ID, String.class);
-		createListColumn(edgeTable, SOURCE_DB, String.class);
-		createListColumn(edgeTable, EDGE_SCORE, String.class);
-		createListColumn(edgeTable, AUTHORS, String.class);
-		createListColumn(edgeTable, PUBLICATION_ID, String.class);
-		createListColumn(edgeTable, PUBLICATION_DB, String.class);
+		if (columns.contains(MITABColumn.INTERACTION_TYPE)) {
+			createListColumn(edgeTable, INTERACTION_TYPE, String.class);
+			createListColumn(edgeTable, INTERACTION_TYPE_ID, String.class);
+		}
+		if (columns.contains(MITABColumn.DETECTION_METHOD)) {
+			createListColumn(edgeTable, DETECTION_METHOD, String.class);
+			createListColumn(edgeTable, DETECTION_METHOD_ID, String.class);
+		}
+		if (columns.contains(MITABColumn.SOURCE_DB))
+			createListColumn(edgeTable, SOURCE_DB, String.class);
+		if (columns.contains(MITABColumn.CONFIDENCE))
+			createListColumn(edgeTable, EDGE_SCORE, String.class);
+		if (columns.contains(MITABColumn.AUTHORS))
+			createListColumn(edgeTable, AUTHORS, String.class);
+		if (columns.contains(MITABColumn.PUBLICATION)) {
+			createListColumn(edgeTable, PUBLICATION_ID, String.class);
+			createListColumn(edgeTable, PUBLICATION_DB, String.class);
+		}
+		if (mergeEdges && edgeTable.getColumn(EVIDENCE_COUNT) == null)
+			edgeTable.createColumn(EVIDENCE_COUNT, Integer.class, false);
 	}
 
 	private void createListColumn(CyTable table, String colName, Class<?> type) {
@@ -319,7 +731,38 @@ public class PsiMiTabParser {
 			table.createListColumn(colName, String.class, false);
 	}
 
+	/**
+	 * @param nMap nodes of the target collection by key; interactors with the
+	 *        same ID reuse these nodes, and the nodes this import creates are
+	 *        added to it.
+	 */
 	public void setNodeMap(Map<Object, CyNode> nMap){
 		this.nMap = nMap;
 	}
+
+	/**
+	 * @param index interactors shared with the imports of other networks of
+	 *        the same root, so that an interactor found in several of them is
+	 *        one node of the root.  When set, the node map is only added to.
+	 */
+	void setNodeIndex(final InteractorIndex index) {
+		this.sharedNodeIndex = index;
+	}
+
+	/**
+	 * @param nMap nodes by key as in {@link #setNodeMap(Map)}, may be null.
+	 * @return an index of the interactors of the node map.
+	 */
+	static InteractorIndex createNodeIndex(final Map<Object, CyNode> nMap) {
+		final InteractorIndex index = new InteractorIndex();
+
+		if (nMap != null) {
+			for (Map.Entry<Object, CyNode> entry : nMap.entrySet()) {
+				if (entry.getKey() instanceof String && entry.getValue() != null)
+					index.setSUID(index.lookupOrInsert((String) entry.getKey()), entry.getValue().getSUID());
+			}
+		}
+
+		return index;
+	}
 }
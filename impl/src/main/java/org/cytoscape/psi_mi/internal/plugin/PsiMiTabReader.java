@@ -24,7 +24,13 @@ package org.cytoscape.psi_mi.internal.plugin;
  * #L%
  */
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.cytoscape.application.CyApplicationManager;
 import org.cytoscape.io.read.AbstractCyNetworkReader;
@@ -41,13 +47,65 @@ import org.cytoscape.view.model.CyNetworkViewFactory;
 import org.cytoscape.work.Task;
 import org.cytoscape.work.TaskIterator;
 import org.cytoscape.work.TaskMonitor;
+import org.cytoscape.work.Tunable;
+import org.cytoscape.work.util.ListMultipleSelection;
+import org.cytoscape.work.util.ListSingleSelection;
 
 public class PsiMiTabReader extends AbstractCyNetworkReader {
 	
+	private static final String EITHER_INTERACTOR = "either interactor";
+	private static final String BOTH_INTERACTORS = "both interactors";
+
 	private final CyLayoutAlgorithmManager layouts;
-	private final PsiMiTabParser parser;
+	private final List<PsiMiTabParser> parsers = new CopyOnWriteArrayList<PsiMiTabParser>();
 	private TaskMonitor parentTaskMonitor;
+	private MITABQuarantine quarantine;
 	
+	@Tunable(description = "Number of parser threads:")
+	public int parserThreads = 1;
+
+	@Tunable(description = "Columns to import:")
+	public ListMultipleSelection<String> columns;
+
+	@Tunable(description = "Merge duplicate interactions:")
+	public boolean mergeEdges = false;
+
+	@Tunable(description = "Keep interaction types apart when merging:", dependsOn = "mergeEdges=true")
+	public boolean mergeByInteractionType = true;
+
+	@Tunable(description = "Import each file of a zip archive as a separate network:")
+	public boolean splitArchive = false;
+
+	@Tunable(description = "Taxon IDs (comma separated):", groups = { "Filter" })
+	public String taxonIDs = "";
+
+	@Tunable(description = "Taxon IDs must match:", groups = { "Filter" })
+	public ListSingleSelection<String> taxonMode;
+
+	@Tunable(description = "Detection method MI IDs (comma separated):", groups = { "Filter" })
+	public String detectionMethods = "";
+
+	@Tunable(description = "Interaction type MI IDs (comma separated):", groups = { "Filter" })
+	public String interactionTypes = "";
+
+	@Tunable(description = "Source databases (comma separated):", groups = { "Filter" })
+	public String sourceDatabases = "";
+
+	@Tunable(description = "Minimum confidence score:", groups = { "Filter" })
+	public String minimumScore = "";
+
+	@Tunable(description = "Exclude self-interactions:", groups = { "Filter" })
+	public boolean excludeSelfInteractions = false;
+
+	@Tunable(description = "Number of malformed lines to log:", groups = { "Malformed lines" })
+	public int rejectSampleSize = MITABQuarantine.DEFAULT_SAMPLE_SIZE;
+
+	@Tunable(description = "Stop after this many malformed lines (-1 for no limit):", groups = { "Malformed lines" })
+	public int maxRejectedLines = -1;
+
+	@Tunable(description = "Copy malformed lines to:", params = "input=false", groups = { "Malformed lines" })
+	public File quarantineFile;
+
 	public PsiMiTabReader(
 			final InputStream is,
 			final CyApplicationManager applicationManager,
@@ -59,33 +117,39 @@ public class PsiMiTabReader extends AbstractCyNetworkReader {
 	) {
 		super(is, applicationManager, networkFactory, networkManager, rootNetworkManager);
 		this.layouts = layouts;
-		parser = new PsiMiTabParser(is);
+
+		columns = new ListMultipleSelection<String>(MITABColumn.labels());
+		columns.setSelectedValues(MITABColumn.labels());
+
+		taxonMode = new ListSingleSelection<String>(EITHER_INTERACTOR, BOTH_INTERACTORS);
+		taxonMode.setSelectedValue(EITHER_INTERACTOR);
 	}
 
 	@Override
 	public void run(TaskMonitor taskMonitor) throws Exception {
 		this.parentTaskMonitor = taskMonitor;
 		
-		CyRootNetwork rootNetwork = getRootNetwork();
-		final CySubNetwork newNetwork;
-		
-		if (rootNetwork != null)
-			newNetwork = rootNetwork.addSubNetwork();
-		else // Need to create new network with new root.
-			newNetwork = (CySubNetwork) cyNetworkFactory.createNetwork();
-		
-		parser.setNodeMap(getNodeMap());
-		
 		try {
 			taskMonitor.setTitle("Loading PSIMI-TAB File");
 			taskMonitor.setStatusMessage("Loading PSI-MI-TAB25 file.");
 			taskMonitor.setProgress(0.01);
 
-			parser.parse(newNetwork, taskMonitor);
-			networks = new CyNetwork[] { newNetwork };
+			final List<MITABZipFile.Entry> entries = splitArchive ? archiveEntries() : null;
+			quarantine = createQuarantine();
+
+			if (entries != null && !entries.isEmpty())
+				readEntries(entries, taskMonitor);
+			else
+				readNetwork(taskMonitor);
+
+			if (quarantine.getRejected() > 0)
+				taskMonitor.showMessage(TaskMonitor.Level.WARN, "Malformed lines were skipped: " + quarantine);
 
 			taskMonitor.setProgress(1.0);
 		} finally {
+			if (quarantine != null)
+				quarantine.close();
+
 			if (inputStream != null) {
 				inputStream.close();
 				inputStream = null;
@@ -93,6 +157,169 @@ public class PsiMiTabReader extends AbstractCyNetworkReader {
 		}
 	}
 
+	/**
+	 * Reads the whole input, which may be compressed, into one network.
+	 */
+	private void readNetwork(final TaskMonitor taskMonitor) throws Exception {
+		final CySubNetwork newNetwork = createNetwork(null);
+		// Progress is measured on the bytes before decompression
+		final MITABProgress progress;
+		InputStream raw = inputStream;
+		if (raw instanceof FileInputStream) {
+			progress = MITABProgress.of(((FileInputStream) raw).getChannel());
+		} else {
+			final MITABCountingInputStream counted = new MITABCountingInputStream(raw);
+			progress = MITABProgress.of(counted, -1);
+			raw = counted;
+		}
+
+		final InputStream in = MITABInput.open(raw, parserThreads);
+		final PsiMiTabParser parser = createParser(in);
+		parser.setThreadCount(parserThreads);
+		parser.setInputProgress(progress);
+
+		try {
+			parser.parse(newNetwork, taskMonitor);
+		} finally {
+			in.close();
+		}
+
+		networks = new CyNetwork[] { newNetwork };
+	}
+
+	/**
+	 * @return the files of the zip archive that is read, or null if the input
+	 *         is not a local zip archive whose files can be read independently.
+	 */
+	private List<MITABZipFile.Entry> archiveEntries() throws Exception {
+		if (!(inputStream instanceof FileInputStream)
+				|| MITABInput.sniff(inputStream) != MITABInput.Format.ZIP)
+			return null;
+
+		return MITABZipFile.entries(((FileInputStream) inputStream).getChannel());
+	}
+
+	/**
+	 * Reads every file of a zip archive into its own network.  All networks
+	 * share one root and one interactor index, so that an interactor found in
+	 * several files is one node of the root.  Only one thread may write to the
+	 * root and its tables, so the files are imported one after another, each
+	 * tokenized by parserThreads threads while it is applied.
+	 */
+	private void readEntries(final List<MITABZipFile.Entry> entries, final TaskMonitor taskMonitor) throws Exception {
+		final CySubNetwork[] subNetworks = new CySubNetwork[entries.size()];
+		CyRootNetwork root = null;
+		long size = 0;
+
+		for (int i = 0; i < subNetworks.length; i++) {
+			subNetworks[i] = createNetwork(root);
+			root = subNetworks[i].getRootNetwork();
+			subNetworks[i].getRow(subNetworks[i]).set(CyNetwork.NAME, entryName(entries.get(i)));
+			size += entries.get(i).getSize();
+		}
+
+		// One progress over the uncompressed bytes of all files
+		final MITABCountingInputStream counted = new MITABCountingInputStream(null);
+		final MITABProgress progress = MITABProgress.of(counted, size);
+		final InteractorIndex nodeIndex = PsiMiTabParser.createNodeIndex(getNodeMap());
+
+		for (int i = 0; i < subNetworks.length; i++) {
+			final MITABZipFile.Entry entry = entries.get(i);
+			final InputStream is = entry.open();
+			counted.setInput(is);
+
+			try {
+				final PsiMiTabParser parser = createParser(counted);
+				parser.setThreadCount(parserThreads);
+				parser.setInputName(entry.getName());
+				parser.setInputProgress(progress);
+				parser.setNodeIndex(nodeIndex);
+				parser.parse(subNetworks[i], taskMonitor);
+			} finally {
+				is.close();
+			}
+		}
+
+		networks = subNetworks;
+	}
+
+	/**
+	 * @param rootNetwork the root to add the network to, or null for the
+	 *        root selected by the user.
+	 */
+	private CySubNetwork createNetwork(CyRootNetwork rootNetwork) {
+		if (rootNetwork == null)
+			rootNetwork = getRootNetwork();
+
+		if (rootNetwork != null)
+			return rootNetwork.addSubNetwork();
+		else // Need to create new network with new root.
+			return (CySubNetwork) cyNetworkFactory.createNetwork();
+	}
+
+	private PsiMiTabParser createParser(final InputStream is) {
+		final PsiMiTabParser parser = new PsiMiTabParser(is);
+		parser.setNodeMap(getNodeMap());
+		parser.setColumns(MITABColumn.forLabels(columns.getSelectedValues()));
+		parser.setMergeEdges(mergeEdges, mergeByInteractionType);
+		parser.setFilter(createFilter());
+		parser.setQuarantine(quarantine);
+		parsers.add(parser);
+
+		if (cancelled)
+			parser.cancel();
+
+		return parser;
+	}
+
+	private static String entryName(final MITABZipFile.Entry entry) {
+		final String name = entry.getName().substring(entry.getName().lastIndexOf('/') + 1);
+		final int dot = name.lastIndexOf('.');
+
+		return dot > 0 ? name.substring(0, dot) : name;
+	}
+
+	private MITABLineFilter createFilter() {
+		final MITABLineFilter filter = new MITABLineFilter();
+		filter.setTaxonIDs(split(taxonIDs), BOTH_INTERACTORS.equals(taxonMode.getSelectedValue())
+				? MITABLineFilter.TaxonMode.BOTH : MITABLineFilter.TaxonMode.EITHER);
+		filter.setDetectionMethods(split(detectionMethods));
+		filter.setInteractionTypes(split(interactionTypes));
+		filter.setSourceDatabases(split(sourceDatabases));
+		filter.setExcludeSelfInteractions(excludeSelfInteractions);
+
+		final String score = minimumScore == null ? "" : minimumScore.trim();
+		if (!score.isEmpty()) {
+			try {
+				filter.setMinimumScore(Double.parseDouble(score));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Minimum confidence score is not a number: " + score);
+			}
+		}
+
+		return filter;
+	}
+
+	/**
+	 * @return one quarantine for all files that are read, so that the limit
+	 *         applies to the whole import.
+	 */
+	private MITABQuarantine createQuarantine() {
+		final MITABQuarantine quarantine = new MITABQuarantine();
+		quarantine.setSampleSize(rejectSampleSize);
+		quarantine.setMaxRejected(maxRejectedLines);
+		quarantine.setFile(quarantineFile);
+
+		return quarantine;
+	}
+
+	private static List<String> split(final String values) {
+		if (values == null || values.trim().isEmpty())
+			return new ArrayList<String>();
+
+		return Arrays.asList(values.split(","));
+	}
+
 	@Override
 	public CyNetworkView buildCyNetworkView(CyNetwork network) {
 		if (cancelled) {
@@ -123,6 +350,8 @@ public class PsiMiTabReader extends AbstractCyNetworkReader {
 	@Override
 	public void cancel() {
 		super.cancel();
-		parser.cancel();
+
+		for (PsiMiTabParser parser : parsers)
+			parser.cancel();
 	}
 }
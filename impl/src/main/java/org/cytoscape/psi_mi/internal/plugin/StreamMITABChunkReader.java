@@ -0,0 +1,99 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Reads an arbitrary stream into heap chunks of whole lines.  The partial
+ * line at the end of a read is carried over into the next chunk.  Every
+ * chunk gets its own array, so earlier chunks stay valid while they are
+ * being parsed.
+ */
+final class StreamMITABChunkReader implements MITABChunkReader {
+
+	private static final int CHUNK_SIZE = 1024 * 1024;
+
+	private final InputStream is;
+	private final int chunkSize;
+
+	private byte[] carry = new byte[0];
+	private int carryLength;
+	private boolean eof;
+
+	StreamMITABChunkReader(final InputStream is) {
+		this(is, CHUNK_SIZE);
+	}
+
+	StreamMITABChunkReader(final InputStream is, final int chunkSize) {
+		this.is = is;
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public ByteBuffer next() throws IOException {
+		if (eof && carryLength == 0)
+			return null;
+
+		byte[] buffer = new byte[Math.max(chunkSize, carryLength * 2)];
+		System.arraycopy(carry, 0, buffer, 0, carryLength);
+		int length = carryLength;
+		carryLength = 0;
+
+		while (true) {
+			while (!eof && length < buffer.length) {
+				final int n = is.read(buffer, length, buffer.length - length);
+
+				if (n < 0)
+					eof = true;
+				else
+					length += n;
+			}
+
+			if (eof)
+				return length == 0 ? null : ByteBuffer.wrap(buffer, 0, length);
+
+			int end = length;
+			while (end > 0 && buffer[end - 1] != '\n')
+				end--;
+
+			if (end > 0) {
+				carryLength = length - end;
+				if (carry.length < carryLength)
+					carry = new byte[Math.max(carryLength, carry.length * 2)];
+				System.arraycopy(buffer, end, carry, 0, carryLength);
+
+				return ByteBuffer.wrap(buffer, 0, end);
+			}
+
+			// A single line longer than the buffer
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Splits PSI-MI terms such as <code>"MI:0018"(two hybrid)</code> into their ID
+ * and description.  A file only uses a few dozen distinct interaction types
+ * and detection methods, so every distinct term is split once and looked up
+ * afterwards, instead of being cut into new Strings on every line.
+ */
+final class TypedTermCache {
+
+	/** Terms beyond this many are split every time. */
+	private static final int MAX_SIZE = 4096;
+
+	private final Map<String, Term> terms = new HashMap<String, Term>();
+
+	static final class Term {
+		/** The PSI-MI ID, or null if the term could not be split. */
+		final String id;
+		/** The description, or the whole term if it could not be split. */
+		final String description;
+
+		Term(final String id, final String description) {
+			this.id = id;
+			this.description = description;
+		}
+	}
+
+	Term get(final String value) {
+		Term term = terms.get(value);
+
+		if (term == null) {
+			term = split(value);
+
+			if (terms.size() < MAX_SIZE)
+				terms.put(value, term);
+		}
+
+		return term;
+	}
+
+	int size() {
+		return terms.size();
+	}
+
+	static Term split(final String val) {
+		String id = "";
+		String desc = "";
+
+		// Extract description between parens.
+		int openParen = val.indexOf('(');
+		if (openParen >= 0) {
+			int closeParen = val.indexOf(')');
+			if (closeParen > openParen)
+				desc = val.substring(openParen + 1, closeParen);
+		}
+
+		// Extract ID between quotes.
+		int firstQuote = val.indexOf('"');
+		if (firstQuote >= 0) {
+			int secondQuote = val.indexOf('"', firstQuote + 1);
+			if (secondQuote > firstQuote)
+				id = val.substring(firstQuote + 1, secondQuote);
+		}
+
+		// If we can't parse properly, just shove the whole
+		// thing in description.
+		if (desc.equals("") || id.equals(""))
+			return new Term(null, val);
+
+		return new Term(id, desc);
+	}
+}
@@ -29,16 +29,22 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyIdentifiable;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
 import org.cytoscape.psi_mi.internal.cyto_mapper.MapToCytoscape;
 import org.cytoscape.psi_mi.internal.data_mapper.MapPsiOneToInteractions;
 import org.cytoscape.psi_mi.internal.data_mapper.MapPsiTwoFiveToInteractions;
+import org.cytoscape.psi_mi.internal.data_mapper.ParsePipeline;
 import org.cytoscape.psi_mi.internal.model.Interaction;
 import org.cytoscape.psi_mi.internal.model.vocab.CommonVocab;
 import org.cytoscape.psi_mi.internal.model.vocab.InteractionVocab;
@@ -363,6 +369,94 @@ public class MapToCytoscapeTest {
 		assertEquals(129, network.getEdgeCount());
 	}
 
+	/**
+	 * Tests that mapping the interactions in batches, while the file is
+	 * still being parsed, gives the same network as mapping them all at once.
+	 *
+	 * @throws Exception All Exceptions.
+	 */
+	@Test
+	public void testStreamedMapping() throws Exception {
+		String[] files = { "psi_sample1.xml", "psi_sample2.xml", "dip_sample.xml", "yeast_normalised.xml",
+				"yeast_denormalised.xml", "bio_grid.xml", "cpath_p53.xml" };
+		int[] graphTypes = { MapToCytoscape.MATRIX_VIEW, MapToCytoscape.SPOKE_VIEW };
+		ContentReader reader = new ContentReader();
+
+		for (String file : files) {
+			String xml = reader.retrieveContent("src/test/resources/testData/" + file);
+
+			for (int graphType : graphTypes) {
+				List<Interaction> interactions = new ArrayList<Interaction>();
+				new MapPsiOneToInteractions(xml, interactions).doMapping();
+				CyNetwork network = networkTestSupport.getNetwork();
+				new MapToCytoscape(network, interactions, graphType).doMapping();
+
+				CyNetwork streamed = networkTestSupport.getNetwork();
+				mapStreamed(xml, new MapToCytoscape(streamed, new ArrayList<Interaction>(), graphType));
+
+				String message = file + ", graph type " + graphType;
+				assertTrue(message, network.getNodeCount() > 0);
+				assertEquals(message, network.getNodeCount(), streamed.getNodeCount());
+				assertEquals(message, network.getEdgeCount(), streamed.getEdgeCount());
+				assertEquals(message, rows(network, network.getDefaultNodeTable()),
+						rows(streamed, streamed.getDefaultNodeTable()));
+				assertEquals(message, rows(network, network.getDefaultEdgeTable()),
+						rows(streamed, streamed.getDefaultEdgeTable()));
+				assertEquals(message, rows(network, network.getDefaultNetworkTable()),
+						rows(streamed, streamed.getDefaultNetworkTable()));
+			}
+		}
+	}
+
+	/**
+	 * Maps the interactions of the file as PSIMI10XMLNetworkViewReader does,
+	 * in small batches so that the mapper is called many times.
+	 */
+	private void mapStreamed(String xml, MapToCytoscape mapper) throws Exception {
+		final MapPsiOneToInteractions parser = new MapPsiOneToInteractions(xml, new ArrayList<Interaction>());
+		ParsePipeline<Interaction> pipeline = new ParsePipeline<Interaction>("PSI-MI 1.0 test parser", 3);
+		pipeline.start(new ParsePipeline.Parser<Interaction>() {
+			@Override
+			public void parse(ParsePipeline<Interaction> out) throws Exception {
+				parser.doMapping(out);
+			}
+		});
+
+		try {
+			List<Interaction> batch;
+			while ((batch = pipeline.take()) != null) {
+				mapper.mapInteractions(batch);
+			}
+		} finally {
+			pipeline.close();
+		}
+	}
+
+	/**
+	 * @return the values of every row of the table but the SUID, with the
+	 *         names of the nodes of an edge, in an order that does not depend
+	 *         on the SUIDs.
+	 */
+	private List<String> rows(CyNetwork network, CyTable table) {
+		List<String> rows = new ArrayList<String>();
+
+		for (CyRow row : table.getAllRows()) {
+			Map<String, Object> values = new TreeMap<String, Object>(row.getAllValues());
+			values.remove(CyIdentifiable.SUID);
+
+			if (table == network.getDefaultEdgeTable()) {
+				CyEdge edge = network.getEdge(row.get(CyIdentifiable.SUID, Long.class));
+				values.put("source", getName(network, edge.getSource()));
+				values.put("target", getName(network, edge.getTarget()));
+			}
+
+			rows.add(values.toString());
+		}
+
+		Collections.sort(rows);
+		return rows;
+	}
+
 	/**
 	 * Profile Loading of HPRD Data.
 	 *
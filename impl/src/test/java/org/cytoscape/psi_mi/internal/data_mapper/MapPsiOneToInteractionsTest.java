@@ -26,10 +26,12 @@ package org.cytoscape.psi_mi.internal.data_mapper;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 import org.cytoscape.psi_mi.internal.data_mapper.MapPsiOneToInteractions;
 import org.cytoscape.psi_mi.internal.model.ExternalReference;
@@ -173,6 +175,27 @@ public class MapPsiOneToInteractionsTest {
 		assertEquals(10, interactions.size());
 	}
 
+	/**
+	 * Tests that closing the pipeline stops the mapping with a
+	 * CancellationException, although the unmarshaller wraps it.
+	 */
+	@Test
+	public void testCancelledPipeline() throws Exception {
+		String xml = readFile("src/test/resources/testData/psi_sample1.xml");
+		MapPsiOneToInteractions mapper = new MapPsiOneToInteractions(xml, new ArrayList<Interaction>());
+
+		//  The pipeline is not started, so the first batch is put on this thread
+		Thread.currentThread().interrupt();
+		try {
+			mapper.doMapping(new ParsePipeline<Interaction>("test", 1));
+			fail("Mapping was not cancelled.");
+		} catch (CancellationException e) {
+			//  Expected
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
 	/**
 	 * Validates Specific Interaction.
 	 */
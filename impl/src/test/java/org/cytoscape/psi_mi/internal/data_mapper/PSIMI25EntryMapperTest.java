@@ -0,0 +1,324 @@
+package org.cytoscape.psi_mi.internal.data_mapper;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyIdentifiable;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.CyTableFactory;
+import org.cytoscape.model.NetworkTestSupport;
+import org.cytoscape.model.TableTestSupport;
+import org.junit.Test;
+
+import psidev.psi.mi.xml.PsimiXmlReader;
+import psidev.psi.mi.xml.model.EntrySet;
+
+/**
+ * Tests mapping PSI-MI 2.5 XML while it is streamed.
+ */
+public class PSIMI25EntryMapperTest {
+
+	private static final String DIR = "src/test/resources/testData/";
+
+	private CyNetwork map(final InputStream is) throws Exception {
+		final CyNetwork network = new NetworkTestSupport().getNetwork();
+
+		try {
+			new PSIMI25EntryMapper(network).map(is);
+		} finally {
+			is.close();
+		}
+
+		return network;
+	}
+
+	@Test
+	public void testSpokeModel() throws Exception {
+		final CyNetwork network = map(new FileInputStream(DIR + "psi_sample_2_5_1.xml"));
+
+		// 40 interactors, 1 bait = 39 interactions
+		assertEquals(40, network.getNodeCount());
+		assertEquals(39, network.getEdgeCount());
+	}
+
+	@Test
+	public void testTables() throws Exception {
+		final CyNetwork network = map(new FileInputStream(DIR + "intact_21798944_arath-2011-2_04.xml"));
+
+		assertEquals(357, network.getNodeCount());
+		assertEquals(400, network.getEdgeCount());
+
+		final CyRow networkRow = network.getRow(network);
+		assertEquals("IntAct", networkRow.get("Network Source Short Label", String.class));
+		assertEquals("European Bioinformatics Institute", networkRow.get("Network Source Full Name", String.class));
+
+		final CyNode node = network.getNodeList().get(0);
+		final CyRow nodeRow = network.getRow(node);
+		assertEquals("knat1_arath", nodeRow.get(CyNetwork.NAME, String.class));
+		assertEquals("Homeobox protein knotted-1-like 1", nodeRow.get("Full Name", String.class));
+		assertEquals("protein", nodeRow.get("Interactor Type", String.class));
+		assertEquals("3702", nodeRow.get("Species (NCBI TAX ID)", String.class));
+		assertEquals("arath", nodeRow.get("Species Short Label", String.class));
+		assertEquals("KNAT1", nodeRow.get("gene name", String.class));
+		// The last alias of a type wins
+		assertEquals("BP", nodeRow.get("gene name synonym", String.class));
+
+		final CyEdge edge = network.getEdgeList().get(0);
+		final CyRow edgeRow = network.getRow(edge);
+		assertEquals("pp", edgeRow.get(CyEdge.INTERACTION, String.class));
+		assertEquals("at4g12450-knat1", edgeRow.get("Short Label", String.class));
+		assertEquals(Collections.singletonList("physical association"),
+				edgeRow.getList("Interaction Type", String.class));
+		assertEquals(Arrays.asList("Table S4, Table S6"), edgeRow.getList("figure legend", String.class));
+	}
+
+	@Test
+	public void testExperiments() throws Exception {
+		final CyNetwork network = new NetworkTestSupport().getNetwork();
+		final PSIMI25EntryMapper mapper = new PSIMI25EntryMapper(network, new TableTestSupport().getTableFactory());
+		final InputStream is = new FileInputStream(DIR + "intact_21798944_arath-2011-2_04.xml");
+
+		try {
+			mapper.map(is);
+		} finally {
+			is.close();
+		}
+
+		final CyTable experiments = mapper.getExperimentTable();
+		assertEquals(1, experiments.getRowCount());
+
+		final CyRow row = experiments.getRow(1);
+		assertEquals(Integer.valueOf(968019), row.get("Experiment ID in Entry", Integer.class));
+		assertEquals("arath-2011-2", row.get("Short Label", String.class));
+		assertEquals("two hybrid array", row.get("Interaction Detection Method", String.class));
+		assertEquals("pubmed:21798944", row.get("Publication", String.class));
+		assertEquals(Arrays.asList("yeast"), row.getList("Host Organism", String.class));
+		assertEquals(Arrays.asList("559292"), row.getList("Host Organism (NCBI TAX ID)", String.class));
+		assertEquals(Arrays.asList("2011"), row.getList("publication year", String.class));
+
+		for (CyEdge edge : network.getEdgeList())
+			assertEquals(Arrays.asList(1), network.getRow(edge).getList("Experiments", Integer.class));
+	}
+
+	@Test
+	public void testInlineExperiments() throws Exception {
+		// Expanded files repeat the experiment in every interaction
+		final String interaction = "<interaction id=\"%d\"><experimentList><experimentDescription id=\"7\">"
+				+ "<names><shortLabel>exp</shortLabel></names></experimentDescription></experimentList>"
+				+ "<participantList><participant id=\"4\"><interactorRef>1</interactorRef></participant>"
+				+ "<participant id=\"5\"><interactorRef>2</interactorRef></participant></participantList>"
+				+ "</interaction>";
+		final String xml = "<entrySet xmlns=\"net:sf:psidev:mi\" level=\"2\" version=\"5\"><entry>"
+				+ "<interactorList><interactor id=\"1\"/><interactor id=\"2\"/></interactorList><interactionList>"
+				+ String.format(interaction, 10) + String.format(interaction, 11)
+				+ "</interactionList></entry></entrySet>";
+		final CyNetwork network = new NetworkTestSupport().getNetwork();
+		final PSIMI25EntryMapper mapper = new PSIMI25EntryMapper(network, new TableTestSupport().getTableFactory());
+		mapper.map(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+
+		assertEquals(2, network.getEdgeCount());
+		assertEquals(1, mapper.getExperimentTable().getRowCount());
+		assertEquals("exp", mapper.getExperimentTable().getRow(1).get("Short Label", String.class));
+	}
+
+	@Test
+	public void testExperimentIDsOfSeveralEntries() throws Exception {
+		// Both entries describe their own experiment 1
+		final String entry = "<entry><experimentList><experimentDescription id=\"1\">"
+				+ "<names><shortLabel>%1$s</shortLabel></names></experimentDescription></experimentList><interactorList>"
+				+ "<interactor id=\"%2$d\"><names><shortLabel>%3$s</shortLabel></names></interactor>"
+				+ "<interactor id=\"%4$d\"><names><shortLabel>%5$s</shortLabel></names></interactor></interactorList>"
+				+ "<interactionList><interaction id=\"3\"><experimentList><experimentRef>1</experimentRef>"
+				+ "</experimentList><participantList><participant id=\"4\"><interactorRef>%2$d</interactorRef>"
+				+ "</participant><participant id=\"5\"><interactorRef>%4$d</interactorRef></participant>"
+				+ "</participantList></interaction></interactionList></entry>";
+		final String xml = "<entrySet xmlns=\"net:sf:psidev:mi\" level=\"2\" version=\"5\">"
+				+ String.format(entry, "first", 10, "A", 11, "B") + String.format(entry, "second", 20, "C", 21, "D")
+				+ "</entrySet>";
+		final CyNetwork network = new NetworkTestSupport().getNetwork();
+		final PSIMI25EntryMapper mapper = new PSIMI25EntryMapper(network, new TableTestSupport().getTableFactory());
+		mapper.map(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+
+		final CyTable experiments = mapper.getExperimentTable();
+		assertEquals(2, experiments.getRowCount());
+		assertEquals(2, network.getEdgeCount());
+
+		for (CyEdge edge : network.getEdgeList()) {
+			final CyRow row = network.getRow(edge);
+			final List<Integer> keys = row.getList("Experiments", Integer.class);
+			assertEquals(1, keys.size());
+
+			final CyRow experiment = experiments.getRow(keys.get(0));
+			assertEquals(Integer.valueOf(1), experiment.get("Experiment ID in Entry", Integer.class));
+			assertEquals(row.get(CyNetwork.NAME, String.class).startsWith("A") ? "first" : "second",
+					experiment.get("Short Label", String.class));
+		}
+	}
+
+	@Test
+	public void testNoExperimentsWithoutTableFactory() throws Exception {
+		final PSIMI25EntryMapper mapper = new PSIMI25EntryMapper(new NetworkTestSupport().getNetwork());
+		final InputStream is = new FileInputStream(DIR + "intact_21798944_arath-2011-2_04.xml");
+
+		try {
+			mapper.map(is);
+		} finally {
+			is.close();
+		}
+
+		assertNull(mapper.getExperimentTable());
+	}
+
+	@Test
+	public void testInlineInteractor() throws Exception {
+		final String xml = "<entrySet xmlns=\"net:sf:psidev:mi\" level=\"2\" version=\"5\"><entry>"
+				+ "<interactorList><interactor id=\"1\"><names><shortLabel>a</shortLabel></names></interactor>"
+				+ "</interactorList><interactionList><interaction id=\"3\"><participantList>"
+				+ "<participant id=\"4\"><interactorRef>1</interactorRef></participant>"
+				+ "<participant id=\"5\"><interactor id=\"2\"><names><shortLabel>b</shortLabel>"
+				+ "<alias>untyped</alias></names></interactor></participant>"
+				+ "</participantList></interaction></interactionList></entry></entrySet>";
+		// The alias without a type is skipped, as there is no column to put it in
+		final CyNetwork network = map(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+
+		assertEquals(2, network.getNodeCount());
+		assertEquals(1, network.getEdgeCount());
+
+		final CyRow edgeRow = network.getRow(network.getEdgeList().get(0));
+		assertEquals("a (pp) b", edgeRow.get(CyNetwork.NAME, String.class));
+		assertEquals(Collections.emptyList(), edgeRow.getList("Interaction Type", String.class));
+	}
+
+	@Test
+	public void testStreamMatchesEntrySet() throws Exception {
+		final CyTableFactory tableFactory = new TableTestSupport().getTableFactory();
+
+		for (String file : new String[] { "psi_sample_2_5_1.xml", "psi_sample_2_5_2.xml",
+				"intact_21798944_arath-2011-2_04.xml" }) {
+			final CyNetwork streamed = new NetworkTestSupport().getNetwork();
+			final PSIMI25EntryMapper streamMapper = new PSIMI25EntryMapper(streamed, tableFactory);
+			InputStream is = new FileInputStream(DIR + file);
+
+			try {
+				streamMapper.map(is);
+			} finally {
+				is.close();
+			}
+
+			final EntrySet entrySet;
+			is = new FileInputStream(DIR + file);
+
+			try {
+				entrySet = new PsimiXmlReader().read(is);
+			} finally {
+				is.close();
+			}
+
+			final CyNetwork mapped = new NetworkTestSupport().getNetwork();
+			final PSIMI25EntryMapper entrySetMapper = new PSIMI25EntryMapper(mapped, entrySet, tableFactory);
+			entrySetMapper.map();
+
+			assertEquals(file, rows(mapped, mapped.getDefaultNetworkTable()), rows(streamed, streamed.getDefaultNetworkTable()));
+			assertEquals(file, rows(mapped, mapped.getDefaultNodeTable()), rows(streamed, streamed.getDefaultNodeTable()));
+			assertEquals(file, rows(mapped, mapped.getDefaultEdgeTable()), rows(streamed, streamed.getDefaultEdgeTable()));
+			assertEquals(file, rows(null, entrySetMapper.getExperimentTable()), rows(null, streamMapper.getExperimentTable()));
+		}
+	}
+
+	/**
+	 * @return the values of every row of the table but the SUID, with the
+	 *         names of the nodes of an edge, in an order that does not depend
+	 *         on the SUIDs.
+	 */
+	private static List<String> rows(final CyNetwork network, final CyTable table) {
+		final List<String> rows = new ArrayList<String>();
+
+		if (table == null)
+			return rows;
+
+		for (CyRow row : table.getAllRows()) {
+			final Map<String, Object> values = new TreeMap<String, Object>(row.getAllValues());
+			values.remove(CyIdentifiable.SUID);
+
+			if (network != null && table == network.getDefaultEdgeTable()) {
+				final CyEdge edge = network.getEdge(row.get(CyIdentifiable.SUID, Long.class));
+				values.put("source", network.getRow(edge.getSource()).get(CyNetwork.NAME, String.class));
+				values.put("target", network.getRow(edge.getTarget()).get(CyNetwork.NAME, String.class));
+			}
+
+			rows.add(values.toString());
+		}
+
+		Collections.sort(rows);
+		return rows;
+	}
+
+	@Test
+	public void testMalformedTaxID() throws Exception {
+		final String xml = "<entrySet xmlns=\"net:sf:psidev:mi\" level=\"2\" version=\"5\"><entry>"
+				+ "<interactorList><interactor id=\"1\"><organism ncbiTaxId=\"human\"/></interactor>"
+				+ "</interactorList></entry></entrySet>";
+
+		try {
+			map(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+			fail("A tax ID that is not a number is a parse error");
+		} catch (XMLStreamException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("Not an NCBI taxonomy id: human"));
+		}
+	}
+
+	@Test
+	public void testPublicationWithoutDatabase() throws Exception {
+		final String xml = "<entrySet xmlns=\"net:sf:psidev:mi\" level=\"2\" version=\"5\"><entry>"
+				+ "<experimentList><experimentDescription id=\"7\"><bibref><xref>"
+				+ "<primaryRef id=\"21798944\"/></xref></bibref></experimentDescription></experimentList>"
+				+ "</entry></entrySet>";
+		final PSIMI25EntryMapper mapper = new PSIMI25EntryMapper(new NetworkTestSupport().getNetwork(),
+				new TableTestSupport().getTableFactory());
+		mapper.map(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+
+		assertEquals("21798944", mapper.getExperimentTable().getRow(1).get("Publication", String.class));
+	}
+}
@@ -0,0 +1,128 @@
+package org.cytoscape.psi_mi.internal.data_mapper;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ParsePipelineTest {
+
+	@Test
+	public void testRecordsKeepDocumentOrder() throws Exception {
+		final ParsePipeline<Integer> pipeline = new ParsePipeline<Integer>("test parser", 7);
+
+		pipeline.start(new ParsePipeline.Parser<Integer>() {
+			@Override
+			public void parse(final ParsePipeline<Integer> out) {
+				for (int i = 0; i < 1000; i++)
+					out.emit(i);
+			}
+		});
+
+		final List<Integer> records = new ArrayList<Integer>();
+		List<Integer> batch;
+
+		while ((batch = pipeline.take()) != null) {
+			assertTrue(batch.size() <= 7);
+			records.addAll(batch);
+		}
+
+		assertEquals(1000, records.size());
+
+		for (int i = 0; i < records.size(); i++)
+			assertEquals(i, records.get(i).intValue());
+
+		// The end stays visible
+		assertNull(pipeline.take());
+	}
+
+	@Test
+	public void testParserFailureIsReported() throws Exception {
+		final IOException failure = new IOException("broken");
+		final ParsePipeline<Integer> pipeline = new ParsePipeline<Integer>("test parser", 10);
+
+		pipeline.start(new ParsePipeline.Parser<Integer>() {
+			@Override
+			public void parse(final ParsePipeline<Integer> out) throws IOException {
+				for (int i = 0; i < 25; i++)
+					out.emit(i);
+
+				throw failure;
+			}
+		});
+
+		int records = 0;
+
+		try {
+			List<Integer> batch;
+
+			while ((batch = pipeline.take()) != null)
+				records += batch.size();
+
+			fail("The failure of the parser was not reported");
+		} catch (ExecutionException e) {
+			assertSame(failure, e.getCause());
+		}
+
+		// The records before the failure are still handed over
+		assertEquals(20, records);
+	}
+
+	@Test
+	public void testCloseStopsBlockedParser() throws Exception {
+		final CountDownLatch stopped = new CountDownLatch(1);
+		final ParsePipeline<Integer> pipeline = new ParsePipeline<Integer>("test parser", 1);
+
+		pipeline.start(new ParsePipeline.Parser<Integer>() {
+			@Override
+			public void parse(final ParsePipeline<Integer> out) {
+				try {
+					// Blocks once the queue is full
+					for (int i = 0; ; i++)
+						out.emit(i);
+				} finally {
+					stopped.countDown();
+				}
+			}
+		});
+
+		assertEquals(0, pipeline.take().get(0).intValue());
+		pipeline.close();
+
+		assertTrue(stopped.await(10, TimeUnit.SECONDS));
+	}
+}
@@ -0,0 +1,67 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+public class EdgeMergeIndexTest {
+
+	@Test
+	public void testPairsAreMergedInBothDirections() {
+		final EdgeMergeIndex index = new EdgeMergeIndex();
+
+		final int ab = index.lookupOrInsert(1, 2, EdgeMergeIndex.NO_TYPE);
+		assertEquals(EdgeMergeIndex.NO_SUID, index.getSUID(ab));
+		index.setSUID(ab, 42L);
+
+		assertEquals(ab, index.lookupOrInsert(2, 1, EdgeMergeIndex.NO_TYPE));
+		assertEquals(ab, index.lookupOrInsert(1, 2, EdgeMergeIndex.NO_TYPE));
+		assertEquals(42L, index.getSUID(ab));
+		assertEquals(3, index.getCount(ab));
+
+		assertNotEquals(ab, index.lookupOrInsert(1, 2, 0));
+		assertNotEquals(ab, index.lookupOrInsert(1, 1, EdgeMergeIndex.NO_TYPE));
+		assertEquals(3, index.size());
+	}
+
+	@Test
+	public void testGrowth() {
+		final EdgeMergeIndex index = new EdgeMergeIndex();
+
+		for (int i = 0; i < 50000; i++)
+			index.setSUID(index.lookupOrInsert(i, i + 1, i % 3), i);
+
+		for (int i = 0; i < 50000; i++) {
+			final int entry = index.lookupOrInsert(i + 1, i, i % 3);
+			assertEquals(i, index.getSUID(entry));
+			assertEquals(2, index.getCount(entry));
+		}
+
+		assertEquals(50000, index.size());
+	}
+}
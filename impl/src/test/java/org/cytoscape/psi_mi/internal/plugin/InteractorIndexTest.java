@@ -0,0 +1,83 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class InteractorIndexTest {
+
+	@Test
+	public void testLookupOrInsert() {
+		final InteractorIndex index = new InteractorIndex();
+		final int count = 100000;
+
+		for (int i = 0; i < count; i++) {
+			final int entry = index.lookupOrInsert("P" + i);
+			assertEquals(i, entry);
+			assertEquals(InteractorIndex.NO_SUID, index.getSUID(entry));
+			index.setSUID(entry, 1000L + i);
+		}
+
+		assertEquals(count, index.size());
+
+		for (int i = 0; i < count; i++) {
+			final int entry = index.lookupOrInsert(new String("P" + i));
+			assertEquals(i, entry);
+			assertEquals(1000L + i, index.getSUID(entry));
+			assertEquals("P" + i, index.getID(entry));
+		}
+
+		assertEquals(count, index.size());
+	}
+
+	@Test
+	public void testCollidingIDs() {
+		final InteractorIndex index = new InteractorIndex();
+
+		// "Aa" and "BB" have the same hash code
+		final int aa = index.lookupOrInsert("Aa");
+		final int bb = index.lookupOrInsert("BB");
+		final int empty = index.lookupOrInsert("");
+
+		assertEquals(3, index.size());
+		assertEquals(aa, index.lookupOrInsert("Aa"));
+		assertEquals(bb, index.lookupOrInsert("BB"));
+		assertEquals(empty, index.lookupOrInsert(""));
+	}
+
+	@Test
+	public void testNonAsciiIDs() {
+		final InteractorIndex index = new InteractorIndex();
+		final int ascii = index.lookupOrInsert("Ca2+");
+		final int accented = index.lookupOrInsert("Ca\u00b2\u207a");
+
+		assertEquals(2, index.size());
+		assertEquals(accented, index.lookupOrInsert(new String("Ca\u00b2\u207a")));
+		assertEquals(ascii, index.lookupOrInsert("Ca2+"));
+		assertEquals("Ca\u00b2\u207a", index.getID(accented));
+	}
+}
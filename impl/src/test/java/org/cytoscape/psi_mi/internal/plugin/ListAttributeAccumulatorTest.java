@@ -0,0 +1,149 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.NetworkTestSupport;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class ListAttributeAccumulatorTest {
+
+	private static final String COLUMN = "values";
+
+	private CyNetwork network;
+
+	@Before
+	public void setUp() {
+		network = new NetworkTestSupport().getNetwork();
+		network.getDefaultNodeTable().createListColumn(COLUMN, String.class, false);
+	}
+
+	@Test
+	public void testListsAreWrittenOnFlush() {
+		final CyRow row = network.getRow(network.addNode());
+		final ListAttributeAccumulator lists = new ListAttributeAccumulator();
+		final List<String> expected = new ArrayList<String>();
+
+		for (int i = 0; i < 100; i++) {
+			lists.add(row, COLUMN, "v" + (i % 20));
+			if (i < 20)
+				expected.add("v" + i);
+		}
+
+		assertNull(row.getList(COLUMN, String.class));
+
+		lists.flush();
+		assertEquals(expected, row.getList(COLUMN, String.class));
+
+		// Nothing is written twice
+		row.set(COLUMN, null);
+		lists.flush();
+		assertNull(row.getList(COLUMN, String.class));
+	}
+
+	@Test
+	public void testExistingValuesAreKept() {
+		final CyNode node = network.addNode();
+		final CyRow row = network.getRow(node);
+		row.set(COLUMN, Arrays.asList("a", "b"));
+
+		final ListAttributeAccumulator lists = new ListAttributeAccumulator();
+		lists.addAll(row, COLUMN, Arrays.asList("b", "c", "a", "d"));
+		lists.flush();
+
+		assertEquals(Arrays.asList("a", "b", "c", "d"), row.getList(COLUMN, String.class));
+	}
+
+	@Test
+	public void testInternedLists() {
+		final ListAttributeAccumulator lists = new ListAttributeAccumulator();
+		lists.intern(COLUMN);
+		final CyRow[] rows = new CyRow[10];
+
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = network.getRow(network.addNode());
+			lists.add(rows[i], COLUMN, i % 2 == 0 ? "even" : "odd");
+			lists.add(rows[i], COLUMN, "number");
+		}
+
+		lists.flush();
+
+		assertEquals(2, lists.internedLists());
+		assertEquals(Arrays.asList("odd", "number"), rows[3].getList(COLUMN, String.class));
+		assertEquals(rows[0].getList(COLUMN, String.class), rows[8].getList(COLUMN, String.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testInternedListsCanBeChanged() {
+		final ListAttributeAccumulator lists = new ListAttributeAccumulator();
+		lists.intern(COLUMN);
+
+		// The table keeps the list it is given, so look at that list itself
+		final CyRow first = mock(CyRow.class);
+		final CyRow second = mock(CyRow.class);
+		lists.addAll(first, COLUMN, Arrays.asList("a", "b"));
+		lists.addAll(second, COLUMN, Arrays.asList("a", "b"));
+		lists.flush();
+
+		final ArgumentCaptor<List> firstList = ArgumentCaptor.forClass(List.class);
+		final ArgumentCaptor<List> secondList = ArgumentCaptor.forClass(List.class);
+		verify(first).set(eq(COLUMN), firstList.capture());
+		verify(second).set(eq(COLUMN), secondList.capture());
+
+		assertEquals(1, lists.internedLists());
+		assertNotSame(firstList.getValue(), secondList.getValue());
+
+		firstList.getValue().add("c");
+		firstList.getValue().remove("a");
+		assertEquals(Arrays.asList("b", "c"), firstList.getValue());
+		assertEquals(Arrays.asList("a", "b"), secondList.getValue());
+
+		// Later rows still get the original values
+		final CyRow third = mock(CyRow.class);
+		lists.addAll(third, COLUMN, Arrays.asList("a", "b"));
+		lists.flush();
+
+		final ArgumentCaptor<List> thirdList = ArgumentCaptor.forClass(List.class);
+		verify(third).set(eq(COLUMN), thirdList.capture());
+		assertEquals(Arrays.asList("a", "b"), thirdList.getValue());
+		assertEquals(1, lists.internedLists());
+	}
+}
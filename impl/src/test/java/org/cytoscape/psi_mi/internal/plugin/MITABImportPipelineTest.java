@@ -0,0 +1,86 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.Test;
+
+public class MITABImportPipelineTest {
+
+	private static final byte[] LINE = "uniprotkb:P1\tuniprotkb:P2\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\n"
+			.getBytes(StandardCharsets.UTF_8);
+
+	@Test
+	public void testCloseDoesNotInterruptRead() throws Exception {
+		final AtomicInteger reads = new AtomicInteger();
+		final CountDownLatch reading = new CountDownLatch(1);
+		final CountDownLatch read = new CountDownLatch(1);
+		final AtomicBoolean released = new AtomicBoolean();
+		final AtomicBoolean interrupted = new AtomicBoolean();
+
+		// The second read is still in progress when the pipeline is closed
+		final MITABChunkReader reader = new MITABChunkReader() {
+			@Override
+			public ByteBuffer next() {
+				if (reads.incrementAndGet() == 2) {
+					reading.countDown();
+					while (!released.get())
+						LockSupport.parkNanos(1000000);
+
+					interrupted.set(Thread.currentThread().isInterrupted());
+					read.countDown();
+				}
+
+				return ByteBuffer.wrap(LINE);
+			}
+		};
+
+		final MITABImportPipeline pipeline = new MITABImportPipeline(reader, 1,
+				new MITABLineFormat(null, MITABLine25.ALL_COLUMNS));
+		pipeline.start();
+
+		assertTrue(reading.await(10, TimeUnit.SECONDS));
+		pipeline.close();
+		released.set(true);
+
+		assertTrue(read.await(10, TimeUnit.SECONDS));
+		assertFalse(interrupted.get());
+
+		// The reader stops after the read it was in
+		Thread.sleep(200);
+		assertEquals(2, reads.get());
+	}
+}
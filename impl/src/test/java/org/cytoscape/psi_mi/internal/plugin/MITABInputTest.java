@@ -0,0 +1,560 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.cytoscape.io.DataCategory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MITABInputTest {
+
+	private static final File BOS_TAURUS = new File("src/test/resources/testData/BIOGRID-ORGANISM-Bos_taurus-3.1.74.mitab");
+	private static final File ECOLI = new File("src/test/resources/testData/biogrid_ecoli_single_id.mitab");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testPlainFileIsNotWrapped() throws Exception {
+		final FileInputStream is = new FileInputStream(BOS_TAURUS);
+
+		try {
+			assertSame(is, MITABInput.open(is));
+			assertEquals(0, is.getChannel().position());
+		} finally {
+			is.close();
+		}
+	}
+
+	@Test
+	public void testGzipMembers() throws Exception {
+		final byte[] bos = Files.readAllBytes(BOS_TAURUS.toPath());
+		final byte[] ecoli = Files.readAllBytes(ECOLI.toPath());
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(gzip(bos));
+		out.write(gzip(ecoli));
+
+		assertArrayEquals(concat(bos, ecoli), readAll(MITABInput.open(new ByteArrayInputStream(out.toByteArray()))));
+
+		final File file = folder.newFile("bos.mitab.gz");
+		Files.write(file.toPath(), gzip(bos));
+		final FileInputStream is = new FileInputStream(file);
+
+		try {
+			assertArrayEquals(bos, readAll(MITABInput.open(is)));
+		} finally {
+			is.close();
+		}
+	}
+
+	@Test
+	public void testParallelGzipMembers() throws Exception {
+		final byte[] bos = Files.readAllBytes(BOS_TAURUS.toPath());
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final int members = 8;
+
+		for (int i = 0; i < members; i++)
+			out.write(gzip(Arrays.copyOfRange(bos, bos.length * i / members, bos.length * (i + 1) / members)));
+
+		final File file = folder.newFile("members.mitab.gz");
+		Files.write(file.toPath(), out.toByteArray());
+		final FileInputStream is = new FileInputStream(file);
+
+		try {
+			final InputStream in = MITABInput.open(is, 3);
+			assertTrue(in instanceof ParallelGzipInputStream);
+			assertArrayEquals(bos, readAll(in));
+			assertEquals(members, ((ParallelGzipInputStream) in).getParallelMembers());
+		} finally {
+			is.close();
+		}
+
+		// A single member is not split
+		final File single = folder.newFile("single.mitab.gz");
+		Files.write(single.toPath(), gzip(bos));
+		final FileInputStream singleIs = new FileInputStream(single);
+
+		try {
+			final InputStream in = MITABInput.open(singleIs, 3);
+			assertTrue(in instanceof GZIPInputStream);
+			assertArrayEquals(bos, readAll(in));
+		} finally {
+			singleIs.close();
+		}
+	}
+
+	@Test
+	public void testParallelGzipBgzf() throws Exception {
+		final byte[] bos = Files.readAllBytes(BOS_TAURUS.toPath());
+		final byte[] ecoli = Files.readAllBytes(ECOLI.toPath());
+		final byte[] data = concat(bos, ecoli);
+		final File file = folder.newFile("blocks.mitab.gz");
+		Files.write(file.toPath(), bgzf(data, 4096));
+		final FileInputStream is = new FileInputStream(file);
+
+		try {
+			final ParallelGzipInputStream in = ParallelGzipInputStream.open(is.getChannel(), 0, 2);
+			assertArrayEquals(data, readAll(in));
+			// Data blocks plus the empty end of file block
+			assertEquals((data.length + 4095) / 4096 + 1, in.getParallelMembers());
+			assertEquals(0, in.getSequentialMembers());
+		} finally {
+			is.close();
+		}
+	}
+
+	@Test
+	public void testParallelGzipHeaderInData() throws Exception {
+		// Stored data that looks like a gzip header is not a member
+		final byte[] header = new byte[] { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+		final byte[] first = concat(concat("a\tb\n".getBytes(StandardCharsets.UTF_8), header), "c\td\n".getBytes(StandardCharsets.UTF_8));
+		final byte[] second = Files.readAllBytes(ECOLI.toPath());
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(gzip(first, Deflater.NO_COMPRESSION));
+		out.write(gzip(second));
+
+		final File file = folder.newFile("stored.mitab.gz");
+		Files.write(file.toPath(), out.toByteArray());
+		final FileInputStream is = new FileInputStream(file);
+
+		try {
+			final ParallelGzipInputStream in = ParallelGzipInputStream.open(is.getChannel(), 0, 2);
+			assertArrayEquals(concat(first, second), readAll(in));
+			assertEquals(1, in.getSequentialMembers());
+		} finally {
+			is.close();
+		}
+
+		// A wrong checksum is reported
+		final byte[] corrupt = out.toByteArray();
+		corrupt[corrupt.length - 5] ^= 1;
+		Files.write(file.toPath(), corrupt);
+		final FileInputStream corruptIs = new FileInputStream(file);
+
+		try {
+			readAll(ParallelGzipInputStream.open(corruptIs.getChannel(), 0, 2));
+			fail("Corrupt member was read");
+		} catch (IOException e) {
+			// Expected
+		} finally {
+			corruptIs.close();
+		}
+	}
+
+	@Test
+	public void testDroppedCandidateIsNotInterrupted() throws Exception {
+		final byte[] header = new byte[] { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+		final byte[] first = concat(concat("a\tb\n".getBytes(StandardCharsets.UTF_8), header), "c\td\n".getBytes(StandardCharsets.UTF_8));
+		final byte[] second = Files.readAllBytes(ECOLI.toPath());
+		final byte[] gz = concat(gzip(first, Deflater.NO_COMPRESSION), gzip(second));
+		final File file = folder.newFile("dropped.mitab.gz");
+		Files.write(file.toPath(), gz);
+
+		// The false candidate's worker blocks until the reader has dropped it
+		final FileInputStream is = new FileInputStream(file);
+		final BlockingChannel channel = new BlockingChannel(is.getChannel(), indexOf(gz, header, 1));
+
+		try {
+			final ParallelGzipInputStream in = ParallelGzipInputStream.open(channel, 0, 2);
+			final byte[] buffer = new byte[first.length + second.length];
+			int length = in.read(buffer, 0, buffer.length);
+			assertTrue(channel.started.await(10, TimeUnit.SECONDS));
+
+			for (int n; (n = in.read(buffer, length, buffer.length - length)) > 0;)
+				length += n;
+
+			assertEquals(buffer.length, length);
+			assertArrayEquals(concat(first, second), buffer);
+			assertEquals(-1, in.read());
+			in.close();
+			assertTrue(channel.isOpen());
+		} finally {
+			channel.release.countDown();
+			is.close();
+		}
+	}
+
+	@Test
+	public void testParallelGzipBgzfFollowedByMembers() throws Exception {
+		// cat a.bgz b.gz c.gz
+		final byte[] bos = Files.readAllBytes(BOS_TAURUS.toPath());
+		final byte[] ecoli = Files.readAllBytes(ECOLI.toPath());
+		final byte[] tail = "e\tf\n".getBytes(StandardCharsets.UTF_8);
+		final File file = folder.newFile("mixed.mitab.gz");
+		Files.write(file.toPath(), concat(concat(bgzf(bos, 4096), gzip(ecoli)), gzip(tail)));
+		final FileInputStream is = new FileInputStream(file);
+
+		try {
+			final ParallelGzipInputStream in = ParallelGzipInputStream.open(is.getChannel(), 0, 2);
+			assertArrayEquals(concat(concat(bos, ecoli), tail), readAll(in));
+		} finally {
+			is.close();
+		}
+
+		// The output is that of GZIPInputStream
+		final FileInputStream gzipIs = new FileInputStream(file);
+
+		try {
+			assertArrayEquals(concat(concat(bos, ecoli), tail), readAll(new GZIPInputStream(gzipIs)));
+		} finally {
+			gzipIs.close();
+		}
+	}
+
+	@Test
+	public void testZipEntriesAreJoined() throws Exception {
+		final byte[] first = "a\tb\n".getBytes(StandardCharsets.UTF_8);
+		final byte[] second = "c\td".getBytes(StandardCharsets.UTF_8);
+		final byte[] zip = zip(true, "dir/", null, "dir/first.mitab", first, "__MACOSX/dir/._first.mitab", first,
+				"second.mitab", second);
+
+		assertEquals("a\tb\nc\td\n", new String(readAll(MITABInput.open(new ByteArrayInputStream(zip))), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testZipFileEntries() throws Exception {
+		final byte[] bos = Files.readAllBytes(BOS_TAURUS.toPath());
+		final byte[] ecoli = Files.readAllBytes(ECOLI.toPath());
+
+		for (boolean deflate : new boolean[] { true, false }) {
+			final File file = folder.newFile("organisms-" + deflate + ".mitab.zip");
+			Files.write(file.toPath(), zip(deflate, "BIOGRID-ORGANISM/", null, "BIOGRID-ORGANISM/Bos_taurus.mitab", bos,
+					"BIOGRID-ORGANISM/.hidden", bos, "Escherichia_coli.mitab", ecoli));
+			final FileInputStream is = new FileInputStream(file);
+
+			try {
+				final List<MITABZipFile.Entry> entries = MITABZipFile.entries(is.getChannel());
+
+				assertEquals(2, entries.size());
+				assertEquals("BIOGRID-ORGANISM/Bos_taurus.mitab", entries.get(0).getName());
+				assertEquals(bos.length, entries.get(0).getSize());
+				assertEquals("Escherichia_coli.mitab", entries.get(1).getName());
+
+				// Entries can be opened in any order and at the same time
+				final InputStream second = entries.get(1).open();
+				final InputStream first = entries.get(0).open();
+				assertArrayEquals(ecoli, readAll(second));
+				assertArrayEquals(bos, readAll(first));
+				assertEquals(0, is.getChannel().position());
+			} finally {
+				is.close();
+			}
+		}
+
+		final FileInputStream plain = new FileInputStream(BOS_TAURUS);
+		try {
+			assertNull(MITABZipFile.entries(plain.getChannel()));
+		} finally {
+			plain.close();
+		}
+	}
+
+	@Test
+	public void testFileFilter() throws Exception {
+		final PsiMiTabCyFileFilter filter = new PsiMiTabCyFileFilter();
+
+		assertEquals(Collections.singleton("mitab"), filter.getExtensions());
+		assertTrue(filter.accepts(new File("BIOGRID-ORGANISM-3.1.74.mitab.zip").toURI(), DataCategory.NETWORK));
+		assertFalse(filter.accepts(new File("intact.txt.gz").toURI(), DataCategory.NETWORK));
+		assertFalse(filter.accepts(new File("intact.xml.gz").toURI(), DataCategory.NETWORK));
+		assertFalse(filter.accepts(new File("network.zip").toURI(), DataCategory.NETWORK));
+
+		final byte[] bos = Files.readAllBytes(BOS_TAURUS.toPath());
+		assertTrue(filter.accepts(new ByteArrayInputStream(gzip(bos)), DataCategory.NETWORK));
+		assertTrue(filter.accepts(new ByteArrayInputStream(zip(true, "Bos_taurus.mitab", bos)), DataCategory.NETWORK));
+		assertFalse(filter.accepts(new ByteArrayInputStream(gzip("<xml/>".getBytes(StandardCharsets.UTF_8))), DataCategory.NETWORK));
+
+		// MITAB 2.7 line whose trailing columns are empty
+		final StringBuilder line = new StringBuilder("uniprotkb:P04637\tuniprotkb:Q00987");
+		for (int column = 2; column < 42; column++)
+			line.append(column < 14 ? "\t-" : "\t");
+		assertTrue(filter.accepts(new ByteArrayInputStream(line.toString().getBytes(StandardCharsets.UTF_8)), DataCategory.NETWORK));
+	}
+
+	private static byte[] gzip(final byte[] data) throws IOException {
+		return gzip(data, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	private static byte[] gzip(final byte[] data, final int level) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final GZIPOutputStream gz = new GZIPOutputStream(out) {
+			{
+				def.setLevel(level);
+			}
+		};
+		gz.write(data);
+		gz.close();
+
+		return out.toByteArray();
+	}
+
+	/**
+	 * Compresses the data into BGZF blocks of at most blockSize input bytes,
+	 * followed by the empty block bgzip writes at the end.
+	 */
+	private static byte[] bgzf(final byte[] data, final int blockSize) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] compressed = new byte[blockSize * 2 + 64];
+
+		for (int offset = 0; ; offset += blockSize) {
+			final int start = Math.min(offset, data.length);
+			final int length = Math.min(blockSize, data.length - start);
+			final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+			deflater.setInput(data, start, length);
+			deflater.finish();
+			final int size = deflater.deflate(compressed);
+			deflater.end();
+
+			final CRC32 crc = new CRC32();
+			crc.update(data, start, length);
+			final int total = 18 + size + 8;
+
+			out.write(new byte[] { 0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0,
+					(byte) (total - 1), (byte) ((total - 1) >>> 8) }, 0, 18);
+			out.write(compressed, 0, size);
+			writeInt(out, (int) crc.getValue());
+			writeInt(out, length);
+
+			if (length == 0)
+				return out.toByteArray();
+		}
+	}
+
+	private static void writeInt(final ByteArrayOutputStream out, final int value) {
+		for (int i = 0; i < 32; i += 8)
+			out.write(value >>> i);
+	}
+
+	/**
+	 * @param entries pairs of name and contents; directories have null contents.
+	 */
+	private static byte[] zip(final boolean deflate, final Object... entries) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ZipOutputStream zip = new ZipOutputStream(out);
+
+		for (int i = 0; i < entries.length; i += 2) {
+			final ZipEntry entry = new ZipEntry((String) entries[i]);
+			final byte[] data = entries[i + 1] == null ? new byte[0] : (byte[]) entries[i + 1];
+
+			if (!deflate) {
+				final CRC32 crc = new CRC32();
+				crc.update(data);
+				entry.setMethod(ZipEntry.STORED);
+				entry.setSize(data.length);
+				entry.setCrc(crc.getValue());
+			}
+
+			zip.putNextEntry(entry);
+			zip.write(data);
+			zip.closeEntry();
+		}
+
+		zip.close();
+		return out.toByteArray();
+	}
+
+	private static int indexOf(final byte[] data, final byte[] part, final int from) {
+		for (int i = from; i + part.length <= data.length; i++) {
+			if (Arrays.equals(Arrays.copyOfRange(data, i, i + part.length), part))
+				return i;
+		}
+
+		return -1;
+	}
+
+	private static byte[] concat(final byte[] a, final byte[] b) {
+		final byte[] result = Arrays.copyOf(a, a.length + b.length);
+		System.arraycopy(b, 0, result, a.length, b.length);
+
+		return result;
+	}
+
+	private static byte[] readAll(final InputStream is) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[8192];
+		int n;
+
+		while ((n = is.read(buffer)) >= 0)
+			out.write(buffer, 0, n);
+
+		is.close();
+		return out.toByteArray();
+	}
+
+	/**
+	 * A file channel whose worker reads at one offset block until released.
+	 * Like a real FileChannel, it is closed if a blocked read is interrupted.
+	 */
+	private static final class BlockingChannel extends FileChannel {
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		private final FileChannel channel;
+		private final long blocked;
+
+		BlockingChannel(final FileChannel channel, final long blocked) {
+			this.channel = channel;
+			this.blocked = blocked;
+		}
+
+		@Override
+		public int read(final ByteBuffer dst, final long position) throws IOException {
+			if (position == blocked && Thread.currentThread().getName().equals("gzip inflater")) {
+				boolean completed = false;
+				begin();
+
+				try {
+					started.countDown();
+					release.await();
+					completed = true;
+				} catch (InterruptedException e) {
+					// end() reports that the channel was closed
+				} finally {
+					end(completed);
+				}
+			}
+
+			return channel.read(dst, position);
+		}
+
+		@Override
+		public long size() throws IOException {
+			return channel.size();
+		}
+
+		@Override
+		public long position() throws IOException {
+			return channel.position();
+		}
+
+		@Override
+		public FileChannel position(final long newPosition) throws IOException {
+			channel.position(newPosition);
+			return this;
+		}
+
+		@Override
+		public int read(final ByteBuffer dst) throws IOException {
+			return channel.read(dst);
+		}
+
+		@Override
+		public long read(final ByteBuffer[] dsts, final int offset, final int length) throws IOException {
+			return channel.read(dsts, offset, length);
+		}
+
+		@Override
+		public int write(final ByteBuffer src) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long write(final ByteBuffer[] srcs, final int offset, final int length) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int write(final ByteBuffer src, final long position) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public FileChannel truncate(final long size) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void force(final boolean metaData) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long transferTo(final long position, final long count, final WritableByteChannel target) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long transferFrom(final ReadableByteChannel src, final long position, final long count) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public MappedByteBuffer map(final MapMode mode, final long position, final long size) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public FileLock lock(final long position, final long size, final boolean shared) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public FileLock tryLock(final long position, final long size, final boolean shared) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		protected void implCloseChannel() throws IOException {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import org.junit.Test;
+
+public class MITABLineFilterTest {
+
+	private static final String LINE = "uniprotkb:P04637\tuniprotkb:Q00987\t-\t-\t-\t-\t" +
+			"psi-mi:\"MI:0018\"(two hybrid)\t-\tpubmed:123\ttaxid:9606(human)\ttaxid:10090(mouse)\t" +
+			"psi-mi:\"MI:0915\"(physical association)\tpsi-mi:\"MI:0469\"(IntAct)\tintact:EBI-1\tintact-miscore:0.56";
+
+	private static final String SELF = "uniprotkb:P04637\tuniprotkb:P04637\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-";
+
+	@Test
+	public void testEmptyFilterAcceptsEverything() {
+		final MITABLineFilter filter = new MITABLineFilter();
+
+		assertTrue(filter.isEmpty());
+		assertTrue(filter.accept(read(LINE, filter)));
+		assertTrue(filter.accept(read(SELF, filter)));
+		assertEquals(2, filter.getAccepted());
+		assertEquals(0, filter.getRejected());
+	}
+
+	@Test
+	public void testTaxonIDs() {
+		final MITABLineFilter either = new MITABLineFilter();
+		either.setTaxonIDs(Arrays.asList("10090", " 7227"), MITABLineFilter.TaxonMode.EITHER);
+		assertTrue(either.accept(read(LINE, either)));
+
+		final MITABLineFilter both = new MITABLineFilter();
+		both.setTaxonIDs(Arrays.asList("10090"), MITABLineFilter.TaxonMode.BOTH);
+		assertFalse(both.accept(read(LINE, both)));
+
+		both.setTaxonIDs(Arrays.asList("10090", "9606"), MITABLineFilter.TaxonMode.BOTH);
+		assertTrue(both.accept(read(LINE, both)));
+
+		// A prefix of the ID is not a match
+		final MITABLineFilter prefix = new MITABLineFilter();
+		prefix.setTaxonIDs(Arrays.asList("960"), MITABLineFilter.TaxonMode.EITHER);
+		assertFalse(prefix.accept(read(LINE, prefix)));
+	}
+
+	@Test
+	public void testMITerms() {
+		final MITABLineFilter filter = new MITABLineFilter();
+		filter.setDetectionMethods(Arrays.asList("MI:0018"));
+		filter.setInteractionTypes(Arrays.asList("0915", "MI:0407"));
+		assertTrue(filter.accept(read(LINE, filter)));
+
+		filter.setDetectionMethods(Arrays.asList("MI:0019"));
+		assertFalse(filter.accept(read(LINE, filter)));
+		assertEquals(1, filter.getAccepted());
+		assertEquals(1, filter.getRejected());
+
+		// Bare numbers are padded like the IDs in the file
+		filter.setDetectionMethods(Arrays.asList("18"));
+		filter.setInteractionTypes(Arrays.asList("915"));
+		assertTrue(filter.accept(read(LINE, filter)));
+	}
+
+	@Test
+	public void testSourceDatabases() {
+		final MITABLineFilter filter = new MITABLineFilter();
+		filter.setSourceDatabases(Arrays.asList("intact"));
+		assertTrue(filter.accept(read(LINE, filter)));
+
+		filter.setSourceDatabases(Arrays.asList("MI:0469"));
+		assertTrue(filter.accept(read(LINE, filter)));
+
+		filter.setSourceDatabases(Arrays.asList("BioGRID"));
+		assertFalse(filter.accept(read(LINE, filter)));
+	}
+
+	@Test
+	public void testMinimumScore() {
+		final MITABLineFilter filter = new MITABLineFilter();
+		filter.setMinimumScore(0.5);
+		assertTrue(filter.accept(read(LINE, filter)));
+		assertFalse(filter.accept(read(SELF, filter)));
+
+		filter.setMinimumScore(0.6);
+		assertFalse(filter.accept(read(LINE, filter)));
+	}
+
+	@Test
+	public void testSelfInteractions() {
+		final MITABLineFilter filter = new MITABLineFilter();
+		filter.setExcludeSelfInteractions(true);
+		assertEquals(Collections.emptySet(), filter.getColumns());
+		assertTrue(filter.accept(read(LINE, filter)));
+		assertFalse(filter.accept(read(SELF, filter)));
+	}
+
+	@Test
+	public void testColumns() {
+		final MITABLineFilter filter = new MITABLineFilter();
+		filter.setTaxonIDs(Arrays.asList("9606"), MITABLineFilter.TaxonMode.EITHER);
+		filter.setMinimumScore(0.1);
+		assertEquals(EnumSet.of(MITABColumn.TAXONOMY, MITABColumn.CONFIDENCE), filter.getColumns());
+	}
+
+	/**
+	 * Reads the line from bytes, tokenizing only the columns the filter needs.
+	 */
+	private static MITABLine25 read(final String line, final MITABLineFilter filter) {
+		final MITABLine25 mline = new MITABLine25(new MITABTermDictionary(), MITABColumn.mask(filter.getColumns()));
+		final byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+		mline.readLine(ByteBuffer.wrap(bytes), 0, bytes.length);
+
+		return mline;
+	}
+}
@@ -30,6 +30,8 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.BufferedReader;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.Properties;
 
 import static org.junit.Assert.*;
@@ -137,4 +139,160 @@ public class MITABLineTest {
 			break;
 		}
 	}
+
+	@Test
+	public void testQuotedDelimiters() throws Exception {
+		MITABLine25 mline = new MITABLine25();
+		mline.readLine("uniprotkb:P04637|intact:EBI-366083\tuniprotkb:Q00987\t-\t-\t-\t-\t" +
+				"psi-mi:\"MI:0018\"(two hybrid)|psi-mi:\"MI:0096\"(pull down)\t\"Smith J: et al. | 2010\"\t" +
+				"pubmed:123|imex:IM-1\ttaxid:9606(human)\ttaxid:9606(human)\tpsi-mi:\"MI:0915\"(physical association)\t" +
+				"psi-mi:\"MI:0469\"(IntAct)\tintact:EBI-1\tintact-miscore:0.56");
+
+		assertEquals("P04637", mline.sourceRawID);
+		assertEquals("Q00987", mline.targetRawID);
+		assertEquals(2, mline.srcAliases.size());
+		assertEquals("intact", mline.srcDBs.get(1));
+		assertEquals("EBI-366083", mline.srcAliases.get(1));
+		assertEquals(1, mline.tgtAliases.size());
+		assertEquals(2, mline.detectionMethods.size());
+		assertEquals("\"MI:0096\"(pull down)", mline.detectionMethods.get(1));
+		assertEquals(1, mline.authors.size());
+		assertEquals("\"Smith J: et al. | 2010\"", mline.authors.get(0));
+		assertEquals("imex", mline.publicationDBs.get(1));
+		assertEquals("IM-1", mline.publicationValues.get(1));
+		assertEquals("9606(human)", mline.srcTaxonIDs.get(0));
+		assertEquals(1, mline.interactionTypes.size());
+		assertEquals("\"MI:0915\"(physical association)", mline.interactionTypes.get(0));
+		assertEquals("EBI-1", mline.interactionIDs.get(0));
+		assertEquals("intact-miscore", mline.edgeScoreTypes.get(0));
+		assertEquals("0.56", mline.edgeScoreStrings.get(0));
+	}
+
+	@Test
+	public void testAliasQualifiers() throws Exception {
+		final MITABLine25 mline = new MITABLine25();
+		mline.readLine("uniprotkb:P04637\tchebi:\"CHEBI:15422\"\tintact:EBI-366083\t-\t" +
+				"psi-mi:p53_human(display_long)|uniprotkb:TP53(gene name)|psi-mi:TP53(display_short)|uniprotkb:(odd)\t" +
+				"psi-mi:ATP(display_short)");
+		mline.decode();
+
+		assertEquals(6, mline.srcAliasNames.size());
+		assertEquals("P04637", mline.srcAliasNames.get(0));
+		assertEquals("", mline.srcAliasQualifiers.get(0));
+		assertEquals("p53_human", mline.srcAliasNames.get(2));
+		assertEquals("display_long", mline.srcAliasQualifiers.get(2));
+		assertEquals("TP53", mline.srcAliasNames.get(3));
+		assertEquals("gene name", mline.srcAliasQualifiers.get(3));
+		assertEquals("display_short", mline.srcAliasQualifiers.get(4));
+		// An alias that starts with a parenthesis is kept whole
+		assertEquals("(odd)", mline.srcAliasNames.get(5));
+		assertEquals("", mline.srcAliasQualifiers.get(5));
+
+		assertEquals("chebi", mline.tgtDBs.get(0));
+		assertEquals("\"CHEBI:15422\"", mline.tgtAliasNames.get(0));
+		assertEquals("ATP", mline.tgtAliasNames.get(1));
+		assertEquals("TP53(gene name)", mline.srcAliases.get(3));
+	}
+
+	@Test
+	public void testMITAB27Columns() throws Exception {
+		final StringBuilder line = new StringBuilder("uniprotkb:P04637\tuniprotkb:Q00987");
+		for (int column = 2; column < 15; column++)
+			line.append("\t-");
+		line.append("\tpsi-mi:\"MI:1060\"(spoke expansion)");
+		line.append("\tpsi-mi:\"MI:0499\"(unspecified role)\tpsi-mi:\"MI:0499\"(unspecified role)");
+		for (int column = 18; column < 25; column++)
+			line.append("\t-");
+		line.append("\tcomment:\"a | b\"|caution:\"x\"");
+		for (int column = 26; column < 36; column++)
+			line.append("\t-");
+		line.append("\tbinding site:1-10(\"MI:0117\")\t-\tstoichiometry:2");
+
+		final MITABLine25 narrow = new MITABLine25();
+		narrow.readLine(line.toString());
+		narrow.decode();
+		assertEquals(15, narrow.getColumnCount());
+		assertEquals(0, narrow.getExtended(15).size());
+
+		final MITABLine25 mline = new MITABLine25(new MITABTermDictionary(), MITABColumn.mask(EnumSet.of(
+				MITABColumn.EXPANSION, MITABColumn.BIOLOGICAL_ROLE, MITABColumn.ANNOTATIONS, MITABColumn.FEATURES)));
+		mline.readLine(line.toString());
+		mline.decode();
+
+		// Scanning stops after the last selected column
+		assertEquals(38, mline.getColumnCount());
+		assertEquals("P04637", mline.sourceRawID);
+		// 2.5 columns that were not selected stay empty
+		assertEquals(0, mline.detectionMethods.size());
+		assertEquals("psi-mi:\"MI:1060\"(spoke expansion)", mline.getExtended(15).get(0));
+		assertEquals("psi-mi:\"MI:0499\"(unspecified role)", mline.getExtended(17).get(0));
+		assertEquals(Arrays.asList("comment:\"a | b\"", "caution:\"x\""), mline.getExtended(25));
+		assertEquals("binding site:1-10(\"MI:0117\")", mline.getExtended(36).get(0));
+		assertEquals(0, mline.getExtended(37).size());
+		// Not selected
+		assertEquals(0, mline.getExtended(38).size());
+		assertEquals(0, mline.getExtended(20).size());
+
+		// A 2.5 line read into the same object has no extended values left
+		mline.readLine("uniprotkb:P04637\tuniprotkb:Q00987");
+		mline.decode();
+		assertEquals(2, mline.getColumnCount());
+		assertEquals(0, mline.getExtended(15).size());
+		assertEquals(0, mline.getExtended(25).size());
+
+		mline.readLine(line.toString());
+		mline.decode();
+		assertEquals(Arrays.asList("comment:\"a | b\"", "caution:\"x\""), mline.getExtended(25));
+	}
+
+	@Test
+	public void testEdgeScores() throws Exception {
+		final MITABLine25 mline = new MITABLine25();
+		mline.readLine("uniprotkb:P04637\tuniprotkb:Q00987\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t" +
+				"intact-miscore:0.56|author score:-3|author score:high|score:1.5e-3|score:12345678901234567");
+		mline.decode();
+
+		assertEquals(5, mline.edgeScoreStrings.size());
+		assertEquals(0.56, mline.edgeScore(0), 0.0);
+		assertEquals(-3.0, mline.edgeScore(1), 0.0);
+		assertTrue(Double.isNaN(mline.edgeScore(2)));
+		assertEquals("high", mline.edgeScoreStrings.get(2));
+		assertEquals(1.5e-3, mline.edgeScore(3), 0.0);
+		assertEquals(12345678901234567.0, mline.edgeScore(4), 0.0);
+
+		for (String value : new String[] { "", "-", ".", "NaN", "Infinity", "1e999", "0.5x" })
+			assertTrue(value, Double.isNaN(MITABLine25.parseScore(value, 0, value.length())));
+		for (String value : new String[] { "0.1", "0.3", "123.456", "+7", "-0.25", "5." })
+			assertEquals(value, Double.parseDouble(value), MITABLine25.parseScore(value, 0, value.length()), 0.0);
+	}
+
+	@Test
+	public void testColumnSelection() throws Exception {
+		final String line = "uniprotkb:P04637|intact:EBI-366083\tuniprotkb:Q00987\tuniprotkb:TP53\t-\t-\t-\t" +
+				"psi-mi:\"MI:0018\"(two hybrid)\t\"Smith J: et al. | 2010\"\t" +
+				"pubmed:123\ttaxid:9606(human)\ttaxid:10090(mouse)\tpsi-mi:\"MI:0915\"(physical association)\t" +
+				"psi-mi:\"MI:0469\"(IntAct)\tintact:EBI-1\tintact-miscore:0.56";
+		final MITABLine25 mline = new MITABLine25(null, MITABColumn.mask(EnumSet.of(MITABColumn.TAXONOMY)));
+		mline.readLine(line);
+
+		assertEquals("P04637", mline.sourceRawID);
+		assertEquals("Q00987", mline.targetRawID);
+		assertEquals("9606(human)", mline.srcTaxonIDs.get(0));
+		assertEquals("10090(mouse)", mline.tgtTaxonIDs.get(0));
+
+		// The ID columns still contribute their alternative IDs, the alias columns are skipped
+		assertEquals(2, mline.srcAliases.size());
+		assertEquals(0, mline.detectionMethods.size());
+		assertEquals(0, mline.authors.size());
+		assertEquals(0, mline.publicationValues.size());
+		assertEquals(0, mline.interactionTypes.size());
+		assertEquals(0, mline.interactionIDs.size());
+		assertEquals(0, mline.edgeScoreStrings.size());
+
+		final MITABLine25 scores = new MITABLine25(null, MITABColumn.mask(EnumSet.of(MITABColumn.CONFIDENCE)));
+		scores.readLine(line);
+
+		assertEquals(0, scores.srcTaxonIDs.size());
+		assertEquals("0.56", scores.edgeScoreStrings.get(0));
+	}
 }
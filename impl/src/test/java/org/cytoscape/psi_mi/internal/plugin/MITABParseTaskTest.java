@@ -0,0 +1,162 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class MITABParseTaskTest {
+
+	private final File file = new File("src/test/resources/testData/biogrid_ecoli_single_id.mitab");
+
+	@Test
+	public void testParallelParseKeepsFileOrder() throws Exception {
+		final List<String> expected = new ArrayList<String>();
+		final BufferedReader br = new BufferedReader(new FileReader(file));
+
+		try {
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (!line.isEmpty() && !line.startsWith("#"))
+					expected.add(line);
+			}
+		} finally {
+			br.close();
+		}
+
+		final List<MITABParsedBatch> parsed = new ArrayList<MITABParsedBatch>();
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		final FileInputStream is = new FileInputStream(file);
+		int chunks = 0;
+
+		try {
+			// Small chunks and leaves, so the stream is cut often and every task forks
+			final StreamMITABChunkReader reader = new StreamMITABChunkReader(is, 4096);
+			ByteBuffer chunk;
+
+			while ((chunk = reader.next()) != null) {
+				chunks++;
+				parsed.add(pool.invoke(new MITABParseTask(chunk, chunk.position(), chunk.limit(), 512, null,
+						new MITABLineFormat(new MITABTermDictionary(), MITABLine25.ALL_COLUMNS))));
+			}
+		} finally {
+			is.close();
+			pool.shutdown();
+		}
+
+		assertTrue(chunks > 1);
+
+		final MITABLine25 mline = new MITABLine25();
+		final MITABLine25 other = new MITABLine25();
+		int i = 0;
+
+		for (MITABParsedBatch batch : parsed) {
+			for (int j = 0; j < batch.size(); j++, i++) {
+				mline.readLine(expected.get(i));
+				other.load(batch, j);
+
+				assertEquals(expected.get(i), other.getLine());
+				assertEquals(mline.sourceRawID, other.sourceRawID);
+				assertEquals(mline.targetRawID, other.targetRawID);
+				assertEquals(mline.srcAliases, other.srcAliases);
+				assertEquals(mline.tgtAliases, other.tgtAliases);
+				assertEquals(mline.srcTaxonIDs, other.srcTaxonIDs);
+				assertEquals(mline.publicationValues, other.publicationValues);
+				assertEquals(mline.interactionIDs, other.interactionIDs);
+				assertEquals(mline.edgeScoreStrings, other.edgeScoreStrings);
+			}
+		}
+
+		assertEquals(expected.size(), i);
+	}
+
+	@Test
+	public void testLinesAreNumbered() throws Exception {
+		final String good = "uniprotkb:P04637\tuniprotkb:Q00987\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\n";
+		final StringBuilder text = new StringBuilder("#header\n");
+		for (int i = 0; i < 40; i++)
+			text.append(i % 10 == 3 ? "uniprotkb:P04637\n" : good);
+		text.append("\n").append(good);
+
+		final ByteBuffer chunk = ByteBuffer.wrap(text.toString().getBytes("UTF-8"));
+		final MITABQuarantine quarantine = new MITABQuarantine();
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		final MITABParsedBatch batch;
+
+		try {
+			batch = pool.invoke(new MITABParseTask(chunk, 0, chunk.limit(), 256, null,
+					new MITABLineFormat(null, MITABLine25.ALL_COLUMNS, null, quarantine)));
+		} finally {
+			pool.shutdown();
+		}
+
+		assertEquals(43, batch.lineCount);
+		assertEquals(37, batch.size());
+		assertEquals(1, batch.lineIndex(0));
+		assertEquals(42, batch.lineIndex(36));
+		assertEquals(4, quarantine.getRejected(MITABQuarantine.Category.TOO_FEW_COLUMNS));
+		assertEquals(4, batch.rejects.size());
+		assertEquals(4, batch.rejects.get(0).lineNumber);
+		assertEquals(34, batch.rejects.get(3).lineNumber);
+	}
+
+	@Test
+	public void testOnlyWrittenColumnsAreDecoded() throws Exception {
+		final String line = "uniprotkb:P04637\tuniprotkb:Q00987\t-\t-\t-\t-\tpsi-mi:\"MI:0018\"(two hybrid)\t-\t" +
+				"pubmed:123\ttaxid:9606\ttaxid:9606\t-\t-\tintact:EBI-1\t-\n";
+		final ByteBuffer chunk = ByteBuffer.wrap(line.getBytes("UTF-8"));
+		final long written = MITABColumn.mask(EnumSet.of(MITABColumn.PUBLICATION));
+		final MITABParsedBatch batch = new MITABParseTask(chunk, 0, chunk.limit(), null,
+				new MITABLineFormat(null, MITABLine25.ALL_COLUMNS, written, null, null)).compute();
+
+		final List<String> values = Arrays.asList(batch.values).subList(0, batch.valueCount);
+
+		// The raw IDs, the first ID database and the first interaction ID are always decoded
+		assertTrue(values.containsAll(Arrays.asList("P04637", "Q00987", "uniprotkb", "EBI-1", "123", "pubmed")));
+		// Columns that are not imported are left to be decoded on demand
+		assertFalse(values.contains("9606"));
+		assertFalse(values.contains("\"MI:0018\"(two hybrid)"));
+
+		final MITABLine25 mline = new MITABLine25();
+		mline.load(batch, 0);
+		assertEquals("9606", mline.srcTaxonIDs.get(0));
+		assertEquals("taxid", mline.tgtTaxonDBs.get(0));
+		assertEquals("\"MI:0018\"(two hybrid)", mline.detectionMethods.get(0));
+	}
+}
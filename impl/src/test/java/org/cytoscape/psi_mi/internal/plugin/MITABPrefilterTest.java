@@ -0,0 +1,151 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MITABPrefilterTest {
+
+	@Test
+	public void testOverlappingPatterns() {
+		final MITABPrefilter prefilter = new MITABPrefilter(groups(Arrays.asList("he", "she", "his", "hers")), new int[] { 1 });
+
+		assertTrue(accept(prefilter, "ushers"));
+		assertTrue(accept(prefilter, "ahis"));
+		assertTrue(accept(prefilter, "xxshe"));
+		assertFalse(accept(prefilter, "hxsxix"));
+		assertFalse(accept(prefilter, ""));
+	}
+
+	@Test
+	public void testAllGroupsMustMatch() {
+		final MITABPrefilter prefilter = new MITABPrefilter(Arrays.asList(
+				Arrays.asList("9606", "10090"), Collections.singletonList("MI:0018")), new int[] { 1 << 1, 1 << 2 });
+
+		assertTrue(accept(prefilter, "a\ttaxid:10090\tpsi-mi:\"MI:0018\""));
+		assertFalse(accept(prefilter, "a\ttaxid:10090\tpsi-mi:\"MI:0019\""));
+		assertFalse(accept(prefilter, "a\ttaxid:7227\tpsi-mi:\"MI:0018\""));
+	}
+
+	@Test
+	public void testOnlyLooksInTheGroupColumns() {
+		final MITABPrefilter prefilter = new MITABPrefilter(groups(Arrays.asList("9606")), new int[] { 1 << 9 | 1 << 10 });
+		final String head = "entrez gene/locuslink:19606\tentrez gene/locuslink:9606123456789\t-\t-\t-\t-\t-\t-\t-\t";
+
+		assertFalse(accept(prefilter, head + "taxid:10090\ttaxid:10090\tpsi-mi:\"MI:9606\""));
+		assertTrue(accept(prefilter, head + "taxid:10090\ttaxid:9606(human)\tpsi-mi:\"MI:0915\""));
+		assertFalse(accept(prefilter, head + "taxid:10090"));
+		// Too few columns
+		assertFalse(accept(prefilter, "entrez gene/locuslink:9606"));
+	}
+
+	@Test
+	public void testIgnoresCase() {
+		final MITABPrefilter prefilter = new MITABPrefilter(groups(Arrays.asList("IntAct")), new int[] { 1 });
+
+		assertTrue(accept(prefilter, "psi-mi:\"MI:0469\"(INTACT)"));
+		assertTrue(accept(prefilter, "psi-mi:\"MI:0469\"(intact)"));
+		assertFalse(accept(prefilter, "psi-mi:\"MI:0463\"(biogrid)"));
+	}
+
+	@Test
+	public void testCreate() {
+		final MITABLineFilter filter = new MITABLineFilter();
+		filter.setExcludeSelfInteractions(true);
+		filter.setMinimumScore(0.5);
+		assertNull(MITABPrefilter.create(filter));
+
+		filter.setTaxonIDs(Arrays.asList("9606"), MITABLineFilter.TaxonMode.BOTH);
+		filter.setInteractionTypes(Arrays.asList("MI:0915"));
+		assertEquals(1 + "9606".length() + "mi:0915".length(), MITABPrefilter.create(filter).stateCount());
+
+		final String line = "a:1\tb:2\t-\t-\t-\t-\t-\t-\t-\ttaxid:9606\ttaxid:%s\tpsi-mi:\"MI:0915\"";
+		assertTrue(accept(MITABPrefilter.create(filter), String.format(line, "9606")));
+		assertFalse(accept(MITABPrefilter.create(filter), String.format(line, "10090")));
+	}
+
+	/**
+	 * The prefilter must never reject a line the filter accepts.
+	 */
+	@Test
+	public void testNeverRejectsAcceptedLines() throws Exception {
+		final MITABLineFilter filter = new MITABLineFilter();
+		filter.setTaxonIDs(Arrays.asList("3702", "7227"), MITABLineFilter.TaxonMode.EITHER);
+		filter.setSourceDatabases(Arrays.asList("grid"));
+		final MITABPrefilter prefilter = MITABPrefilter.create(filter);
+
+		final BufferedReader br = new BufferedReader(new FileReader(
+				new File("src/test/resources/testData/BIOGRID-ORGANISM-Bos_taurus-3.1.74.mitab")));
+		int accepted = 0;
+		int prefiltered = 0;
+
+		try {
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+
+				final MITABLine25 mline = new MITABLine25(null, MITABColumn.mask(filter.getColumns()));
+				mline.readLine(line);
+
+				if (filter.accept(mline)) {
+					accepted++;
+					assertTrue(line, accept(prefilter, line));
+				}
+
+				if (!accept(prefilter, line))
+					prefiltered++;
+			}
+		} finally {
+			br.close();
+		}
+
+		assertTrue(accepted > 0);
+		assertTrue(prefiltered > 0);
+	}
+
+	private static List<List<String>> groups(final List<String> patterns) {
+		return Collections.singletonList(patterns);
+	}
+
+	private static boolean accept(final MITABPrefilter prefilter, final String line) {
+		final byte[] bytes = ("#" + line + "\n").getBytes(StandardCharsets.UTF_8);
+		return prefilter.accept(ByteBuffer.wrap(bytes), 1, bytes.length - 1);
+	}
+}
@@ -0,0 +1,173 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+
+import org.cytoscape.work.TaskMonitor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MITABProgressTest {
+
+	private final File file = new File("src/test/resources/testData/BIOGRID-ORGANISM-Bos_taurus-3.1.74.mitab");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testMappedFile() throws Exception {
+		final FileInputStream is = new FileInputStream(file);
+
+		try {
+			final MITABProgress progress = MITABProgress.of(is.getChannel());
+			final MappedMITABChunkReader reader = new MappedMITABChunkReader(is.getChannel(), 4096);
+			assertEquals(file.length(), progress.getSize());
+			assertEquals(0.0, progress.getFraction(), 0.0);
+
+			reader.next();
+			assertTrue(progress.getBytesRead() > 0);
+			assertTrue(progress.getFraction() < 1.0);
+
+			while (reader.next() != null)
+				;
+			assertEquals(file.length(), progress.getBytesRead());
+			assertEquals(1.0, progress.getFraction(), 0.0);
+		} finally {
+			is.close();
+		}
+	}
+
+	@Test
+	public void testCompressedBytesAreCounted() throws Exception {
+		final byte[] data = Files.readAllBytes(file.toPath());
+		final byte[] gz = gzip(data);
+
+		// A stream of unknown size
+		final MITABCountingInputStream counted = new MITABCountingInputStream(new ByteArrayInputStream(gz));
+		final MITABProgress streamProgress = MITABProgress.of(counted, -1);
+		assertEquals(data.length, drain(MITABInput.open(counted)));
+		assertEquals(gz.length, streamProgress.getBytesRead());
+		assertEquals(-1.0, streamProgress.getFraction(), 0.0);
+
+		// A local file, inflated by one and by several threads
+		final File gzFile = folder.newFile("members.mitab.gz");
+		final FileOutputStream out = new FileOutputStream(gzFile);
+		for (int i = 0; i < 4; i++)
+			out.write(gz);
+		out.close();
+
+		for (int threads = 1; threads <= 2; threads++) {
+			final FileInputStream is = new FileInputStream(gzFile);
+
+			try {
+				final MITABProgress progress = MITABProgress.of(is.getChannel());
+				assertEquals(4 * data.length, drain(MITABInput.open(is, threads)));
+				assertEquals(gzFile.length(), progress.getBytesRead());
+				assertEquals(1.0, progress.getFraction(), 0.0);
+			} finally {
+				is.close();
+			}
+		}
+	}
+
+	@Test
+	public void testReportsAreThrottled() throws Exception {
+		final MITABCountingInputStream counted = new MITABCountingInputStream(new ByteArrayInputStream(new byte[1000]));
+		final MITABProgress progress = MITABProgress.of(counted, 1000);
+		final TaskMonitor monitor = mock(TaskMonitor.class);
+
+		assertFalse(progress.isDue(1));
+		drain(counted);
+		Thread.sleep(MITABProgress.UPDATE_INTERVAL / 1000000 + 10);
+		assertFalse(progress.isDue(10));
+		assertTrue(progress.isDue(1000));
+		assertFalse(progress.isDue(2000));
+
+		progress.report(monitor, 1000, "detail");
+		verify(monitor).setProgress(1.0);
+		verify(monitor).setStatusMessage(contains("lines/s"));
+
+		final TaskMonitor unknown = mock(TaskMonitor.class);
+		MITABProgress.of(counted, -1).report(unknown, 1000, null);
+		verify(unknown, never()).setProgress(anyDouble());
+	}
+
+	@Test
+	public void testSeveralInputs() throws Exception {
+		final MITABCountingInputStream counted = new MITABCountingInputStream(new ByteArrayInputStream(new byte[300]));
+		final MITABProgress progress = MITABProgress.of(counted, 1000);
+
+		drain(counted);
+		progress.endInput(3, 2);
+		assertEquals(0.3, progress.getFraction(), 1e-9);
+
+		// The next input goes on from there
+		counted.setInput(new ByteArrayInputStream(new byte[700]));
+		drain(counted);
+		assertEquals(1000, progress.getBytesRead());
+		assertEquals(1.0, progress.getFraction(), 0.0);
+		assertTrue(progress.summary(7, 5), progress.summary(7, 5).startsWith("10 lines, 7 interactions, 1000 bytes"));
+	}
+
+	private static long drain(final InputStream in) throws IOException {
+		final byte[] buffer = new byte[8192];
+		long total = 0;
+		int n;
+
+		while ((n = in.read(buffer)) >= 0)
+			total += n;
+
+		in.close();
+		return total;
+	}
+
+	private static byte[] gzip(final byte[] data) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final GZIPOutputStream gz = new GZIPOutputStream(out);
+		gz.write(data);
+		gz.close();
+
+		return out.toByteArray();
+	}
+}
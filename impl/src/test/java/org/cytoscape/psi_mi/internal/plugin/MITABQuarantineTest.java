@@ -0,0 +1,106 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MITABQuarantineTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSampleIsBounded() throws Exception {
+		final MITABQuarantine quarantine = new MITABQuarantine();
+		quarantine.setSampleSize(2);
+
+		for (int line = 1; line <= 5; line++) {
+			if (quarantine.count(MITABQuarantine.Category.MALFORMED))
+				quarantine.add(null, new MITABQuarantine.Reject(MITABQuarantine.Category.MALFORMED, line, "bad", null));
+		}
+		assertFalse(quarantine.count(MITABQuarantine.Category.TOO_FEW_COLUMNS));
+
+		assertEquals(6, quarantine.getRejected());
+		assertEquals(5, quarantine.getRejected(MITABQuarantine.Category.MALFORMED));
+		assertEquals(1, quarantine.getRejected(MITABQuarantine.Category.TOO_FEW_COLUMNS));
+		assertEquals(0, quarantine.getRejected(MITABQuarantine.Category.NOT_IMPORTED));
+
+		final List<String> sample = quarantine.getSample();
+		assertEquals(2, sample.size());
+		assertEquals("Line 1 (malformed)", sample.get(0));
+		assertEquals("Line 2 (malformed)", sample.get(1));
+		assertEquals("6 lines rejected: 1 too few columns, 5 malformed", quarantine.toString());
+	}
+
+	@Test
+	public void testQuarantineFile() throws Exception {
+		final File file = new File(folder.getRoot(), "rejects.mitab");
+		final MITABQuarantine quarantine = new MITABQuarantine();
+		quarantine.setSampleSize(0);
+		quarantine.setFile(file);
+
+		assertTrue(quarantine.count(MITABQuarantine.Category.TOO_FEW_COLUMNS));
+		quarantine.add("a.txt", new MITABQuarantine.Reject(MITABQuarantine.Category.TOO_FEW_COLUMNS, 3, "uniprotkb:P04637", null));
+		assertTrue(quarantine.count(MITABQuarantine.Category.NOT_IMPORTED));
+		quarantine.add(null, new MITABQuarantine.Reject(MITABQuarantine.Category.NOT_IMPORTED, 7, "x\ty", "java.lang.IllegalStateException: no"));
+		quarantine.close();
+
+		assertEquals(0, quarantine.getSample().size());
+		assertEquals("# a.txt, line 3 (too few columns)\nuniprotkb:P04637\n"
+				+ "# Line 7 (not imported): java.lang.IllegalStateException: no\nx\ty\n",
+				new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testLimit() throws Exception {
+		final MITABQuarantine quarantine = new MITABQuarantine();
+		quarantine.setMaxRejected(2);
+
+		quarantine.count(MITABQuarantine.Category.MALFORMED);
+		quarantine.count(MITABQuarantine.Category.MALFORMED);
+		quarantine.checkLimit();
+		quarantine.count(MITABQuarantine.Category.NOT_IMPORTED);
+
+		try {
+			quarantine.checkLimit();
+			fail("limit not enforced");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("3 malformed lines"));
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.NetworkTestSupport;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MITABSchemaTest {
+
+	private static final String PREFIX = "score ";
+
+	private CyTable nodeTable;
+	private CyTable edgeTable;
+	private MITABSchema schema;
+
+	@Before
+	public void setUp() {
+		final CyNetwork network = new NetworkTestSupport().getNetwork();
+		nodeTable = network.getDefaultNodeTable();
+		edgeTable = network.getDefaultEdgeTable();
+		schema = new MITABSchema(nodeTable, edgeTable, true, PREFIX);
+	}
+
+	@Test
+	public void testPlannedColumns() {
+		final MITABLine25 mline = new MITABLine25();
+		mline.readLine("uniprotkb:P04637\tuniprotkb:Q00987\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t" +
+				"psi-mi:\"MI:0469\"(IntAct)\tintact:EBI-1\tintact-miscore:0.56");
+		mline.decode();
+
+		schema.plan(mline);
+
+		// The columns exist before any line is applied
+		assertEquals(String.class, nodeTable.getColumn("uniprotkb").getType());
+		assertEquals(String.class, nodeTable.getColumn("psi-mi").getType());
+		assertEquals(Double.class, edgeTable.getColumn(PREFIX + "intact-miscore").getType());
+
+		assertEquals("uniprotkb", schema.nodeColumn("uniprotkb"));
+		assertEquals(PREFIX + "intact-miscore", schema.scoreColumn("intact-miscore"));
+		assertEquals("3 columns planned from the first 1 lines, 0 added later", schema.toString());
+	}
+
+	@Test
+	public void testUnplannedColumn() {
+		assertNull(nodeTable.getColumn("chebi"));
+
+		assertEquals("chebi", schema.nodeColumn("chebi"));
+		assertNotNull(nodeTable.getColumn("chebi"));
+		assertEquals(String.class, nodeTable.getColumn("chebi").getType());
+
+		// Known from now on
+		assertEquals("chebi", schema.nodeColumn("chebi"));
+		assertEquals("0 columns planned from the first 0 lines, 1 added later", schema.toString());
+	}
+
+	@Test
+	public void testScoreColumnOfAnotherType() {
+		edgeTable.createColumn(PREFIX + "author score", String.class, false);
+
+		assertNull(schema.scoreColumn("author score"));
+		assertNull(schema.scoreColumn("author score"));
+		assertEquals(String.class, edgeTable.getColumn(PREFIX + "author score").getType());
+
+		assertEquals(PREFIX + "unknown", schema.scoreColumn(""));
+		assertEquals(Double.class, edgeTable.getColumn(PREFIX + "unknown").getType());
+	}
+}
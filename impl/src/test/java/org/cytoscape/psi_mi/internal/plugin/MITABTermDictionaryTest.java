@@ -0,0 +1,75 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class MITABTermDictionaryTest {
+
+	private static final String LINE = "uniprotkb:P04637\tuniprotkb:Q00987\t-\t-\t-\t-\t" +
+			"psi-mi:\"MI:0018\"(two hybrid)\tSmith J\tpubmed:123\ttaxid:9606\ttaxid:9606\t" +
+			"psi-mi:\"MI:0915\"(physical association)\tpsi-mi:\"MI:0469\"(IntAct)\tintact:EBI-1\t-";
+
+	@Test
+	public void testTermsAreShared() throws Exception {
+		final MITABTermDictionary dictionary = new MITABTermDictionary();
+		final MITABLine25 first = new MITABLine25(dictionary);
+		final MITABLine25 second = new MITABLine25(dictionary);
+		final byte[] bytes = LINE.getBytes(StandardCharsets.UTF_8);
+
+		first.readLine(LINE);
+		second.readLine(ByteBuffer.wrap(bytes), 0, bytes.length);
+
+		assertEquals("\"MI:0915\"(physical association)", second.interactionTypes.get(0));
+		assertSame(first.interactionTypes.get(0), second.interactionTypes.get(0));
+		assertSame(first.srcTaxonIDs.get(0), second.tgtTaxonIDs.get(0));
+		assertSame(first.srcDBs.get(0), second.tgtDBs.get(0));
+
+		// Identifiers are not part of the vocabulary
+		assertNotSame(first.interactionIDs.get(0), second.interactionIDs.get(0));
+		assertEquals(first.interactionIDs.get(0), second.interactionIDs.get(0));
+
+		assertEquals(3, dictionary.getHits());
+	}
+
+	@Test
+	public void testNonAsciiTermsAreDecoded() throws Exception {
+		final String line = LINE.replace("taxid:9606\ttaxid:9606", "taxid:9606(Homo sapiens é)\ttaxid:9606(Homo sapiens é)");
+		final byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+		final MITABLine25 mline = new MITABLine25(new MITABTermDictionary());
+
+		mline.readLine(ByteBuffer.wrap(bytes), 0, bytes.length);
+
+		assertEquals("9606(Homo sapiens é)", mline.srcTaxonIDs.get(0));
+		assertEquals("9606(Homo sapiens é)", mline.tgtTaxonIDs.get(0));
+	}
+}
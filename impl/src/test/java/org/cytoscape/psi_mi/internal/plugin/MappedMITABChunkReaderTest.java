@@ -0,0 +1,103 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+public class MappedMITABChunkReaderTest {
+
+	private final File file = new File("src/test/resources/testData/BIOGRID-ORGANISM-Bos_taurus-3.1.74.mitab");
+
+	@Test
+	public void testChunksEndOnLineBoundaries() throws Exception {
+		final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+		final FileInputStream is = new FileInputStream(file);
+		int chunks = 0;
+
+		try {
+			// Smaller than most lines, so windows have to grow
+			final MappedMITABChunkReader reader = new MappedMITABChunkReader(is.getChannel(), 64);
+			ByteBuffer chunk;
+
+			while ((chunk = reader.next()) != null) {
+				chunks++;
+				assertTrue(chunk.limit() == chunk.capacity() || chunk.get(chunk.limit() - 1) == '\n');
+
+				for (int i = chunk.position(); i < chunk.limit(); i++)
+					copy.write(chunk.get(i));
+			}
+		} finally {
+			is.close();
+		}
+
+		assertTrue(chunks > 1);
+		assertArrayEquals(Files.readAllBytes(file.toPath()), copy.toByteArray());
+	}
+
+	@Test
+	public void testByteLinesMatchStringLines() throws Exception {
+		final byte[] data = Files.readAllBytes(file.toPath());
+		final String text = new String(data, "UTF-8");
+		final ByteBuffer buffer = ByteBuffer.wrap(data);
+		final MITABLine25 fromBytes = new MITABLine25();
+		final MITABLine25 fromString = new MITABLine25();
+
+		int start = 0;
+		int lines = 0;
+
+		for (String line : text.split("\n")) {
+			final int end = start + line.getBytes("UTF-8").length;
+
+			if (!line.startsWith("#")) {
+				fromBytes.readLine(buffer, start, end);
+				fromString.readLine(line);
+				lines++;
+
+				assertEquals(line, fromBytes.getLine());
+				assertEquals(fromString.sourceRawID, fromBytes.sourceRawID);
+				assertEquals(fromString.targetRawID, fromBytes.targetRawID);
+				assertEquals(fromString.srcAliases, fromBytes.srcAliases);
+				assertEquals(fromString.tgtAliases, fromBytes.tgtAliases);
+				assertEquals(fromString.authors, fromBytes.authors);
+				assertEquals(fromString.interactionTypes, fromBytes.interactionTypes);
+				assertEquals(fromString.interactionIDs, fromBytes.interactionIDs);
+			}
+
+			start = end + 1;
+		}
+
+		assertEquals(94, lines);
+	}
+}
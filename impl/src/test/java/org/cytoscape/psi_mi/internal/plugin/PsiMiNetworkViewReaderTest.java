@@ -26,6 +26,8 @@ package org.cytoscape.psi_mi.internal.plugin;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
@@ -39,8 +41,13 @@ import org.cytoscape.io.read.CyNetworkReader;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyNetworkTableManager;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.CyTableManager;
 import org.cytoscape.model.NetworkTestSupport;
+import org.cytoscape.model.TableTestSupport;
 import org.cytoscape.model.subnetwork.CyRootNetworkManager;
+import org.cytoscape.psi_mi.internal.data_mapper.PSIMI25EntryMapper;
 import org.cytoscape.psi_mi.internal.plugin.PsiMiCyFileFilter.PSIMIVersion;
 import org.cytoscape.view.layout.CyLayoutAlgorithm;
 import org.cytoscape.view.layout.CyLayoutAlgorithmManager;
@@ -51,6 +58,7 @@ import org.cytoscape.work.TaskIterator;
 import org.cytoscape.work.TaskMonitor;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -148,6 +156,25 @@ public class PsiMiNetworkViewReaderTest {
 		assertEquals(39, network.getEdgeCount());
 	}
 
+	@Test
+	public void testExperimentTableBelongsToNetwork() throws Exception {
+		CyTableManager tableManager = Mockito.mock(CyTableManager.class);
+		CyNetworkTableManager networkTableManager = Mockito.mock(CyNetworkTableManager.class);
+		File file = new File("src/test/resources/testData/psi_sample_2_5_1.xml");
+		PSIMI25XMLNetworkViewReader reader = new PSIMI25XMLNetworkViewReader(new FileInputStream(file),
+				cyApplicationManager, networkFactory, networkViewFactory, layouts, cyNetworkManager, cyRootNetworkManager,
+				new TableTestSupport().getTableFactory(), tableManager, networkTableManager);
+		reader.setTaskIterator(new TaskIterator(reader));
+		reader.run(taskMonitor);
+		CyNetwork network = reader.getNetworks()[0];
+
+		ArgumentCaptor<CyTable> table = ArgumentCaptor.forClass(CyTable.class);
+		verify(networkTableManager).setTable(Mockito.eq(network), Mockito.eq(CyNetwork.class),
+				Mockito.eq(PSIMI25EntryMapper.EXPERIMENT_TABLE), table.capture());
+		verify(tableManager).addTable(table.getValue());
+		assertTrue(table.getValue().getRowCount() > 0);
+	}
+
 	// The following is for performance testing. Enable when necessary.
 	//@Test
 	public void testReadPsiMi25Large() throws Exception {
@@ -0,0 +1,104 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl (psi-mi-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.NetworkTestSupport;
+import org.cytoscape.model.subnetwork.CySubNetwork;
+import org.cytoscape.work.TaskMonitor;
+import org.junit.Test;
+
+public class PsiMiTabParserTest {
+
+	@Test
+	public void testHubIdentityIsWrittenOnce() throws Exception {
+		// P1 is on every line, with other aliases and taxonomy each time
+		final String mitab =
+				"uniprotkb:P1\tuniprotkb:P2\t-\t-\tuniprotkb:TP53(gene name)|uniprotkb:p53(gene name synonym)\t-\t" +
+				"-\t-\t-\ttaxid:9606(human)\ttaxid:9606(human)\t-\t-\t-\t-\n" +
+				"uniprotkb:P1\tuniprotkb:P3\t-\t-\tuniprotkb:OTHER(gene name)|uniprotkb:p53(gene name synonym)|" +
+				"uniprotkb:LFS1(gene name synonym)\t-\t-\t-\t-\ttaxid:10090(mouse)\ttaxid:9606(human)\t-\t-\t-\t-\n" +
+				"uniprotkb:P4\tuniprotkb:P1\t-\t-\t-\tuniprotkb:TP53(gene name)|uniprotkb:BCC7(display_short)\t" +
+				"-\t-\t-\ttaxid:9606(human)\ttaxid:10090(mouse)\t-\t-\t-\t-\n";
+
+		final CySubNetwork network = (CySubNetwork) new NetworkTestSupport().getNetwork();
+		final PsiMiTabParser parser = new PsiMiTabParser(new ByteArrayInputStream(mitab.getBytes(StandardCharsets.UTF_8)));
+		parser.parse(network, mock(TaskMonitor.class));
+
+		assertEquals(4, network.getNodeCount());
+		assertEquals(3, network.getEdgeCount());
+
+		CyRow hub = null;
+		for (CyNode node : network.getNodeList()) {
+			if ("P1".equals(network.getRow(node).get(CyNetwork.NAME, String.class)))
+				hub = network.getRow(node);
+		}
+
+		// The identity comes from the first line only
+		assertEquals("P1", hub.get("uniprotkb", String.class));
+		assertEquals("TP53", hub.get("PSIMI-25.gene name", String.class));
+		assertEquals(Arrays.asList("9606(human)"), hub.getList("PSIMI-25.taxon ID", String.class));
+
+		// IDs and aliases of all lines, each once, in the order they were first seen
+		assertEquals(Arrays.asList("P1", "TP53", "p53", "OTHER", "LFS1", "BCC7"),
+				hub.getList("PSIMI-25.aliases", String.class));
+	}
+
+	@Test
+	public void testNodeMapIsUpdated() throws Exception {
+		final String first = "uniprotkb:P1\tuniprotkb:P2\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\n";
+		final String second = "uniprotkb:P2\tuniprotkb:P3\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\n";
+		final Map<Object, CyNode> nodeMap = new HashMap<Object, CyNode>();
+
+		final CySubNetwork network1 = (CySubNetwork) new NetworkTestSupport().getNetwork();
+		final PsiMiTabParser parser1 = new PsiMiTabParser(new ByteArrayInputStream(first.getBytes(StandardCharsets.UTF_8)));
+		parser1.setNodeMap(nodeMap);
+		parser1.parse(network1, mock(TaskMonitor.class));
+		assertEquals(2, nodeMap.size());
+
+		// A second import into the same root reuses the node of P2
+		final CySubNetwork network2 = network1.getRootNetwork().addSubNetwork();
+		final PsiMiTabParser parser2 = new PsiMiTabParser(new ByteArrayInputStream(second.getBytes(StandardCharsets.UTF_8)));
+		parser2.setNodeMap(nodeMap);
+		parser2.parse(network2, mock(TaskMonitor.class));
+
+		assertEquals(3, nodeMap.size());
+		assertEquals(3, network1.getRootNetwork().getNodeCount());
+		assertTrue(network1.containsNode(nodeMap.get("P2")));
+		assertTrue(network2.containsNode(nodeMap.get("P2")));
+	}
+}
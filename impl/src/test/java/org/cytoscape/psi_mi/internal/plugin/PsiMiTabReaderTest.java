@@ -26,12 +26,22 @@ package org.cytoscape.psi_mi.internal.plugin;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.cytoscape.application.CyApplicationManager;
 import org.cytoscape.application.NetworkViewRenderer;
@@ -40,8 +50,10 @@ import org.cytoscape.io.read.CyNetworkReader;
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNetworkFactory;
 import org.cytoscape.model.CyNetworkManager;
+import org.cytoscape.model.CyNode;
 import org.cytoscape.model.NetworkTestSupport;
 import org.cytoscape.model.subnetwork.CyRootNetworkManager;
+import org.cytoscape.model.subnetwork.CySubNetwork;
 import org.cytoscape.view.layout.CyLayoutAlgorithm;
 import org.cytoscape.view.layout.CyLayoutAlgorithmManager;
 import org.cytoscape.view.model.CyNetworkView;
@@ -51,7 +63,10 @@ import org.cytoscape.work.TaskIterator;
 import org.cytoscape.work.TaskMonitor;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -77,6 +92,9 @@ public class PsiMiTabReaderTest {
 	private CyRootNetworkManager cyRootNetworkManager;
 	private CyNetworkManager cyNetworkManager;
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Before
 	public void setUp() throws Exception {
 		MockitoAnnotations.initMocks(this);
@@ -141,7 +159,95 @@ public class PsiMiTabReaderTest {
 		assertEquals(128, network.getEdgeCount());
 	}
 
-	
+	@Test
+	public void testPsiMiTabReaderZip() throws Exception {
+		final File zip = folder.newFile("BIOGRID-ORGANISM.mitab.zip");
+		final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip));
+
+		for (String name : new String[] { "BIOGRID-ORGANISM-Bos_taurus-3.1.74.mitab", "biogrid_ecoli_single_id.mitab" }) {
+			out.putNextEntry(new ZipEntry(name));
+			out.write(Files.readAllBytes(new File("src/test/resources/testData/" + name).toPath()));
+			out.closeEntry();
+		}
+
+		out.close();
+
+		// All files in one network
+		CyNetworkReader reader = createReader(zip);
+		reader.run(taskMonitor);
+		assertEquals(1, reader.getNetworks().length);
+		assertEquals(109 + 138, reader.getNetworks()[0].getNodeCount());
+		assertEquals(94 + 128, reader.getNetworks()[0].getEdgeCount());
+
+		// One network per file
+		reader = createReader(zip);
+		((PsiMiTabReader) reader).splitArchive = true;
+		reader.run(taskMonitor);
+		CyNetwork[] networks = reader.getNetworks();
+
+		assertEquals(2, networks.length);
+		assertEquals("BIOGRID-ORGANISM-Bos_taurus-3.1.74", networks[0].getRow(networks[0]).get(CyNetwork.NAME, String.class));
+		assertEquals(109, networks[0].getNodeCount());
+		assertEquals(94, networks[0].getEdgeCount());
+		assertEquals(138, networks[1].getNodeCount());
+		assertEquals(128, networks[1].getEdgeCount());
+	}
+
+	@Test
+	public void testPsiMiTabReaderZipParallel() throws Exception {
+		final File zip = folder.newFile("shared.mitab.zip");
+		final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip));
+		final String tail = "\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\n";
+
+		// P1 is in the first two files
+		out.putNextEntry(new ZipEntry("a.mitab"));
+		out.write(("uniprotkb:P1\tuniprotkb:P2" + tail + "uniprotkb:P1\tuniprotkb:P3" + tail).getBytes(StandardCharsets.UTF_8));
+		out.closeEntry();
+		out.putNextEntry(new ZipEntry("b.mitab"));
+		out.write(("uniprotkb:P4\tuniprotkb:P1" + tail + "uniprotkb:P5\tuniprotkb:P6" + tail).getBytes(StandardCharsets.UTF_8));
+		out.closeEntry();
+		out.putNextEntry(new ZipEntry("biogrid_ecoli_single_id.mitab"));
+		out.write(Files.readAllBytes(new File("src/test/resources/testData/biogrid_ecoli_single_id.mitab").toPath()));
+		out.closeEntry();
+		out.close();
+
+		final PsiMiTabReader reader = (PsiMiTabReader) createReader(zip);
+		reader.splitArchive = true;
+		reader.parserThreads = 4;
+		reader.run(taskMonitor);
+		final CyNetwork[] networks = reader.getNetworks();
+
+		assertEquals(3, networks.length);
+		assertEquals(3, networks[0].getNodeCount());
+		assertEquals(2, networks[0].getEdgeCount());
+		assertEquals(4, networks[1].getNodeCount());
+		assertEquals(2, networks[1].getEdgeCount());
+		assertEquals(138, networks[2].getNodeCount());
+		assertEquals(128, networks[2].getEdgeCount());
+
+		// One root node for the interactor of both files
+		assertSame(findNode(networks[0], "P1"), findNode(networks[1], "P1"));
+		assertEquals(3 + 3 + 138, ((CySubNetwork) networks[0]).getRootNetwork().getNodeCount());
+
+		// Progress runs once from 0 to 1 over all files
+		final ArgumentCaptor<Double> progress = ArgumentCaptor.forClass(Double.class);
+		verify(taskMonitor, atLeastOnce()).setProgress(progress.capture());
+		final List<Double> values = progress.getAllValues();
+		final int start = values.indexOf(0.0);
+
+		for (int i = start + 1; i < values.size(); i++)
+			assertTrue(values.toString(), values.get(i) >= values.get(i - 1));
+	}
+
+	private static CyNode findNode(final CyNetwork network, final String name) {
+		for (CyNode node : network.getNodeList()) {
+			if (name.equals(network.getRow(node).get(CyNetwork.NAME, String.class)))
+				return node;
+		}
+
+		return null;
+	}
+
 	private CyNetworkReader createReader(File file) throws IOException {
 		final InputStream is = new FileInputStream(file);
 		PsiMiTabReader reader = new PsiMiTabReader(is, cyApplicationManager, networkViewFactory,
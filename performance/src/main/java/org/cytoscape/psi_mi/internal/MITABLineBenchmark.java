@@ -0,0 +1,143 @@
+package org.cytoscape.psi_mi.internal;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl Performance (psi-mi-impl-performance)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.cytoscape.psi_mi.internal.plugin.MITABLine25;
+
+/**
+ * Measures how many lines per second {@link MITABLine25} can tokenize, and how
+ * much garbage each line produces, both when every line is first decoded into
+ * a String (as BufferedReader.readLine does) and when the tokenizer works
+ * directly on the UTF-8 bytes.
+ *
+ * Usage: MITABLineBenchmark [mitab files...]
+ *
+ * Without arguments the BIOGRID-ORGANISM test files of the impl module are used.
+ */
+public class MITABLineBenchmark {
+
+	private static final String TEST_DATA = "../impl/src/test/resources/testData/";
+	private static final String[] DEFAULT_FILES = {
+		TEST_DATA + "BIOGRID-ORGANISM-Bos_taurus-3.1.74.mitab",
+		TEST_DATA + "biogrid_ecoli_single_id.mitab"
+	};
+
+	private static final int WARMUP_SECONDS = 3;
+	private static final int RUN_SECONDS = 5;
+
+	public static void main(String[] args) {
+		try {
+			final ByteArrayOutputStream data = new ByteArrayOutputStream();
+			for (String file : args.length > 0 ? args : DEFAULT_FILES)
+				data.write(Files.readAllBytes(new File(file).toPath()));
+
+			final Lines lines = new Lines(data.toByteArray());
+			System.out.println("lines per pass: " + lines.count);
+
+			for (boolean bytes : new boolean[] { true, false }) {
+				run(lines, bytes, WARMUP_SECONDS);
+				final long allocated = allocatedBytes();
+				final double[] result = run(lines, bytes, RUN_SECONDS);
+				final double bytesPerLine = (allocatedBytes() - allocated) / result[1];
+				System.out.println(String.format("MITABLine25.readLine(%s): %,.0f lines/sec, %,.0f bytes allocated/line",
+						bytes ? "ByteBuffer" : "String", result[0], bytesPerLine));
+			}
+		} catch (Exception e) { e.printStackTrace(); }
+	}
+
+	private static double[] run(final Lines lines, final boolean bytes, final int seconds) {
+		final MITABLine25 mline = new MITABLine25();
+		final ByteBuffer buffer = ByteBuffer.wrap(lines.data);
+		final long deadline = System.nanoTime() + seconds * 1000000000L;
+		final long start = System.nanoTime();
+		long count = 0;
+		long end;
+
+		do {
+			for (int i = 0; i < lines.count; i++) {
+				if (bytes)
+					mline.readLine(buffer, lines.starts[i], lines.ends[i]);
+				else
+					mline.readLine(new String(lines.data, lines.starts[i], lines.ends[i] - lines.starts[i], StandardCharsets.UTF_8));
+			}
+
+			count += lines.count;
+			end = System.nanoTime();
+		} while (end < deadline);
+
+		return new double[] { count / ((end - start) / 1e9), count };
+	}
+
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Offsets of all non-comment lines in the raw data.
+	 */
+	private static final class Lines {
+		final byte[] data;
+		final int[] starts;
+		final int[] ends;
+		final int count;
+
+		Lines(final byte[] data) {
+			int lines = 0;
+			for (byte b : data)
+				if (b == '\n')
+					lines++;
+
+			this.data = data;
+			this.starts = new int[lines + 1];
+			this.ends = new int[lines + 1];
+
+			int n = 0;
+			int start = 0;
+
+			while (start < data.length) {
+				int end = start;
+				while (end < data.length && data[end] != '\n')
+					end++;
+
+				if (end > start && data[start] != '#') {
+					starts[n] = start;
+					ends[n] = end;
+					n++;
+				}
+
+				start = end + 1;
+			}
+
+			this.count = n;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package org.cytoscape.psi_mi.internal;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl Performance (psi-mi-impl-performance)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.mockito.Mockito.mock;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.cytoscape.model.NetworkTestSupport;
+import org.cytoscape.model.subnetwork.CySubNetwork;
+import org.cytoscape.psi_mi.internal.plugin.PsiMiTabParser;
+import org.cytoscape.work.TaskMonitor;
+
+/**
+ * Imports a large synthetic MITAB file with 1, 2, 4 and 8 parser threads and
+ * reports the throughput and the pipeline statistics of each run.  The file is made of copies of the
+ * BIOGRID-ORGANISM test files, with the interactor IDs of every copy renamed
+ * so that each copy adds new nodes.
+ *
+ * Usage: MITABParallelBenchmark [copies]
+ */
+public class MITABParallelBenchmark {
+
+	private static final String TEST_DATA = "../impl/src/test/resources/testData/";
+	private static final String[] SOURCE_FILES = {
+		TEST_DATA + "BIOGRID-ORGANISM-Bos_taurus-3.1.74.mitab",
+		TEST_DATA + "biogrid_ecoli_single_id.mitab"
+	};
+
+	private static final int[] THREADS = { 1, 2, 4, 8 };
+	private static final int DEFAULT_COPIES = 1000;
+
+	public static void main(String[] args) {
+		try {
+			final int copies = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_COPIES;
+			final File file = File.createTempFile("psimi-parallel", ".mitab");
+			file.deleteOnExit();
+
+			final long lines = writeSyntheticFile(file, copies);
+			System.out.println(String.format("%,d lines, %,d bytes", lines, file.length()));
+
+			// Warm up every code path once
+			for (int threads : THREADS)
+				importFile(file, threads);
+
+			for (int threads : THREADS) {
+				final long start = System.nanoTime();
+				final PsiMiTabParser parser = importFile(file, threads);
+				final double seconds = (System.nanoTime() - start) / 1e9;
+
+				System.out.println(String.format("%d thread(s): %.2f s, %,.0f lines/sec", threads, seconds, lines / seconds));
+				System.out.println("  " + parser.getPipelineStats());
+			}
+		} catch (Exception e) { e.printStackTrace(); }
+	}
+
+	private static PsiMiTabParser importFile(final File file, final int threads) throws Exception {
+		final CySubNetwork network = (CySubNetwork) new NetworkTestSupport().getNetwork();
+		final FileInputStream is = new FileInputStream(file);
+		final PsiMiTabParser parser = new PsiMiTabParser(is);
+
+		try {
+			parser.setNodeMap(new HashMap<Object, org.cytoscape.model.CyNode>());
+			parser.setThreadCount(threads);
+			parser.parse(network, mock(TaskMonitor.class));
+		} finally {
+			is.close();
+		}
+
+		return parser;
+	}
+
+	private static long writeSyntheticFile(final File file, final int copies) throws Exception {
+		final List<String[]> lines = new ArrayList<String[]>();
+
+		for (String source : SOURCE_FILES) {
+			final BufferedReader br = new BufferedReader(new FileReader(source));
+
+			try {
+				String line;
+				while ((line = br.readLine()) != null) {
+					if (!line.isEmpty() && !line.startsWith("#"))
+						lines.add(line.split("\t", 3));
+				}
+			} finally {
+				br.close();
+			}
+		}
+
+		final OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+
+		try {
+			for (int copy = 0; copy < copies; copy++) {
+				for (String[] columns : lines) {
+					final String line = rename(columns[0], copy) + '\t' + rename(columns[1], copy) + '\t' + columns[2] + '\n';
+					out.write(line.getBytes(StandardCharsets.UTF_8));
+				}
+			}
+		} finally {
+			out.close();
+		}
+
+		return (long) copies * lines.size();
+	}
+
+	/** Appends the copy number to the first ID of an interactor column. */
+	private static String rename(final String column, final int copy) {
+		final int end = column.indexOf('|');
+		return end < 0 ? column + "_" + copy : column.substring(0, end) + "_" + copy + column.substring(end);
+	}
+}
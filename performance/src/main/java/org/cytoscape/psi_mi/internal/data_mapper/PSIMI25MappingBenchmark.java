@@ -0,0 +1,213 @@
+package org.cytoscape.psi_mi.internal.data_mapper;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl Performance (psi-mi-impl-performance)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyIdentifiable;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.model.CyTableFactory;
+import org.cytoscape.model.NetworkTestSupport;
+import org.cytoscape.model.TableTestSupport;
+
+/**
+ * Times {@link PSIMI25EntryMapper} on a generated PSI-MI 2.5 file whose
+ * interactors and interactions carry names, xrefs, organisms, types,
+ * experiments and attributes, as in IntAct exports.
+ * <p>
+ * The mapper resolves each column once per import and fetches each row once.
+ * To show what that saves, the values of the last import are then written
+ * to new tables twice: once as the mapper writes them, and once as it used
+ * to, with a column check and a row lookup per value and every list read
+ * back, copied and written again per element.
+ *
+ * Usage: PSIMI25MappingBenchmark [interactions]
+ */
+public class PSIMI25MappingBenchmark {
+
+	private static final int DEFAULT_INTERACTIONS = 100000;
+	private static final int EXPERIMENTS = 50;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		try {
+			final int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_INTERACTIONS;
+			final byte[] xml = createXml(count);
+			final CyTableFactory tableFactory = new TableTestSupport().getTableFactory();
+			CyNetwork network = null;
+
+			System.out.println(String.format("%,d interactions, %,d bytes of XML", count, xml.length));
+
+			for (int round = 0; round < ROUNDS; round++) {
+				network = new NetworkTestSupport().getNetwork();
+				final long start = System.nanoTime();
+				new PSIMI25EntryMapper(network, tableFactory).map(new ByteArrayInputStream(xml));
+				final long millis = (System.nanoTime() - start) / 1000000;
+
+				System.out.println(String.format("import: %,d ms, %,d nodes, %,d edges", millis,
+						network.getNodeCount(), network.getEdgeCount()));
+			}
+
+			final List<Map<String, Object>> nodes = values(network.getDefaultNodeTable());
+			final List<Map<String, Object>> edges = values(network.getDefaultEdgeTable());
+
+			for (int round = 0; round < ROUNDS; round++) {
+				for (boolean perValue : new boolean[] { true, false }) {
+					final CyTable nodeTable = tableFactory.createTable("nodes", CyIdentifiable.SUID, Long.class, true, true);
+					final CyTable edgeTable = tableFactory.createTable("edges", CyIdentifiable.SUID, Long.class, true, true);
+					final long start = System.nanoTime();
+					write(network.getDefaultNodeTable(), nodeTable, nodes, perValue);
+					write(network.getDefaultEdgeTable(), edgeTable, edges, perValue);
+					final long millis = (System.nanoTime() - start) / 1000000;
+
+					System.out.println(String.format("%-22s %,d ms", perValue ? "row writes as before:" : "row writes now:", millis));
+				}
+			}
+		} catch (Exception e) { e.printStackTrace(); }
+	}
+
+	/**
+	 * @return the values of every row, with its key as the SUID entry.
+	 */
+	private static List<Map<String, Object>> values(final CyTable table) {
+		final List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+
+		for (CyRow row : table.getAllRows()) {
+			final Map<String, Object> values = new LinkedHashMap<String, Object>(row.getAllValues());
+			values.values().removeAll(Collections.singleton(null));
+			rows.add(values);
+		}
+
+		return rows;
+	}
+
+	/**
+	 * Writes the rows to the target, which has the columns of the source, with
+	 * the columns resolved once and one row lookup per row, or, perValue, with a
+	 * column check and a row lookup per value and per list element.
+	 */
+	private static void write(final CyTable source, final CyTable target, final List<Map<String, Object>> rows,
+			final boolean perValue) {
+		if (!perValue) {
+			for (CyColumn column : source.getColumns())
+				createColumn(target, column);
+		}
+
+		for (Map<String, Object> values : rows) {
+			final Long key = (Long) values.get(CyIdentifiable.SUID);
+			final CyRow row = perValue ? null : target.getRow(key);
+
+			for (Map.Entry<String, Object> entry : values.entrySet()) {
+				final String name = entry.getKey();
+
+				if (name.equals(CyIdentifiable.SUID))
+					continue;
+
+				if (!perValue) {
+					row.set(name, entry.getValue());
+					continue;
+				}
+
+				if (target.getColumn(name) == null)
+					createColumn(target, source.getColumn(name));
+
+				if (entry.getValue() instanceof List) {
+					for (Object element : (List<?>) entry.getValue()) {
+						final List<?> old = target.getRow(key).getList(name, target.getColumn(name).getListElementType());
+						final List<Object> list = old == null ? new ArrayList<Object>() : new ArrayList<Object>(old);
+						list.add(element);
+						target.getRow(key).set(name, list);
+					}
+				} else {
+					target.getRow(key).set(name, entry.getValue());
+				}
+			}
+		}
+	}
+
+	private static void createColumn(final CyTable table, final CyColumn column) {
+		if (table.getColumn(column.getName()) != null)
+			return;
+
+		if (column.getType() == List.class)
+			table.createListColumn(column.getName(), column.getListElementType(), false);
+		else
+			table.createColumn(column.getName(), column.getType(), false);
+	}
+
+	private static byte[] createXml(final int interactions) {
+		final int interactors = Math.max(2, interactions / 2);
+		final StringBuilder xml = new StringBuilder("<entrySet xmlns=\"net:sf:psidev:mi\" level=\"2\" version=\"5\"><entry>");
+		xml.append("<source><names><shortLabel>benchmark</shortLabel></names></source><experimentList>");
+
+		for (int e = 1; e <= EXPERIMENTS; e++) {
+			xml.append("<experimentDescription id=\"").append(e).append("\"><names><shortLabel>exp-").append(e)
+					.append("</shortLabel></names><bibref><xref><primaryRef db=\"pubmed\" id=\"").append(20000000 + e)
+					.append("\"/></xref></bibref><interactionDetectionMethod><names><shortLabel>two hybrid")
+					.append("</shortLabel></names></interactionDetectionMethod></experimentDescription>");
+		}
+
+		xml.append("</experimentList><interactorList>");
+
+		for (int i = 1; i <= interactors; i++) {
+			xml.append("<interactor id=\"").append(i).append("\"><names><shortLabel>P").append(i)
+					.append("</shortLabel><fullName>Protein ").append(i).append("</fullName><alias type=\"gene name\">G")
+					.append(i).append("</alias></names><xref><primaryRef db=\"uniprotkb\" id=\"P").append(i)
+					.append("\"/></xref><interactorType><names><shortLabel>protein</shortLabel></names></interactorType>")
+					.append("<organism ncbiTaxId=\"9606\"><names><shortLabel>human</shortLabel></names></organism>")
+					.append("<attributeList><attribute name=\"comment\">interactor ").append(i)
+					.append("</attribute><attribute name=\"curated-complex\">C").append(i % 100)
+					.append("</attribute></attributeList></interactor>");
+		}
+
+		xml.append("</interactorList><interactionList>");
+
+		for (int k = 0; k < interactions; k++) {
+			final int id = interactors + 1 + 3 * k;
+			xml.append("<interaction id=\"").append(id).append("\"><names><shortLabel>int-").append(k)
+					.append("</shortLabel></names><experimentList><experimentRef>").append(1 + k % EXPERIMENTS)
+					.append("</experimentRef></experimentList><participantList><participant id=\"").append(id + 1)
+					.append("\"><interactorRef>").append(1 + k % interactors).append("</interactorRef></participant>")
+					.append("<participant id=\"").append(id + 2).append("\"><interactorRef>")
+					.append(1 + (int) ((k * 1000003L) % interactors)).append("</interactorRef></participant>")
+					.append("</participantList><interactionType><names><shortLabel>physical association</shortLabel>")
+					.append("</names></interactionType><attributeList><attribute name=\"figure legend\">Fig. ")
+					.append(k % 7).append("</attribute><attribute name=\"comment\">first</attribute>")
+					.append("<attribute name=\"comment\">second</attribute></attributeList></interaction>");
+		}
+
+		xml.append("</interactionList></entry></entrySet>");
+		return xml.toString().getBytes(StandardCharsets.UTF_8);
+	}
+}
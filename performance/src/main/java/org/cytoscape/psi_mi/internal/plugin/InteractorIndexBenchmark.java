@@ -0,0 +1,112 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl Performance (psi-mi-impl-performance)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import static org.mockito.Mockito.mock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cytoscape.model.CyNode;
+
+/**
+ * Compares the heap retained by the node map the MITAB parser used to keep
+ * (a HashMap from interactor ID to CyNode) with {@link InteractorIndex}, and
+ * the time both take to resolve IDs in random order, as they come in a file.
+ * The nodes themselves are not counted: all keys map to the same node.
+ *
+ * Usage: InteractorIndexBenchmark [interactors]
+ */
+public class InteractorIndexBenchmark {
+
+	private static final int DEFAULT_INTERACTORS = 2000000;
+	private static final int LOOKUPS_PER_INTERACTOR = 5;
+
+	public static void main(String[] args) {
+		try {
+			final int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_INTERACTORS;
+			final CyNode node = mock(CyNode.class);
+
+			long before = usedMemory();
+			final Map<Object, CyNode> map = new HashMap<Object, CyNode>();
+			for (int i = 0; i < count; i++)
+				map.put(id(i), node);
+			final long mapBytes = usedMemory() - before;
+
+			before = usedMemory();
+			final InteractorIndex index = new InteractorIndex();
+			for (int i = 0; i < count; i++)
+				index.setSUID(index.lookupOrInsert(id(i)), i);
+			final long indexBytes = usedMemory() - before;
+
+			System.out.println(String.format("%,d interactors", count));
+			System.out.println(String.format("HashMap<Object, CyNode>: %,d bytes (%.1f per interactor)", mapBytes, (double) mapBytes / count));
+			System.out.println(String.format("InteractorIndex:         %,d bytes (%.1f per interactor), %,d in arrays",
+					indexBytes, (double) indexBytes / count, index.memoryBytes()));
+
+			for (int round = 0; round < 3; round++) {
+				long start = System.nanoTime();
+				long found = 0;
+				for (int i = 0; i < count * LOOKUPS_PER_INTERACTOR; i++) {
+					// Get, then get again, as the parser did for every endpoint
+					final String id = id(scramble(i, count));
+					if (map.get(id) != null)
+						found += map.get(id) == node ? 1 : 0;
+				}
+				final double mapNanos = (System.nanoTime() - start) / (double) (count * LOOKUPS_PER_INTERACTOR);
+
+				start = System.nanoTime();
+				for (int i = 0; i < count * LOOKUPS_PER_INTERACTOR; i++)
+					found += index.getSUID(index.lookupOrInsert(id(scramble(i, count)))) >= 0 ? 1 : 0;
+				final double indexNanos = (System.nanoTime() - start) / (double) (count * LOOKUPS_PER_INTERACTOR);
+
+				System.out.println(String.format("lookup: HashMap %.1f ns, InteractorIndex %.1f ns (%d)", mapNanos, indexNanos, found));
+			}
+
+			// Keep both alive until the end
+			System.out.println(map.size() + index.size() > 0 ? "" : "empty");
+		} catch (Exception e) { e.printStackTrace(); }
+	}
+
+	/** A fresh String per call, like the IDs cut from MITAB lines. */
+	private static String id(final int i) {
+		return "uniprotkb:Q" + (1000000 + i);
+	}
+
+	private static int scramble(final int i, final int count) {
+		return (int) ((i * 1000003L) % count);
+	}
+
+	private static long usedMemory() throws InterruptedException {
+		final Runtime runtime = Runtime.getRuntime();
+
+		for (int i = 0; i < 4; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
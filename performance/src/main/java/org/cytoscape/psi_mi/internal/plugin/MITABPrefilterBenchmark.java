@@ -0,0 +1,150 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl Performance (psi-mi-impl-performance)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how fast a selective taxon filter ("taxid:9606" on a file with
+ * many organisms) goes through the lines of a MITAB file, once by tokenizing
+ * every line and checking the {@link MITABLineFilter}, and once with the
+ * {@link MITABPrefilter} rejecting lines on their raw bytes first.
+ *
+ * The synthetic file is made from the lines of the BIOGRID-ORGANISM test
+ * files of the impl module, with the taxa of both interactors drawn at random
+ * from a list of organisms.
+ *
+ * Usage: MITABPrefilterBenchmark [lines]
+ */
+public class MITABPrefilterBenchmark {
+
+	private static final String TEST_DATA = "../impl/src/test/resources/testData/";
+	private static final String[] FILES = {
+		TEST_DATA + "BIOGRID-ORGANISM-Bos_taurus-3.1.74.mitab",
+		TEST_DATA + "biogrid_ecoli_single_id.mitab"
+	};
+
+	private static final String[] ORGANISMS = {
+		"9606(human)", "10090(mouse)", "10116(rat)", "9913(bovine)", "3702(arath)", "559292(yeast)",
+		"7227(drome)", "6239(caeel)", "7955(danre)", "83333(ecoli)", "9031(chick)", "8355(xenla)",
+		"284812(schpo)", "36329(plaf7)", "9823(pig)", "9615(canlf)", "39947(oryza)", "4577(maize)",
+		"1773(myctu)", "224308(bacsu)"
+	};
+
+	private static final int DEFAULT_LINES = 1000000;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		try {
+			final int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LINES;
+			final byte[] data = synthesize(count);
+
+			final MITABLineFilter filter = new MITABLineFilter();
+			filter.setTaxonIDs(Arrays.asList("9606"), MITABLineFilter.TaxonMode.EITHER);
+			final MITABLineFormat format = new MITABLineFormat(new MITABTermDictionary(),
+					MITABColumn.mask(filter.getColumns()), filter);
+
+			System.out.println(String.format("%,d lines, %,d bytes, filter taxid 9606 for either interactor", count, data.length));
+
+			for (int round = 0; round < ROUNDS; round++) {
+				for (boolean prefilter : new boolean[] { false, true }) {
+					final long start = System.nanoTime();
+					final long accepted = run(data, format, prefilter);
+					final double seconds = (System.nanoTime() - start) / 1e9;
+
+					System.out.println(String.format("%-28s %,12.0f lines/sec, %,d accepted",
+							prefilter ? "prefilter, then tokenize:" : "tokenize every line:", count / seconds, accepted));
+				}
+			}
+
+			System.out.println("Filter: " + filter);
+		} catch (Exception e) { e.printStackTrace(); }
+	}
+
+	private static long run(final byte[] data, final MITABLineFormat format, final boolean prefilter) {
+		final ByteBuffer buffer = ByteBuffer.wrap(data);
+		final MITABChunkLines lines = new MITABChunkLines(buffer);
+		final MITABLine25 mline = format.newLine();
+		long accepted = 0;
+
+		while (lines.next()) {
+			if (prefilter && !format.accept(buffer, lines.start, lines.end))
+				continue;
+
+			mline.readLine(buffer, lines.start, lines.end);
+
+			if (format.accept(mline))
+				accepted++;
+		}
+
+		return accepted;
+	}
+
+	private static byte[] synthesize(final int count) throws Exception {
+		final List<String[]> templates = new ArrayList<String[]>();
+
+		for (String file : FILES) {
+			final BufferedReader br = new BufferedReader(new FileReader(new File(file)));
+
+			try {
+				String line;
+				while ((line = br.readLine()) != null) {
+					if (!line.isEmpty() && !line.startsWith("#"))
+						templates.add(line.split("\t", -1));
+				}
+			} finally {
+				br.close();
+			}
+		}
+
+		final Random random = new Random(42);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < count; i++) {
+			final String[] columns = templates.get(i % templates.size()).clone();
+			columns[9] = "taxid:" + ORGANISMS[random.nextInt(ORGANISMS.length)];
+			columns[10] = "taxid:" + ORGANISMS[random.nextInt(ORGANISMS.length)];
+
+			sb.setLength(0);
+			for (int c = 0; c < columns.length; c++)
+				sb.append(c == 0 ? "" : "\t").append(columns[c]);
+			sb.append('\n');
+
+			out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+		}
+
+		return out.toByteArray();
+	}
+}
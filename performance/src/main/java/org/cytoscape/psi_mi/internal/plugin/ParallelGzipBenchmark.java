@@ -0,0 +1,232 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl Performance (psi-mi-impl-performance)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures how fast gzip compressed MITAB is decompressed by a single
+ * GZIPInputStream and by {@link ParallelGzipInputStream} with an increasing
+ * number of threads.  The synthetic file, made from the lines of the test
+ * files of the impl module, is written three times: as one gzip member, as
+ * concatenated members of 4 MB each, and as BGZF blocks like bgzip writes.
+ *
+ * Usage: ParallelGzipBenchmark [megabytes]
+ */
+public class ParallelGzipBenchmark {
+
+	private static final String TEST_DATA = "../impl/src/test/resources/testData/";
+	private static final String[] FILES = {
+		TEST_DATA + "BIOGRID-ORGANISM-Bos_taurus-3.1.74.mitab",
+		TEST_DATA + "biogrid_ecoli_single_id.mitab"
+	};
+
+	private static final int DEFAULT_MEGABYTES = 256;
+	private static final int MEMBER_SIZE = 4 * 1024 * 1024;
+	private static final int BGZF_BLOCK_SIZE = 65280;
+	private static final int ROUNDS = 3;
+
+	public static void main(String[] args) {
+		try {
+			final int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MEGABYTES;
+			final byte[] data = synthesize(megabytes * 1024L * 1024L);
+			final int processors = Runtime.getRuntime().availableProcessors();
+
+			final File single = write(data, 0, "single");
+			final File members = write(data, MEMBER_SIZE, "members");
+			final File bgzf = write(data, -1, "bgzf");
+
+			System.out.println(String.format("%,d bytes of MITAB, %d processors", data.length, processors));
+
+			for (File file : new File[] { single, members, bgzf }) {
+				System.out.println(String.format("%s: %,d bytes compressed", file.getName(), file.length()));
+
+				for (int round = 0; round < ROUNDS; round++) {
+					report("GZIPInputStream:", file, 0, data.length);
+
+					for (int threads = 2; threads <= Math.max(2, processors); threads *= 2)
+						report(threads + " threads:", file, threads, data.length);
+				}
+			}
+		} catch (Exception e) { e.printStackTrace(); }
+	}
+
+	/**
+	 * @param threads 0 for a plain GZIPInputStream.
+	 */
+	private static void report(final String label, final File file, final int threads, final long expected) throws IOException {
+		final FileInputStream fis = new FileInputStream(file);
+		final long start = System.nanoTime();
+		long total = 0;
+		String kind;
+
+		try {
+			final InputStream in = threads == 0 ? new GZIPInputStream(fis, 64 * 1024) : MITABInput.open(fis, threads);
+			kind = in.getClass().getSimpleName();
+			final byte[] buffer = new byte[1024 * 1024];
+			int n;
+
+			while ((n = in.read(buffer)) >= 0)
+				total += n;
+
+			in.close();
+		} finally {
+			fis.close();
+		}
+
+		final double seconds = (System.nanoTime() - start) / 1e9;
+
+		if (total != expected)
+			throw new IOException("Read " + total + " bytes instead of " + expected);
+
+		System.out.println(String.format("  %-18s %,8.1f MB/sec (%s)", label, total / seconds / 1e6, kind));
+	}
+
+	/**
+	 * @param memberSize input bytes per gzip member, 0 for a single member and
+	 *        -1 for BGZF blocks.
+	 */
+	private static File write(final byte[] data, final int memberSize, final String name) throws IOException {
+		final File file = File.createTempFile("mitab-" + name + "-", ".mitab.gz");
+		file.deleteOnExit();
+		final OutputStream out = new FileOutputStream(file);
+
+		try {
+			if (memberSize < 0) {
+				writeBgzf(out, data);
+			} else {
+				final int step = memberSize == 0 ? data.length : memberSize;
+
+				for (int start = 0; start < data.length; start += step) {
+					final GZIPOutputStream gz = new GZIPOutputStream(new NonClosingOutputStream(out), 64 * 1024);
+					gz.write(data, start, Math.min(step, data.length - start));
+					gz.close();
+				}
+			}
+		} finally {
+			out.close();
+		}
+
+		return file;
+	}
+
+	private static void writeBgzf(final OutputStream out, final byte[] data) throws IOException {
+		final byte[] compressed = new byte[BGZF_BLOCK_SIZE * 2];
+		final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+		for (int offset = 0; ; offset += BGZF_BLOCK_SIZE) {
+			final int start = Math.min(offset, data.length);
+			final int length = Math.min(BGZF_BLOCK_SIZE, data.length - start);
+			deflater.reset();
+			deflater.setInput(data, start, length);
+			deflater.finish();
+			final int size = deflater.deflate(compressed);
+
+			final CRC32 crc = new CRC32();
+			crc.update(data, start, length);
+			final int total = 18 + size + 8;
+
+			out.write(new byte[] { 0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0,
+					(byte) (total - 1), (byte) ((total - 1) >>> 8) });
+			out.write(compressed, 0, size);
+			writeInt(out, (int) crc.getValue());
+			writeInt(out, length);
+
+			// The last block is empty and marks the end of the file
+			if (length == 0)
+				break;
+		}
+
+		deflater.end();
+	}
+
+	private static void writeInt(final OutputStream out, final int value) throws IOException {
+		for (int i = 0; i < 32; i += 8)
+			out.write(value >>> i);
+	}
+
+	private static byte[] synthesize(final long size) throws IOException {
+		final List<String> lines = new ArrayList<String>();
+
+		for (String file : FILES) {
+			final BufferedReader br = new BufferedReader(new FileReader(new File(file)));
+
+			try {
+				String line;
+				while ((line = br.readLine()) != null) {
+					if (!line.isEmpty() && !line.startsWith("#"))
+						lines.add(line);
+				}
+			} finally {
+				br.close();
+			}
+		}
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		// The test files together are larger than the deflate window, so the
+		// copies compress like the original
+		for (int i = 0; out.size() < size; i++)
+			out.write((lines.get(i % lines.size()) + "\n").getBytes(StandardCharsets.UTF_8));
+
+		return out.toByteArray();
+	}
+
+	/**
+	 * Lets GZIPOutputStream finish a member without closing the file.
+	 */
+	private static final class NonClosingOutputStream extends FilterOutputStream {
+
+		NonClosingOutputStream(final OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package org.cytoscape.psi_mi.internal.plugin;
+
+/*
+ * #%L
+ * Cytoscape PSI-MI Impl Performance (psi-mi-impl-performance)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013 The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.NetworkTestSupport;
+
+/**
+ * Measures what the MITAB parser allocates to turn interaction types and
+ * detection methods such as <code>psi-mi:"MI:0018"(two hybrid)</code> into
+ * ID and description attributes.  The terms are split on every line, as the
+ * parser used to do, and through a {@link TypedTermCache}; then the lists are
+ * written to the edges of a network with and without interning, and the heap
+ * they retain is compared.
+ *
+ * Usage: TypedTermBenchmark [lines]
+ */
+public class TypedTermBenchmark {
+
+	private static final String[] TERMS = {
+		"\"MI:0915\"(physical association)", "\"MI:0407\"(direct interaction)", "\"MI:0914\"(association)",
+		"\"MI:0403\"(colocalization)", "\"MI:0794\"(synthetic genetic interaction defined by inequality)",
+		"\"MI:0018\"(two hybrid)", "\"MI:0004\"(affinity chromatography technology)", "\"MI:0096\"(pull down)",
+		"\"MI:0019\"(coimmunoprecipitation)", "\"MI:0047\"(far western blotting)", "\"MI:0114\"(x-ray crystallography)",
+		"\"MI:0676\"(tandem affinity purification)", "\"MI:0686\"(unspecified method)", "\"MI:0055\"(fluorescent resonance energy transfer)",
+		"\"MI:0071\"(molecular sieving)", "\"MI:0254\"(genetic interference)", "\"MI:0397\"(two hybrid array)",
+		"\"MI:0398\"(two hybrid pooling approach)", "\"MI:0399\"(two hybrid fragment pooling approach)",
+		"\"MI:0401\"(biochemical)", "\"MI:0404\"(comigration in non denaturing gel electrophoresis)",
+		"\"MI:0411\"(enzyme linked immunosorbent assay)", "\"MI:0416\"(fluorescence microscopy)",
+		"\"MI:0424\"(protein kinase assay)", "\"MI:0428\"(imaging technique)", "\"MI:0435\"(protease assay)",
+		"\"MI:0809\"(bimolecular fluorescence complementation)", "\"MI:0892\"(solid phase assay)",
+		"\"MI:0030\"(cross-linking study)", "\"MI:0065\"(isothermal titration calorimetry)"
+	};
+
+	private static final String ID_COLUMN = "interaction type ID";
+	private static final String DESCRIPTION_COLUMN = "interaction type";
+
+	private static final int DEFAULT_LINES = 2000000;
+	private static final int EDGES = 200000;
+	private static final int ROUNDS = 3;
+
+	public static void main(String[] args) {
+		try {
+			final int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LINES;
+
+			// The parser's terms come from a dictionary, so equal terms are one String
+			final String[] lines = new String[count];
+			for (int i = 0; i < count; i++)
+				lines[i] = TERMS[(int) ((i * 1000003L) % TERMS.length)];
+
+			System.out.println(String.format("%,d lines, %d distinct terms", count, TERMS.length));
+
+			for (int round = 0; round < ROUNDS; round++) {
+				for (boolean cached : new boolean[] { false, true }) {
+					final TypedTermCache cache = new TypedTermCache();
+					final long bytes = allocatedBytes();
+					final long start = System.nanoTime();
+					long length = 0;
+
+					for (int i = 0; i < count; i++) {
+						final TypedTermCache.Term term = cached ? cache.get(lines[i]) : TypedTermCache.split(lines[i]);
+						length += term.id.length() + term.description.length();
+					}
+
+					final double nanos = (System.nanoTime() - start) / (double) count;
+					final double allocated = (allocatedBytes() - bytes) / (double) count;
+
+					System.out.println(String.format("%-16s %6.1f ns, %6.1f bytes allocated per term (%d)",
+							cached ? "cached split:" : "split per line:", nanos, allocated, length));
+				}
+			}
+
+			for (boolean intern : new boolean[] { false, true }) {
+				final NetworkTestSupport support = new NetworkTestSupport();
+				final CyNetwork network = support.getNetwork();
+				network.getDefaultEdgeTable().createListColumn(ID_COLUMN, String.class, false);
+				network.getDefaultEdgeTable().createListColumn(DESCRIPTION_COLUMN, String.class, false);
+
+				final CyNode source = network.addNode();
+				final CyNode target = network.addNode();
+				final List<CyRow> rows = new ArrayList<CyRow>();
+				for (int i = 0; i < EDGES; i++) {
+					final CyEdge edge = network.addEdge(source, target, true);
+					rows.add(network.getRow(edge));
+				}
+
+				final long before = usedMemory();
+				final TypedTermCache cache = new TypedTermCache();
+				final ListAttributeAccumulator lists = new ListAttributeAccumulator();
+				if (intern) {
+					lists.intern(ID_COLUMN);
+					lists.intern(DESCRIPTION_COLUMN);
+				}
+
+				for (int i = 0; i < EDGES; i++) {
+					final TypedTermCache.Term term = cache.get(lines[i % count]);
+					lists.add(rows.get(i), ID_COLUMN, term.id);
+					lists.add(rows.get(i), DESCRIPTION_COLUMN, term.description);
+
+					// The parser writes the lists of an edge after its line
+					lists.flush();
+				}
+
+				final long retained = usedMemory() - before;
+				System.out.println(String.format("%-16s %,d bytes retained by %,d edges (%.1f per edge)",
+						intern ? "interned lists:" : "lists per edge:", retained, EDGES, (double) retained / EDGES));
+
+				// Keep the network alive until it is measured
+				System.out.println(network.getEdgeCount() == EDGES ? "" : "missing edges");
+			}
+		} catch (Exception e) { e.printStackTrace(); }
+	}
+
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static long usedMemory() throws InterruptedException {
+		final Runtime runtime = Runtime.getRuntime();
+
+		for (int i = 0; i < 4; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}